@@ -0,0 +1,128 @@
+package indices;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks de las operaciones agregarFrase, resolver y presentarIndice para
+ * los tres tipos de índice, sobre corpus sintéticos generados localmente.
+ * Se parametrizan por el tipo de índice, el número de líneas, el tamaño del
+ * vocabulario y los delimitadores: "simple" es una clase de caracteres (vía
+ * rápida del Tokenizador) y "regex" una expresión regular general.
+ *
+ * Se ejecutan con:
+ *   mvn -Pjmh package
+ *   java -jar target/benchmarks.jar BenchmarkIndice -prof gc
+ * y se pueden restringir los parámetros, por ejemplo con -p lineas=1000,100000.
+ * El perfilador gc añade la tasa de reserva de memoria (gc.alloc.rate).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class BenchmarkIndice {
+	@Param({ "IndiceContador", "IndiceLineas", "IndicePosicionesEnLineas" })
+	private String tipo;
+
+	@Param({ "1000", "100000", "10000000" })
+	private int lineas;
+
+	@Param({ "1000", "100000" })
+	private int vocabulario;
+
+	@Param({ "simple", "regex" })
+	private String delimitadores;
+
+	private String[] corpus;
+	private String delim;
+	private Indice indice;
+	private PrintWriter nulo;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		corpus = CorpusSintetico.generar(lineas, vocabulario, 52L);
+		delim = delimitadores.equals("simple")
+				? "[ .,:;\\-\\!\\?]+"
+				: "[\\s.,:;!?]+|--";
+		indice = crear();
+		for (String linea : corpus) {
+			indice.agregarFrase(linea);
+		}
+		indice.resolver(delim);
+		nulo = new PrintWriter(Writer.nullWriter());
+	}
+
+	@Benchmark
+	public Indice agregarFrase() {
+		Indice ind = crear();
+		for (String linea : corpus) {
+			ind.agregarFrase(linea);
+		}
+		return ind;
+	}
+
+	@Benchmark
+	public Indice resolver() {
+		indice.resolver(delim);
+		return indice;
+	}
+
+	@Benchmark
+	public Indice resolverParalelo() {
+		indice.resolverParalelo(delim, Runtime.getRuntime().availableProcessors());
+		return indice;
+	}
+
+	@Benchmark
+	public void presentarIndice() {
+		indice.presentarIndice(nulo);
+	}
+
+	/**
+	 * Método auxiliar que crea un índice vacío del tipo indicado.
+	 */
+	private Indice crear() {
+		switch (tipo) {
+		case "IndiceContador":
+			return new IndiceContador();
+		case "IndiceLineas":
+			return new IndiceLineas();
+		case "IndicePosicionesEnLineas":
+			return new IndicePosicionesEnLineas();
+		default:
+			throw new IllegalArgumentException("Tipo de índice desconocido: " + tipo);
+		}
+	}
+
+	/**
+	 * Ejecuta los benchmarks con el perfilador gc activado.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkIndice.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(opt).run();
+	}
+}
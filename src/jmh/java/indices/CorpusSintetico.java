@@ -0,0 +1,71 @@
+package indices;
+
+import java.util.Random;
+
+/**
+ * Clase auxiliar que genera corpus sintéticos para los benchmarks.
+ * Las palabras se forman con sílabas a partir de su número dentro del
+ * vocabulario, y se eligen con una distribución aproximadamente de Zipf
+ * (la palabra k aparece con frecuencia proporcional a 1/k), de forma que hay
+ * pocas palabras muy frecuentes y muchas palabras raras, como en un texto real.
+ * Para la misma semilla se genera siempre el mismo corpus.
+ */
+final class CorpusSintetico {
+	private static final String[] SILABAS = {
+		"pe", "rra", "gue", "ja", "pa", "to", "la", "de", "ro", "mi", "sa", "co",
+		"ne", "bu", "ti", "go", "ha", "ce", "lu", "ma"
+	};
+	private static final String[] SEPARADORES = { " ", " ", " ", " ", ", ", ". ", " - ", "! ", "? ", "; " };
+
+	private CorpusSintetico() {
+	}
+
+	/**
+	 * Genera un corpus de líneas de texto.
+	 *
+	 * @param numLineas		Número de líneas
+	 * @param vocabulario	Número de palabras distintas que se pueden usar
+	 * @param semilla		Semilla del generador aleatorio
+	 * @return				Líneas del corpus
+	 */
+	static String[] generar(int numLineas, int vocabulario, long semilla) {
+		Random rnd = new Random(semilla);
+		String[] palabras = new String[vocabulario];
+		for (int i = 0; i < vocabulario; ++i) {
+			palabras[i] = palabra(i);
+		}
+		String[] lineas = new String[numLineas];
+		StringBuilder sb = new StringBuilder();
+		for (int n = 0; n < numLineas; ++n) {
+			sb.setLength(0);
+			int numPalabras = 4 + rnd.nextInt(17);
+			for (int k = 0; k < numPalabras; ++k) {
+				if (k > 0) {
+					sb.append(SEPARADORES[rnd.nextInt(SEPARADORES.length)]);
+				}
+				int i = (int) Math.pow(vocabulario, rnd.nextDouble()) - 1;
+				String p = palabras[Math.min(i, vocabulario - 1)];
+				if (k == 0 || rnd.nextInt(10) == 0) {
+					sb.append(Character.toUpperCase(p.charAt(0))).append(p, 1, p.length());
+				} else {
+					sb.append(p);
+				}
+			}
+			sb.append('.');
+			lineas[n] = sb.toString();
+		}
+		return lineas;
+	}
+
+	/**
+	 * Método auxiliar que forma la palabra número i del vocabulario.
+	 */
+	private static String palabra(int i) {
+		StringBuilder sb = new StringBuilder();
+		do {
+			sb.append(SILABAS[i % SILABAS.length]);
+			i /= SILABAS.length;
+		} while (i > 0);
+		return sb.toString();
+	}
+}
@@ -0,0 +1,232 @@
+package indices;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * La clase AlmacenLineas guarda las líneas del texto de forma compacta: los
+ * caracteres de todas las líneas se copian, uno detrás de otro, en bloques de
+ * bytes, y para cada línea solo se guarda dónde empieza y su longitud.
+ * Las líneas cuyos caracteres caben en un byte (Latin-1) ocupan un byte por
+ * carácter; las demás, dos bytes por carácter (UTF-16).
+ * Se accede a la línea i en O(1), bien como String (get), bien como una vista
+ * que no copia los caracteres (vista), y las líneas consecutivas están contiguas
+ * en memoria, por lo que recorrerlas en orden es eficiente.
+ * Solo se pueden añadir líneas al final; no se pueden modificar ni eliminar.
+ */
+public class AlmacenLineas extends AbstractList<String> implements RandomAccess {
+	// Tamaño de cada bloque de bytes
+	private static final int TAM_BLOQUE = 1 << 16;
+
+	// Bloques de bytes con los caracteres de las líneas
+	private byte[][] bloques;
+	// Número de bloques usados y bytes usados en el último bloque
+	private int numBloques;
+	private int usadosBloque;
+	// Para cada línea, bloque (32 bits altos) y posición en el bloque (32 bits bajos)
+	private long[] inicios;
+	// Para cada línea, su número de caracteres, en negativo si está en UTF-16
+	private int[] longitudes;
+	// Número de líneas
+	private int tamanio;
+
+	/**
+	 * Constructor que crea un almacén vacío.
+	 */
+	public AlmacenLineas() {
+		clear();
+	}
+
+	/**
+	 * Añade una línea al final del almacén.
+	 *
+	 * @param linea	Línea a añadir
+	 * @return		true
+	 */
+	@Override
+	public boolean add(String linea) {
+		agregar(linea);
+		return true;
+	}
+
+	/**
+	 * Añade una línea al final del almacén, copiando sus caracteres.
+	 *
+	 * @param linea	Línea a añadir
+	 */
+	public void agregar(CharSequence linea) {
+		int n = linea.length();
+		boolean latin1 = true;
+		for (int i = 0; i < n && latin1; ++i) {
+			latin1 = linea.charAt(i) < 256;
+		}
+		int numBytes = latin1 ? n : 2 * n;
+		int bloque = reservar(numBytes);
+		byte[] b = bloques[bloque];
+		int p = usadosBloque - numBytes;
+		if (latin1) {
+			for (int i = 0; i < n; ++i) {
+				b[p + i] = (byte) linea.charAt(i);
+			}
+		} else {
+			for (int i = 0; i < n; ++i) {
+				char c = linea.charAt(i);
+				b[p + 2 * i] = (byte) (c >>> 8);
+				b[p + 2 * i + 1] = (byte) c;
+			}
+		}
+		if (tamanio == inicios.length) {
+			inicios = Arrays.copyOf(inicios, 2 * tamanio);
+			longitudes = Arrays.copyOf(longitudes, 2 * tamanio);
+		}
+		inicios[tamanio] = ((long) bloque << 32) | p;
+		longitudes[tamanio] = latin1 ? n : -n;
+		++tamanio;
+	}
+
+	/**
+	 * Devuelve la línea i como String.
+	 */
+	@Override
+	public String get(int i) {
+		return vista(i).toString();
+	}
+
+	/**
+	 * Devuelve el número de líneas del almacén.
+	 */
+	@Override
+	public int size() {
+		return tamanio;
+	}
+
+	/**
+	 * Elimina todas las líneas del almacén.
+	 */
+	@Override
+	public void clear() {
+		bloques = new byte[4][];
+		numBloques = 0;
+		usadosBloque = 0;
+		inicios = new long[16];
+		longitudes = new int[16];
+		tamanio = 0;
+	}
+
+	/**
+	 * Devuelve una vista vacía, que se puede situar después en cualquier línea.
+	 *
+	 * @return	Vista vacía
+	 */
+	public Vista vista() {
+		return new Vista();
+	}
+
+	/**
+	 * Devuelve una vista de la línea i, que no copia sus caracteres.
+	 *
+	 * @param i	Número de la línea (empezando en 0)
+	 * @return	Vista de la línea
+	 */
+	public Vista vista(int i) {
+		Vista v = new Vista();
+		v.situar(i);
+		return v;
+	}
+
+	/**
+	 * Método auxiliar que reserva numBytes bytes consecutivos en un bloque y
+	 * devuelve el número de bloque. Si la reserva es en el último bloque, los
+	 * bytes reservados son los últimos usados; si no, empiezan en la posición 0
+	 * de un bloque nuevo. Las líneas mayores que un bloque ocupan un bloque propio.
+	 */
+	private int reservar(int numBytes) {
+		if (numBloques > 0 && usadosBloque + numBytes <= bloques[numBloques - 1].length) {
+			usadosBloque += numBytes;
+			return numBloques - 1;
+		}
+		nuevoBloque(new byte[Math.max(TAM_BLOQUE, numBytes)]);
+		usadosBloque = numBytes;
+		return numBloques - 1;
+	}
+
+	private void nuevoBloque(byte[] b) {
+		if (numBloques == bloques.length) {
+			bloques = Arrays.copyOf(bloques, 2 * numBloques);
+		}
+		bloques[numBloques++] = b;
+	}
+
+	/**
+	 * Vista de una línea del almacén como secuencia de caracteres. Una misma vista
+	 * se puede situar sucesivamente en distintas líneas, para recorrerlas sin crear
+	 * objetos por cada línea. La vista no es válida si se vacía el almacén.
+	 */
+	public class Vista implements CharSequence {
+		private byte[] bloque;
+		private int inicio;
+		private int longitud;
+		private boolean latin1;
+
+		private Vista() {
+		}
+
+		/**
+		 * Sitúa la vista en la línea i.
+		 *
+		 * @param i	Número de la línea (empezando en 0)
+		 * @return	Esta vista
+		 */
+		public Vista situar(int i) {
+			if (i < 0 || i >= tamanio) {
+				throw new IndexOutOfBoundsException("Línea no válida: " + i);
+			}
+			long ini = inicios[i];
+			bloque = bloques[(int) (ini >>> 32)];
+			inicio = (int) ini;
+			int lon = longitudes[i];
+			latin1 = lon >= 0;
+			longitud = latin1 ? lon : -lon;
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return longitud;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= longitud) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			if (latin1) {
+				return (char) (bloque[inicio + index] & 0xFF);
+			}
+			int p = inicio + 2 * index;
+			return (char) (((bloque[p] & 0xFF) << 8) | (bloque[p + 1] & 0xFF));
+		}
+
+		@Override
+		public String subSequence(int start, int end) {
+			if (start < 0 || end > longitud || start > end) {
+				throw new IndexOutOfBoundsException("[" + start + ", " + end + ")");
+			}
+			if (latin1) {
+				return new String(bloque, inicio + start, end - start, StandardCharsets.ISO_8859_1);
+			}
+			char[] cs = new char[end - start];
+			for (int i = start; i < end; ++i) {
+				cs[i - start] = charAt(i);
+			}
+			return new String(cs);
+		}
+
+		@Override
+		public String toString() {
+			return subSequence(0, longitud);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package indices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Clase auxiliar que proyecta en memoria, en modo de solo lectura, un archivo
+ * completo. Como cada MappedByteBuffer está limitado a 2 GB, el archivo se
+ * proyecta en trozos de 1 GB, y se accede a él con posiciones de tipo long.
+ * Los enteros se leen en orden big-endian, como los escribe DataOutputStream.
+ * Java no permite deshacer la proyección de forma explícita: al cerrarlo se
+ * sueltan los trozos, y la proyección se libera cuando el recolector de basura
+ * los recoge.
+ */
+class ArchivoProyectado implements Closeable {
+	// Cada trozo proyectado tiene 2^BITS bytes
+	private static final int BITS = 30;
+	private static final long MASCARA = (1L << BITS) - 1;
+
+	// Trozos proyectados (null si el archivo está cerrado)
+	private MappedByteBuffer[] trozos;
+	private final long tamanio;
+
+	private ArchivoProyectado(MappedByteBuffer[] trozos, long tamanio) {
+		this.trozos = trozos;
+		this.tamanio = tamanio;
+	}
+
+	/**
+	 * Proyecta en memoria un archivo completo.
+	 *
+	 * @param archivo	Archivo a proyectar
+	 * @return			Archivo proyectado
+	 * @throws IOException si se produce un error al abrir o proyectar el archivo
+	 */
+	static ArchivoProyectado abrir(Path archivo) throws IOException {
+		try (FileChannel fc = FileChannel.open(archivo, StandardOpenOption.READ)) {
+			long tam = fc.size();
+			int n = (int) ((tam + MASCARA) >>> BITS);
+			MappedByteBuffer[] trozos = new MappedByteBuffer[n];
+			for (int i = 0; i < n; ++i) {
+				long inicio = (long) i << BITS;
+				trozos[i] = fc.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(1L << BITS, tam - inicio));
+			}
+			return new ArchivoProyectado(trozos, tam);
+		}
+	}
+
+	/**
+	 * Devuelve el tamaño del archivo en bytes.
+	 * @return	Tamaño del archivo
+	 */
+	long tamanio() {
+		return tamanio;
+	}
+
+	/**
+	 * Indica si el archivo está abierto.
+	 * @return	true si no se ha cerrado
+	 */
+	boolean abierto() {
+		return trozos != null;
+	}
+
+	/**
+	 * Suelta los trozos proyectados. Después no se puede leer del archivo.
+	 */
+	@Override
+	public void close() {
+		trozos = null;
+	}
+
+	/**
+	 * Devuelve el byte de la posición dada.
+	 */
+	byte get(long pos) {
+		return trozos[(int) (pos >>> BITS)].get((int) (pos & MASCARA));
+	}
+
+	/**
+	 * Devuelve el entero de 4 bytes que empieza en la posición dada.
+	 */
+	int getInt(long pos) {
+		int desp = (int) (pos & MASCARA);
+		MappedByteBuffer t = trozos[(int) (pos >>> BITS)];
+		if (desp + 4 <= t.limit()) {
+			return t.getInt(desp);
+		}
+		int v = 0;
+		for (int i = 0; i < 4; ++i) {
+			v = (v << 8) | (get(pos + i) & 0xFF);
+		}
+		return v;
+	}
+
+	/**
+	 * Devuelve el entero de 8 bytes que empieza en la posición dada.
+	 */
+	long getLong(long pos) {
+		int desp = (int) (pos & MASCARA);
+		MappedByteBuffer t = trozos[(int) (pos >>> BITS)];
+		if (desp + 8 <= t.limit()) {
+			return t.getLong(desp);
+		}
+		return ((long) getInt(pos) << 32) | (getInt(pos + 4) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Copia len bytes a partir de la posición dada.
+	 */
+	void get(long pos, byte[] dst, int off, int len) {
+		int desp = (int) (pos & MASCARA);
+		MappedByteBuffer t = trozos[(int) (pos >>> BITS)];
+		if (desp + len <= t.limit()) {
+			t.get(desp, dst, off, len);
+			return;
+		}
+		for (int i = 0; i < len; ++i) {
+			dst[off + i] = get(pos + i);
+		}
+	}
+}
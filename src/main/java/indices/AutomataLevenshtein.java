@@ -0,0 +1,150 @@
+package indices;
+
+import java.util.Arrays;
+
+/**
+ * Clase auxiliar que busca en un DiccionarioTerminos las palabras a distancia
+ * de edición (inserciones, borrados y sustituciones de un carácter) menor o
+ * igual que max de una palabra dada, simulando un autómata de Levenshtein.
+ * El estado del autómata tras leer un prefijo es la fila de la tabla de
+ * distancias entre ese prefijo y cada prefijo de la palabra buscada, con los
+ * valores mayores que max reducidos a max + 1; el estado es muerto si todos
+ * sus valores son max + 1, porque entonces ninguna palabra con ese prefijo
+ * puede estar a distancia max o menos.
+ * El diccionario se recorre en orden, guardando el estado de cada prefijo de
+ * la palabra actual, por lo que de cada palabra solo se procesan los caracteres
+ * que no comparte con la anterior. Al llegar a un estado muerto se salta,
+ * con una búsqueda binaria, a la primera palabra que no empieza por ese
+ * prefijo, y así solo se visita una pequeña parte del diccionario.
+ */
+class AutomataLevenshtein {
+	/**
+	 * Recibe las palabras encontradas.
+	 */
+	interface Coincidencia {
+		/**
+		 * Se invoca con cada palabra encontrada, en orden lexicográfico.
+		 *
+		 * @param id		Identificador de la palabra en el diccionario
+		 * @param distancia	Distancia de edición a la palabra buscada
+		 */
+		void encontrada(int id, int distancia);
+	}
+
+	private final String palabra;
+	private final int max;
+	// Estado tras leer cada prefijo de la palabra actual del diccionario
+	private int[][] estados;
+	// Prefijo de la palabra actual cuyos estados están calculados
+	private char[] prefijo;
+
+	/**
+	 * Constructor que prepara la búsqueda de una palabra.
+	 *
+	 * @param palabra	Palabra buscada
+	 * @param max		Distancia de edición máxima (no negativa)
+	 * @throws IllegalArgumentException si la distancia es negativa
+	 */
+	AutomataLevenshtein(String palabra, int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException("Distancia no válida: " + max);
+		}
+		this.palabra = palabra;
+		this.max = max;
+		estados = new int[17][];
+		prefijo = new char[16];
+		int m = palabra.length();
+		estados[0] = new int[m + 1];
+		for (int j = 0; j <= m; ++j) {
+			estados[0][j] = Math.min(j, max + 1);
+		}
+	}
+
+	/**
+	 * Busca las palabras del diccionario a distancia max o menos.
+	 *
+	 * @param dic	Diccionario
+	 * @param c		Receptor de las palabras encontradas
+	 */
+	void buscar(DiccionarioTerminos dic, Coincidencia c) {
+		int m = palabra.length();
+		// Número de caracteres de prefijo con estado calculado
+		int validos = 0;
+		DiccionarioTerminos.Cursor cur = dic.cursor();
+		while (cur.siguiente()) {
+			int lon = cur.longitud();
+			int comun = 0;
+			while (comun < validos && comun < lon && prefijo[comun] == cur.caracter(comun)) {
+				++comun;
+			}
+			validos = comun;
+			boolean muerto = false;
+			while (validos < lon && ! muerto) {
+				char ch = cur.caracter(validos);
+				if (validos == prefijo.length) {
+					prefijo = Arrays.copyOf(prefijo, 2 * validos);
+					estados = Arrays.copyOf(estados, 2 * validos + 1);
+				}
+				prefijo[validos] = ch;
+				muerto = ! transicion(estados[validos], ch, validos + 1);
+				++validos;
+			}
+			if (muerto) {
+				// Se salta a la primera palabra mayor que todas las que empiezan por el prefijo
+				char ultimo = prefijo[validos - 1];
+				if (ultimo != Character.MAX_VALUE) {
+					String siguiente = new String(prefijo, 0, validos - 1) + (char) (ultimo + 1);
+					cur = dic.cursor(dic.limiteInferior(siguiente));
+				}
+			} else if (estados[lon][m] <= max) {
+				c.encontrada(cur.id(), estados[lon][m]);
+			}
+		}
+	}
+
+	/**
+	 * Calcula la distancia de edición de una palabra a la buscada, si es max o
+	 * menos, recorriendo el autómata con sus caracteres.
+	 *
+	 * @param w	Palabra
+	 * @return	Distancia de edición, o -1 si es mayor que max
+	 */
+	int distancia(CharSequence w) {
+		int lon = w.length();
+		for (int i = 0; i < lon; ++i) {
+			if (i == prefijo.length) {
+				prefijo = Arrays.copyOf(prefijo, 2 * i);
+				estados = Arrays.copyOf(estados, 2 * i + 1);
+			}
+			if ( ! transicion(estados[i], w.charAt(i), i + 1)) {
+				return -1;
+			}
+		}
+		int d = estados[lon][palabra.length()];
+		return (d <= max) ? d : -1;
+	}
+
+	/**
+	 * Método auxiliar que calcula en estados[destino] el estado al que se pasa
+	 * desde otro leyendo un carácter.
+	 *
+	 * @return	false si el nuevo estado es muerto
+	 */
+	private boolean transicion(int[] origen, char ch, int destino) {
+		int m = palabra.length();
+		int[] e = estados[destino];
+		if (e == null) {
+			e = new int[m + 1];
+			estados[destino] = e;
+		}
+		e[0] = Math.min(origen[0] + 1, max + 1);
+		int menor = e[0];
+		for (int j = 1; j <= m; ++j) {
+			int v = origen[j - 1] + ((palabra.charAt(j - 1) == ch) ? 0 : 1);
+			v = Math.min(v, Math.min(origen[j], e[j - 1]) + 1);
+			e[j] = Math.min(v, max + 1);
+			menor = Math.min(menor, e[j]);
+		}
+		return menor <= max;
+	}
+}
@@ -0,0 +1,141 @@
+package indices;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Clase auxiliar que recibe líneas de varios hilos productores a la vez, sin
+ * bloqueos, y las entrega en orden a un único hilo consumidor.
+ * Cada línea recibe un número de secuencia con un incremento atómico, que fija
+ * su orden, y se guarda en la casilla correspondiente de una página de casillas;
+ * las páginas se crean cuando hacen falta, con una operación compareAndSet.
+ * El consumidor toma una instantánea: todas las líneas cuyo número de secuencia
+ * es menor que el siguiente a asignar en ese momento, y libera sus casillas.
+ * El consumidor puede cerrar la cola, marcando de forma atómica el siguiente
+ * número de secuencia: las líneas que ya lo tenían se siguen entregando, y las
+ * que lo piden después se rechazan.
+ * Invariante: entre que un productor recibe su número de secuencia y guarda su
+ * línea solo se crea, si falta, la página; la línea ya es un String, por lo que
+ * no se ejecuta código del llamador, y el consumidor solo puede quedar esperando
+ * si el productor se detiene ahí (por ejemplo, sin memoria para la página).
+ */
+class ColaLineas {
+	// Cada página tiene 2^BITS_PAGINA casillas
+	private static final int BITS_PAGINA = 16;
+	private static final int TAM_PAGINA = 1 << BITS_PAGINA;
+	private static final int NUM_PAGINAS = 1 << (31 - BITS_PAGINA);
+	// Número máximo de líneas que caben en las páginas
+	private static final long MAX_LINEAS = (long) NUM_PAGINAS * TAM_PAGINA;
+	// Bit de siguiente que indica que la cola está cerrada
+	private static final long CERRADA = 1L << 62;
+	// Número de esperas activas antes de dormir al esperar una casilla
+	private static final int ESPERAS_ACTIVAS = 1 << 10;
+	// Tiempo de cada espera dormida, en nanosegundos
+	private static final long ESPERA_NANOS = 10_000;
+
+	// Siguiente número de secuencia a asignar, con el bit CERRADA si la cola está cerrada
+	private final AtomicLong siguiente;
+	// Páginas de casillas, creadas bajo demanda
+	private final AtomicReferenceArray<AtomicReferenceArray<String>> paginas;
+	// Número de secuencia de la siguiente línea a entregar (solo lo usa el consumidor)
+	private long entregadas;
+	// Número de líneas aceptadas antes de cerrar la cola (solo lo usa el consumidor)
+	private long aceptadas;
+
+	/**
+	 * Crea una cola vacía.
+	 */
+	ColaLineas() {
+		siguiente = new AtomicLong();
+		paginas = new AtomicReferenceArray<>(NUM_PAGINAS);
+	}
+
+	/**
+	 * Añade una línea, si la cola no está cerrada. Se puede llamar desde varios
+	 * hilos a la vez.
+	 *
+	 * @param linea	Línea a añadir
+	 * @return		true si se ha añadido, false si la cola estaba cerrada
+	 * @throws IllegalStateException si se supera el número máximo de líneas
+	 */
+	boolean agregar(String linea) {
+		Objects.requireNonNull(linea);
+		long sec = siguiente.getAndIncrement();
+		if (sec >= CERRADA) {
+			return false;
+		}
+		if (sec >= MAX_LINEAS) {
+			throw new IllegalStateException("Demasiadas líneas");
+		}
+		int s = (int) sec;
+		pagina(s >>> BITS_PAGINA).set(s & (TAM_PAGINA - 1), linea);
+		return true;
+	}
+
+	/**
+	 * Cierra la cola: las líneas que ya tienen número de secuencia se entregarán
+	 * en la siguiente llamada a entregar, y las demás se rechazan. Solo la debe
+	 * llamar el consumidor.
+	 */
+	void cerrar() {
+		long s = siguiente.getAndUpdate(v -> v | CERRADA);
+		if (s < CERRADA) {
+			aceptadas = Math.min(s, MAX_LINEAS);
+		}
+	}
+
+	/**
+	 * Entrega en orden las líneas añadidas hasta el momento de la llamada (o hasta
+	 * el cierre) que aún no se habían entregado. Solo la debe llamar un hilo a la
+	 * vez. Si un productor tiene ya su número de secuencia pero aún no ha guardado
+	 * su línea, se espera a que la guarde: primero de forma activa, y después
+	 * durmiendo a intervalos, para no ocupar el procesador.
+	 *
+	 * @param consumidor	Receptor de las líneas
+	 * @return				Número de líneas entregadas
+	 */
+	int entregar(Consumer<String> consumidor) {
+		long s = siguiente.get();
+		long hasta = (s >= CERRADA) ? aceptadas : Math.min(s, MAX_LINEAS);
+		long desde = entregadas;
+		for (long sec = desde; sec < hasta; ++sec) {
+			int p = (int) (sec >>> BITS_PAGINA);
+			AtomicReferenceArray<String> pagina = pagina(p);
+			int i = (int) sec & (TAM_PAGINA - 1);
+			String linea;
+			for (int esperas = 0; (linea = pagina.get(i)) == null; ++esperas) {
+				if (esperas < ESPERAS_ACTIVAS) {
+					Thread.onSpinWait();
+				} else {
+					LockSupport.parkNanos(ESPERA_NANOS);
+				}
+			}
+			pagina.lazySet(i, null);
+			consumidor.accept(linea);
+			if (i == TAM_PAGINA - 1) {
+				// Ningún productor volverá a usar una página completa ya entregada
+				paginas.set(p, null);
+			}
+		}
+		entregadas = hasta;
+		return (int) (hasta - desde);
+	}
+
+	/**
+	 * Método auxiliar que devuelve una página, creándola si no existe.
+	 */
+	private AtomicReferenceArray<String> pagina(int p) {
+		AtomicReferenceArray<String> pagina = paginas.get(p);
+		if (pagina == null) {
+			AtomicReferenceArray<String> nueva = new AtomicReferenceArray<>(TAM_PAGINA);
+			pagina = paginas.compareAndExchange(p, null, nueva);
+			if (pagina == null) {
+				pagina = nueva;
+			}
+		}
+		return pagina;
+	}
+}
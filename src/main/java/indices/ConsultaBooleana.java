@@ -0,0 +1,235 @@
+package indices;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * La clase ConsultaBooleana representa una consulta con palabras y los operadores
+ * AND, OR y NOT, con paréntesis, que se evalúa sobre las listas de líneas de un
+ * índice y devuelve las líneas que la cumplen. NOT tiene más prioridad que AND,
+ * y AND más que OR; dos palabras seguidas sin operador se unen con AND.
+ * Por ejemplo: "guerra AND perra AND NOT porra", "(jarra OR perra) parra".
+ * Las conjunciones, disyunciones y negaciones se evalúan con las operaciones
+ * de conjuntos de ListaLineas, bloque a bloque: los bloques poco poblados se
+ * recorren buscando sus líneas en el otro, y los densos se combinan palabra a
+ * palabra sobre sus mapas de bits. Cada conjunción empieza por su lista más
+ * corta y termina en cuanto el resultado queda vacío.
+ */
+public class ConsultaBooleana {
+	private final Nodo raiz;
+
+	private ConsultaBooleana(Nodo raiz) {
+		this.raiz = raiz;
+	}
+
+	/**
+	 * Analiza el texto de una consulta.
+	 *
+	 * @param consulta	Texto de la consulta
+	 * @return			Consulta analizada
+	 * @throws IllegalArgumentException si la consulta no está bien formada
+	 */
+	public static ConsultaBooleana analizar(String consulta) {
+		Analizador a = new Analizador(consulta);
+		Nodo raiz = a.expresion();
+		if (a.actual != null) {
+			throw new IllegalArgumentException("Consulta mal formada: sobra \"" + a.actual + "\"");
+		}
+		return new ConsultaBooleana(raiz);
+	}
+
+	/**
+	 * Evalúa la consulta sobre un índice de líneas.
+	 *
+	 * @param indice	Índice de líneas
+	 * @return			Líneas que cumplen la consulta
+	 */
+	public ListaLineas evaluar(IndiceLineas indice) {
+		return evaluar(indice::lineas, indice.numLineasIndexadas());
+	}
+
+	/**
+	 * Evalúa la consulta con las listas de líneas que da una función. Las
+	 * conjunciones que solo tienen palabras negadas se evalúan sobre todas las
+	 * líneas, de 1 a numLineas.
+	 *
+	 * @param lineas		Devuelve la lista de líneas de una palabra (vacía si no está)
+	 * @param numLineas		Número de líneas del texto
+	 * @return				Líneas que cumplen la consulta; si la consulta es una
+	 * 						sola palabra, la lista que da la función, sin copiarla
+	 */
+	public ListaLineas evaluar(Function<String, ListaLineas> lineas, int numLineas) {
+		return raiz.evaluar(lineas, numLineas);
+	}
+
+	/**
+	 * Nodo de la consulta analizada.
+	 */
+	private interface Nodo {
+		ListaLineas evaluar(Function<String, ListaLineas> lineas, int numLineas);
+	}
+
+	/**
+	 * Palabra de la consulta: su lista de líneas, sin copiarla.
+	 */
+	private static class Palabra implements Nodo {
+		private final String palabra;
+
+		Palabra(String palabra) {
+			this.palabra = palabra;
+		}
+
+		@Override
+		public ListaLineas evaluar(Function<String, ListaLineas> lineas, int numLineas) {
+			return lineas.apply(palabra);
+		}
+	}
+
+	/**
+	 * Conjunción de términos, unos afirmados y otros negados.
+	 */
+	private static class Y implements Nodo {
+		private final List<Nodo> afirmados = new ArrayList<>();
+		private final List<Nodo> negados = new ArrayList<>();
+
+		@Override
+		public ListaLineas evaluar(Function<String, ListaLineas> lineas, int numLineas) {
+			List<ListaLineas> listas = new ArrayList<>(afirmados.size());
+			for (Nodo n : afirmados) {
+				listas.add(n.evaluar(lineas, numLineas));
+			}
+			// Se empieza por la lista más corta, para que los resultados
+			// intermedios sean lo más pequeños posible
+			listas.sort(Comparator.comparingInt(ListaLineas::tamanio));
+			ListaLineas res = listas.isEmpty() ? ListaLineas.rango(1, numLineas) : listas.get(0);
+			for (int i = 1; i < listas.size() && res.tamanio() > 0; ++i) {
+				res = res.interseccion(listas.get(i));
+			}
+			for (int i = 0; i < negados.size() && res.tamanio() > 0; ++i) {
+				res = res.diferencia(negados.get(i).evaluar(lineas, numLineas));
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * Disyunción de términos: unión de sus listas.
+	 */
+	private static class O implements Nodo {
+		private final List<Nodo> terminos = new ArrayList<>();
+
+		@Override
+		public ListaLineas evaluar(Function<String, ListaLineas> lineas, int numLineas) {
+			ListaLineas res = new ListaLineas();
+			for (Nodo n : terminos) {
+				res = res.union(n.evaluar(lineas, numLineas));
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * Analizador descendente recursivo de la consulta, con la gramática:
+	 * expresión = conjunción { OR conjunción }
+	 * conjunción = factor { [AND] factor }
+	 * factor = NOT factor | ( expresión ) | palabra
+	 */
+	private static class Analizador {
+		private final String texto;
+		private int pos;
+		// Elemento actual (palabra, operador o paréntesis), o null al final
+		String actual;
+
+		Analizador(String texto) {
+			this.texto = texto;
+			avanzar();
+		}
+
+		Nodo expresion() {
+			Nodo n = conjuncion();
+			if ( ! "OR".equals(actual)) {
+				return n;
+			}
+			O o = new O();
+			o.terminos.add(n);
+			while ("OR".equals(actual)) {
+				avanzar();
+				o.terminos.add(conjuncion());
+			}
+			return o;
+		}
+
+		private Nodo conjuncion() {
+			Y y = new Y();
+			// El primer factor no puede ir precedido de AND
+			agregarFactor(y);
+			while (actual != null && ! "OR".equals(actual) && ! ")".equals(actual)) {
+				if ("AND".equals(actual)) {
+					avanzar();
+				}
+				agregarFactor(y);
+			}
+			if (y.afirmados.size() == 1 && y.negados.isEmpty()) {
+				return y.afirmados.get(0);
+			}
+			return y;
+		}
+
+		/**
+		 * Añade a una conjunción un factor, precedido de cualquier número de NOT.
+		 */
+		private void agregarFactor(Y y) {
+			boolean negado = false;
+			while ("NOT".equals(actual)) {
+				avanzar();
+				negado = ! negado;
+			}
+			(negado ? y.negados : y.afirmados).add(factor());
+		}
+
+		private Nodo factor() {
+			if (actual == null || "AND".equals(actual) || "OR".equals(actual) || ")".equals(actual)) {
+				throw new IllegalArgumentException("Consulta mal formada: falta una palabra"
+						+ (actual == null ? " al final" : " antes de \"" + actual + "\""));
+			}
+			if ("(".equals(actual)) {
+				avanzar();
+				Nodo n = expresion();
+				if ( ! ")".equals(actual)) {
+					throw new IllegalArgumentException("Consulta mal formada: falta \")\"");
+				}
+				avanzar();
+				return n;
+			}
+			Nodo n = new Palabra(actual.toLowerCase(Locale.ROOT));
+			avanzar();
+			return n;
+		}
+
+		private void avanzar() {
+			int n = texto.length();
+			while (pos < n && Character.isWhitespace(texto.charAt(pos))) {
+				++pos;
+			}
+			if (pos >= n) {
+				actual = null;
+				return;
+			}
+			char c = texto.charAt(pos);
+			if (c == '(' || c == ')') {
+				actual = String.valueOf(c);
+				++pos;
+				return;
+			}
+			int inicio = pos;
+			while (pos < n && ! Character.isWhitespace(texto.charAt(pos))
+					&& texto.charAt(pos) != '(' && texto.charAt(pos) != ')') {
+				++pos;
+			}
+			actual = texto.substring(inicio, pos);
+		}
+	}
+}
@@ -0,0 +1,576 @@
+package indices;
+
+import java.util.Arrays;
+
+/**
+ * Clase auxiliar que representa un bloque de una ListaLineas: los 16 bits bajos
+ * de las líneas cuyos 16 bits altos coinciden, es decir, un subconjunto de
+ * 0..65535. Hay tres representaciones, como en los Roaring bitmaps:
+ * - Arreglo: valores ordenados en un char[] (2 bytes por valor), para bloques
+ *   con pocas líneas, que son los de casi todas las palabras.
+ * - Bits: un mapa de 65536 bits en 1024 long (8 KB), para bloques densos,
+ *   como los de las palabras que aparecen en casi todas las líneas.
+ * - Rachas: pares (inicio, longitud - 1), para bloques con rangos de líneas
+ *   consecutivas.
+ * Los valores se añaden siempre en orden creciente; un Arreglo que supera
+ * MAX_ARREGLO valores pasa a Bits. Las operaciones de conjuntos sobre bloques
+ * densos se hacen palabra a palabra (64 líneas por operación) sobre los long.
+ */
+abstract class Contenedor {
+	// Número máximo de valores de un Arreglo (a partir de aquí Bits ocupa menos)
+	static final int MAX_ARREGLO = 4096;
+	// Número de long de un mapa de bits
+	private static final int PALABRAS = 1024;
+
+	/**
+	 * Devuelve el número de valores del bloque.
+	 */
+	abstract int cardinal();
+
+	/**
+	 * Devuelve el mayor valor de un bloque no vacío.
+	 */
+	abstract int maximo();
+
+	/**
+	 * Añade un valor mayor que todos los del bloque.
+	 *
+	 * @param v	Valor (0..65535)
+	 * @return	El bloque con el valor, que puede ser otro si ha cambiado de representación
+	 */
+	abstract Contenedor agregar(int v);
+
+	/**
+	 * Devuelve el menor valor del bloque mayor o igual que v, o -1 si no hay.
+	 * pista[0] guarda la posición del último valor encontrado, para que los
+	 * recorridos en orden creciente no vuelvan a buscar desde el principio; debe
+	 * ser 0 en la primera búsqueda y los valores buscados no deben decrecer.
+	 *
+	 * @param v		Valor buscado
+	 * @param pista	Posición de la búsqueda anterior
+	 * @return		Menor valor mayor o igual que v, o -1
+	 */
+	abstract int siguiente(int v, int[] pista);
+
+	/**
+	 * Devuelve una copia del bloque.
+	 */
+	abstract Contenedor copia();
+
+	/**
+	 * Devuelve un mapa de bits nuevo con los valores del bloque.
+	 */
+	abstract long[] aBits();
+
+	/**
+	 * Añade los valores del bloque a un mapa de bits.
+	 */
+	abstract void ponerEn(long[] bits);
+
+	/**
+	 * Quita los valores del bloque de un mapa de bits.
+	 */
+	abstract void quitarDe(long[] bits);
+
+	/**
+	 * Devuelve el número de rachas de valores consecutivos.
+	 */
+	abstract int numRachas();
+
+	/**
+	 * Deja en un mapa de bits solo los valores que también están en el bloque.
+	 */
+	void dejarEn(long[] bits) {
+		long[] b = aBits();
+		for (int i = 0; i < PALABRAS; ++i) {
+			bits[i] &= b[i];
+		}
+	}
+
+	/**
+	 * Devuelve el bloque con la representación que menos ocupa: 2 bytes por
+	 * valor en un Arreglo, 8 KB en Bits o 4 bytes por racha en Rachas.
+	 */
+	Contenedor optimizar() {
+		int card = cardinal();
+		int rachas = numRachas();
+		int bytesArreglo = (card <= MAX_ARREGLO) ? 2 * card : Integer.MAX_VALUE;
+		int bytesRachas = 4 * rachas;
+		int bytesBits = 8 * PALABRAS;
+		if (bytesRachas < bytesArreglo && bytesRachas < bytesBits) {
+			return (this instanceof Rachas) ? this : aRachas();
+		} else if (bytesArreglo <= bytesBits) {
+			return (this instanceof Arreglo) ? this : aArreglo();
+		}
+		return (this instanceof Bits) ? this : new Bits(aBits(), card);
+	}
+
+	/**
+	 * Devuelve la intersección de dos bloques. Si alguno es un Arreglo se busca
+	 * cada uno de sus valores en el otro; si no, se hace el AND de los mapas de bits.
+	 */
+	static Contenedor interseccion(Contenedor a, Contenedor b) {
+		if (b instanceof Arreglo && ( ! (a instanceof Arreglo) || b.cardinal() < a.cardinal())) {
+			Contenedor t = a;
+			a = b;
+			b = t;
+		}
+		if (a instanceof Arreglo) {
+			return ((Arreglo) a).filtrar(b, true);
+		}
+		long[] bits = a.aBits();
+		b.dejarEn(bits);
+		return Bits.crear(bits);
+	}
+
+	/**
+	 * Devuelve la unión de dos bloques: la mezcla de dos Arreglo si cabe en otro,
+	 * o si no el OR de los mapas de bits.
+	 */
+	static Contenedor union(Contenedor a, Contenedor b) {
+		if (a instanceof Arreglo && b instanceof Arreglo && a.cardinal() + b.cardinal() <= MAX_ARREGLO) {
+			return ((Arreglo) a).mezclar((Arreglo) b);
+		}
+		long[] bits = a.aBits();
+		b.ponerEn(bits);
+		return Bits.crear(bits);
+	}
+
+	/**
+	 * Devuelve los valores de a que no están en b: si a es un Arreglo se filtra,
+	 * y si no se hace el AND NOT de los mapas de bits.
+	 */
+	static Contenedor diferencia(Contenedor a, Contenedor b) {
+		if (a instanceof Arreglo) {
+			return ((Arreglo) a).filtrar(b, false);
+		}
+		long[] bits = a.aBits();
+		b.quitarDe(bits);
+		return Bits.crear(bits);
+	}
+
+	/**
+	 * Crea un bloque con los valores desde..hasta (ambos incluidos) como una racha.
+	 */
+	static Contenedor rango(int desde, int hasta) {
+		Rachas r = new Rachas();
+		r.datos[0] = (char) desde;
+		r.datos[1] = (char) (hasta - desde);
+		r.num = 1;
+		r.card = hasta - desde + 1;
+		return r;
+	}
+
+	/**
+	 * Método auxiliar que pasa el bloque a un Arreglo.
+	 */
+	private Contenedor aArreglo() {
+		Arreglo a = new Arreglo(cardinal());
+		int[] pista = new int[1];
+		for (int v = siguiente(0, pista); v >= 0; v = (v == 0xFFFF) ? -1 : siguiente(v + 1, pista)) {
+			a.datos[a.num++] = (char) v;
+		}
+		return a;
+	}
+
+	/**
+	 * Método auxiliar que pasa el bloque a Rachas.
+	 */
+	private Contenedor aRachas() {
+		Rachas r = new Rachas();
+		r.datos = new char[2 * numRachas()];
+		int[] pista = new int[1];
+		for (int v = siguiente(0, pista); v >= 0; v = (v == 0xFFFF) ? -1 : siguiente(v + 1, pista)) {
+			r.agregar(v);
+		}
+		return r;
+	}
+
+	/**
+	 * Método auxiliar que pone a 1 los bits desde..hasta (ambos incluidos).
+	 */
+	private static void ponerRango(long[] bits, int desde, int hasta) {
+		int i = desde >>> 6;
+		int j = hasta >>> 6;
+		if (i == j) {
+			bits[i] |= (-1L << desde) & (-1L >>> (63 - (hasta & 63)));
+			return;
+		}
+		bits[i] |= -1L << desde;
+		Arrays.fill(bits, i + 1, j, -1L);
+		bits[j] |= -1L >>> (63 - (hasta & 63));
+	}
+
+	/**
+	 * Método auxiliar que pone a 0 los bits desde..hasta (ambos incluidos).
+	 */
+	private static void quitarRango(long[] bits, int desde, int hasta) {
+		int i = desde >>> 6;
+		int j = hasta >>> 6;
+		if (i == j) {
+			bits[i] &= ~((-1L << desde) & (-1L >>> (63 - (hasta & 63))));
+			return;
+		}
+		bits[i] &= ~(-1L << desde);
+		Arrays.fill(bits, i + 1, j, 0L);
+		bits[j] &= ~(-1L >>> (63 - (hasta & 63)));
+	}
+
+	/**
+	 * Bloque con los valores ordenados en un array.
+	 */
+	static final class Arreglo extends Contenedor {
+		private char[] datos;
+		private int num;
+
+		Arreglo() {
+			this(2);
+		}
+
+		private Arreglo(int capacidad) {
+			datos = new char[Math.max(capacidad, 1)];
+		}
+
+		@Override
+		int cardinal() {
+			return num;
+		}
+
+		@Override
+		int maximo() {
+			return datos[num - 1];
+		}
+
+		@Override
+		Contenedor agregar(int v) {
+			if (num == MAX_ARREGLO) {
+				return new Bits(aBits(), num).agregar(v);
+			}
+			if (num == datos.length) {
+				datos = Arrays.copyOf(datos, Math.min(MAX_ARREGLO, num + (num >> 1) + 2));
+			}
+			datos[num++] = (char) v;
+			return this;
+		}
+
+		@Override
+		int siguiente(int v, int[] pista) {
+			int i = pista[0];
+			if (i >= num) {
+				return -1;
+			}
+			if (datos[i] < v) {
+				// Búsqueda exponencial desde la posición anterior
+				int izq = i;
+				int paso = 1;
+				int der = i + 1;
+				while (der < num && datos[der] < v) {
+					izq = der;
+					paso <<= 1;
+					der = izq + paso;
+				}
+				der = Math.min(der, num);
+				while (der - izq > 1) {
+					int medio = (izq + der) >>> 1;
+					if (datos[medio] < v) {
+						izq = medio;
+					} else {
+						der = medio;
+					}
+				}
+				i = der;
+			}
+			pista[0] = i;
+			return (i < num) ? datos[i] : -1;
+		}
+
+		@Override
+		Contenedor copia() {
+			Arreglo a = new Arreglo(num);
+			System.arraycopy(datos, 0, a.datos, 0, num);
+			a.num = num;
+			return a;
+		}
+
+		@Override
+		long[] aBits() {
+			long[] bits = new long[PALABRAS];
+			ponerEn(bits);
+			return bits;
+		}
+
+		@Override
+		void ponerEn(long[] bits) {
+			for (int i = 0; i < num; ++i) {
+				bits[datos[i] >>> 6] |= 1L << datos[i];
+			}
+		}
+
+		@Override
+		void quitarDe(long[] bits) {
+			for (int i = 0; i < num; ++i) {
+				bits[datos[i] >>> 6] &= ~(1L << datos[i]);
+			}
+		}
+
+		@Override
+		int numRachas() {
+			int rachas = 0;
+			for (int i = 0; i < num; ++i) {
+				if (i == 0 || datos[i] != datos[i - 1] + 1) {
+					++rachas;
+				}
+			}
+			return rachas;
+		}
+
+		/**
+		 * Devuelve los valores que están (o no están) en otro bloque.
+		 */
+		Arreglo filtrar(Contenedor otro, boolean estan) {
+			Arreglo a = new Arreglo(estan ? Math.min(num, otro.cardinal()) : num);
+			int[] pista = new int[1];
+			for (int i = 0; i < num; ++i) {
+				if ((otro.siguiente(datos[i], pista) == datos[i]) == estan) {
+					a.datos[a.num++] = datos[i];
+				}
+			}
+			return a;
+		}
+
+		/**
+		 * Devuelve la mezcla ordenada, sin repetidos, con otro Arreglo.
+		 */
+		Arreglo mezclar(Arreglo otro) {
+			Arreglo a = new Arreglo(num + otro.num);
+			int i = 0;
+			int j = 0;
+			while (i < num || j < otro.num) {
+				char v;
+				if (j == otro.num || (i < num && datos[i] < otro.datos[j])) {
+					v = datos[i++];
+				} else if (i == num || otro.datos[j] < datos[i]) {
+					v = otro.datos[j++];
+				} else {
+					v = datos[i++];
+					++j;
+				}
+				a.datos[a.num++] = v;
+			}
+			return a;
+		}
+	}
+
+	/**
+	 * Bloque con un mapa de 65536 bits.
+	 */
+	static final class Bits extends Contenedor {
+		private final long[] bits;
+		private int card;
+
+		private Bits(long[] bits, int card) {
+			this.bits = bits;
+			this.card = card;
+		}
+
+		/**
+		 * Crea el bloque de un mapa de bits resultado de una operación, contando
+		 * sus valores, y lo pasa a la representación que menos ocupa.
+		 */
+		static Contenedor crear(long[] bits) {
+			int card = 0;
+			for (long w : bits) {
+				card += Long.bitCount(w);
+			}
+			return new Bits(bits, card).optimizar();
+		}
+
+		@Override
+		int cardinal() {
+			return card;
+		}
+
+		@Override
+		int maximo() {
+			int i = PALABRAS - 1;
+			while (bits[i] == 0) {
+				--i;
+			}
+			return (i << 6) + 63 - Long.numberOfLeadingZeros(bits[i]);
+		}
+
+		@Override
+		Contenedor agregar(int v) {
+			bits[v >>> 6] |= 1L << v;
+			++card;
+			return this;
+		}
+
+		@Override
+		int siguiente(int v, int[] pista) {
+			int i = v >>> 6;
+			long w = bits[i] & (-1L << v);
+			while (w == 0) {
+				if (++i == PALABRAS) {
+					return -1;
+				}
+				w = bits[i];
+			}
+			return (i << 6) + Long.numberOfTrailingZeros(w);
+		}
+
+		@Override
+		Contenedor copia() {
+			return new Bits(bits.clone(), card);
+		}
+
+		@Override
+		long[] aBits() {
+			return bits.clone();
+		}
+
+		@Override
+		void ponerEn(long[] otros) {
+			for (int i = 0; i < PALABRAS; ++i) {
+				otros[i] |= bits[i];
+			}
+		}
+
+		@Override
+		void quitarDe(long[] otros) {
+			for (int i = 0; i < PALABRAS; ++i) {
+				otros[i] &= ~bits[i];
+			}
+		}
+
+		@Override
+		void dejarEn(long[] otros) {
+			for (int i = 0; i < PALABRAS; ++i) {
+				otros[i] &= bits[i];
+			}
+		}
+
+		@Override
+		int numRachas() {
+			// Una racha empieza en cada bit a 1 cuyo anterior está a 0
+			int rachas = 0;
+			long anterior = 0;
+			for (long w : bits) {
+				rachas += Long.bitCount(w & ~((w << 1) | (anterior >>> 63)));
+				anterior = w;
+			}
+			return rachas;
+		}
+	}
+
+	/**
+	 * Bloque con rachas de valores consecutivos, guardadas como pares
+	 * (inicio, longitud - 1) en un char[].
+	 */
+	static final class Rachas extends Contenedor {
+		private char[] datos = new char[2];
+		// Número de rachas
+		private int num;
+		private int card;
+
+		@Override
+		int cardinal() {
+			return card;
+		}
+
+		@Override
+		int maximo() {
+			return fin(num - 1);
+		}
+
+		@Override
+		Contenedor agregar(int v) {
+			if (num > 0 && datos[2 * num - 2] + datos[2 * num - 1] + 1 == v) {
+				++datos[2 * num - 1];
+			} else {
+				if (2 * num == datos.length) {
+					if (num >= MAX_ARREGLO / 2) {
+						// Con tantas rachas ocupa menos un mapa de bits
+						return new Bits(aBits(), card).agregar(v);
+					}
+					datos = Arrays.copyOf(datos, 2 * (num + (num >> 1) + 1));
+				}
+				datos[2 * num] = (char) v;
+				datos[2 * num + 1] = 0;
+				++num;
+			}
+			++card;
+			return this;
+		}
+
+		@Override
+		int siguiente(int v, int[] pista) {
+			int i = pista[0];
+			if (i >= num) {
+				return -1;
+			}
+			if (fin(i) < v) {
+				// Búsqueda exponencial de la primera racha que acaba en v o después
+				int izq = i;
+				int paso = 1;
+				int der = i + 1;
+				while (der < num && fin(der) < v) {
+					izq = der;
+					paso <<= 1;
+					der = izq + paso;
+				}
+				der = Math.min(der, num);
+				while (der - izq > 1) {
+					int medio = (izq + der) >>> 1;
+					if (fin(medio) < v) {
+						izq = medio;
+					} else {
+						der = medio;
+					}
+				}
+				i = der;
+			}
+			pista[0] = i;
+			return (i < num) ? Math.max(v, datos[2 * i]) : -1;
+		}
+
+		private int fin(int i) {
+			return datos[2 * i] + datos[2 * i + 1];
+		}
+
+		@Override
+		Contenedor copia() {
+			Rachas r = new Rachas();
+			r.datos = Arrays.copyOf(datos, 2 * num);
+			r.num = num;
+			r.card = card;
+			return r;
+		}
+
+		@Override
+		long[] aBits() {
+			long[] bits = new long[PALABRAS];
+			ponerEn(bits);
+			return bits;
+		}
+
+		@Override
+		void ponerEn(long[] bits) {
+			for (int i = 0; i < num; ++i) {
+				ponerRango(bits, datos[2 * i], fin(i));
+			}
+		}
+
+		@Override
+		void quitarDe(long[] bits) {
+			for (int i = 0; i < num; ++i) {
+				quitarRango(bits, datos[2 * i], fin(i));
+			}
+		}
+
+		@Override
+		int numRachas() {
+			return num;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package indices;
+
+/**
+ * La clase CountMinSketch estima el número de apariciones de cada palabra con
+ * una memoria fija, que no depende del número de palabras distintas. Es una
+ * tabla de profundidad filas por anchura columnas de contadores: cada palabra
+ * incrementa un contador de cada fila, elegido con una función de dispersión
+ * distinta por fila, y su estimación es el menor de esos contadores.
+ * La estimación nunca es menor que el número real de apariciones y, con
+ * probabilidad al menos 1 - delta, no lo supera en más de epsilon * N, siendo N
+ * el número total de apariciones contadas; para ello, la anchura es e / epsilon
+ * y la profundidad ln(1 / delta).
+ * Dos contadores con los mismos parámetros se fusionan sumando sus tablas.
+ */
+public class CountMinSketch {
+	private final double epsilon;
+	private final double delta;
+	private final int anchura;
+	private final int profundidad;
+	// Contadores, fila a fila
+	private final long[] tabla;
+	// Número total de apariciones contadas
+	private long total;
+
+	/**
+	 * Constructor que crea un contador vacío con las cotas de error dadas.
+	 *
+	 * @param epsilon	Error máximo, relativo al número total de apariciones (0 < epsilon < 1)
+	 * @param delta		Probabilidad de superar el error máximo (0 < delta < 1)
+	 */
+	public CountMinSketch(double epsilon, double delta) {
+		if ( ! (epsilon > 0 && epsilon < 1) || ! (delta > 0 && delta < 1)) {
+			throw new IllegalArgumentException("Cotas de error no válidas: " + epsilon + " " + delta);
+		}
+		this.epsilon = epsilon;
+		this.delta = delta;
+		anchura = (int) Math.ceil(Math.E / epsilon);
+		profundidad = (int) Math.ceil(Math.log(1 / delta));
+		tabla = new long[anchura * profundidad];
+	}
+
+	/**
+	 * Devuelve un contador vacío con los mismos parámetros, que se podrá fusionar con este.
+	 * @return	Contador vacío
+	 */
+	public CountMinSketch vacio() {
+		return new CountMinSketch(epsilon, delta);
+	}
+
+	/**
+	 * Cuenta una aparición de una palabra.
+	 * @param palabra	Palabra
+	 */
+	public void agregar(CharSequence palabra) {
+		long h = Dispersion.hash64(palabra);
+		int h1 = (int) h;
+		int h2 = (int) (h >>> 32);
+		for (int i = 0; i < profundidad; ++i) {
+			++tabla[i * anchura + columna(h1, h2, i)];
+		}
+		++total;
+	}
+
+	/**
+	 * Estima el número de apariciones de una palabra.
+	 * @param palabra	Palabra
+	 * @return			Estimación, nunca menor que el número real
+	 */
+	public long estimar(CharSequence palabra) {
+		long h = Dispersion.hash64(palabra);
+		int h1 = (int) h;
+		int h2 = (int) (h >>> 32);
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < profundidad; ++i) {
+			min = Math.min(min, tabla[i * anchura + columna(h1, h2, i)]);
+		}
+		return min;
+	}
+
+	/**
+	 * Devuelve el número total de apariciones contadas.
+	 * @return	Número total de apariciones
+	 */
+	public long total() {
+		return total;
+	}
+
+	/**
+	 * Suma a este contador las apariciones contadas por otro con los mismos parámetros.
+	 *
+	 * @param otro	Contador a fusionar
+	 * @throws IllegalArgumentException si los parámetros son distintos
+	 */
+	public void fusionar(CountMinSketch otro) {
+		if (otro.anchura != anchura || otro.profundidad != profundidad) {
+			throw new IllegalArgumentException("Contadores con distintos parámetros");
+		}
+		for (int i = 0; i < tabla.length; ++i) {
+			tabla[i] += otro.tabla[i];
+		}
+		total += otro.total;
+	}
+
+	/**
+	 * Devuelve el error máximo, relativo al número total de apariciones.
+	 * @return	epsilon
+	 */
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * Devuelve la probabilidad de superar el error máximo.
+	 * @return	delta
+	 */
+	public double getDelta() {
+		return delta;
+	}
+
+	/**
+	 * Método auxiliar que devuelve la columna de la fila i, combinando dos
+	 * códigos de dispersión (h1 + i * h2).
+	 */
+	private int columna(int h1, int h2, int i) {
+		return Integer.remainderUnsigned(h1 + i * h2, anchura);
+	}
+}
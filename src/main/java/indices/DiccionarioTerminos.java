@@ -0,0 +1,497 @@
+package indices;
+
+import java.util.Arrays;
+
+/**
+ * La clase DiccionarioTerminos guarda de forma compacta un conjunto de palabras
+ * ordenado lexicográficamente, que ya no se modifica. Cada palabra tiene como
+ * identificador su número de orden (0, 1, 2, ...), por lo que la información
+ * asociada a cada palabra se puede guardar en arrays indexados por identificador.
+ * Las palabras se guardan en un único array de bytes, en bloques de TAM_BLOQUE
+ * palabras con codificación por prefijos (front coding): la primera palabra de
+ * cada bloque se guarda completa, y cada una de las demás como el número de
+ * caracteres que comparte con la anterior seguido del resto de caracteres.
+ * Las longitudes y los caracteres se codifican con un número variable de bytes
+ * (7 bits por byte), por lo que los caracteres ASCII (menores que 128) ocupan
+ * un byte, y los demás, incluidos los de Latin-1 como 'ñ', dos o tres.
+ * Una palabra se busca (buscar) con una búsqueda binaria entre las primeras
+ * palabras de los bloques, y después recorriendo su bloque, sin crear objetos;
+ * termino, limiteInferior y cursor sí crean un Cursor, con su propio array de
+ * caracteres.
+ */
+public class DiccionarioTerminos {
+	// Número de palabras de cada bloque
+	private static final int TAM_BLOQUE = 16;
+
+	// Bytes con las palabras codificadas
+	private final byte[] datos;
+	// Posición en datos del comienzo de cada bloque
+	private final int[] bloques;
+	// Número de palabras
+	private final int tamanio;
+
+	private DiccionarioTerminos(byte[] datos, int[] bloques, int tamanio) {
+		this.datos = datos;
+		this.bloques = bloques;
+		this.tamanio = tamanio;
+	}
+
+	/**
+	 * Devuelve un diccionario vacío.
+	 * @return	Diccionario sin palabras
+	 */
+	public static DiccionarioTerminos vacio() {
+		return new DiccionarioTerminos(new byte[0], new int[0], 0);
+	}
+
+	/**
+	 * Devuelve el número de palabras del diccionario.
+	 * @return	Número de palabras
+	 */
+	public int tamanio() {
+		return tamanio;
+	}
+
+	/**
+	 * Devuelve el número de bytes que ocupan las palabras codificadas.
+	 * @return	Número de bytes
+	 */
+	public int numBytes() {
+		return datos.length;
+	}
+
+	/**
+	 * Busca una palabra en el diccionario, en O(log n).
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Identificador de la palabra, o -1 si no está
+	 */
+	public int buscar(CharSequence palabra) {
+		if (tamanio == 0) {
+			return -1;
+		}
+		// Último bloque cuya primera palabra es menor o igual que la buscada
+		int izq = 0;
+		int der = bloques.length - 1;
+		while (izq < der) {
+			int medio = (izq + der + 1) >>> 1;
+			if (compararPrimera(medio, palabra) <= 0) {
+				izq = medio;
+			} else {
+				der = medio - 1;
+			}
+		}
+		return buscarEnBloque(izq, palabra);
+	}
+
+	/**
+	 * Devuelve la palabra con el identificador dado.
+	 *
+	 * @param id	Identificador de la palabra
+	 * @return		Palabra
+	 */
+	public String termino(int id) {
+		if (id < 0 || id >= tamanio) {
+			throw new IndexOutOfBoundsException("Identificador no válido: " + id);
+		}
+		Cursor c = new Cursor(id / TAM_BLOQUE);
+		while (c.id < id) {
+			c.siguiente();
+		}
+		return c.termino();
+	}
+
+	/**
+	 * Devuelve el identificador de la primera palabra mayor o igual que la
+	 * dada, en O(log n). Las palabras que empiezan por un prefijo son las que
+	 * siguen a limiteInferior(prefijo) mientras empiecen por él.
+	 *
+	 * @param palabra	Palabra
+	 * @return			Identificador, o tamanio() si todas las palabras son menores
+	 */
+	public int limiteInferior(CharSequence palabra) {
+		if (tamanio == 0) {
+			return 0;
+		}
+		// Último bloque cuya primera palabra es menor o igual que la dada
+		int izq = 0;
+		int der = bloques.length - 1;
+		while (izq < der) {
+			int medio = (izq + der + 1) >>> 1;
+			if (compararPrimera(medio, palabra) <= 0) {
+				izq = medio;
+			} else {
+				der = medio - 1;
+			}
+		}
+		Cursor c = new Cursor(izq);
+		while (c.siguiente() && c.id < (izq + 1) * TAM_BLOQUE) {
+			if (c.comparar(palabra) >= 0) {
+				return c.id;
+			}
+		}
+		return Math.min((izq + 1) * TAM_BLOQUE, tamanio);
+	}
+
+	/**
+	 * Devuelve un cursor situado antes de la primera palabra.
+	 * @return	Cursor sobre las palabras en orden lexicográfico
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Devuelve un cursor situado antes de la palabra con el identificador dado,
+	 * que decodifica a lo sumo las palabras anteriores de su bloque.
+	 *
+	 * @param id	Identificador de la primera palabra a recorrer (0..tamanio())
+	 * @return		Cursor sobre las palabras desde id en orden lexicográfico
+	 */
+	public Cursor cursor(int id) {
+		if (id < 0 || id > tamanio) {
+			throw new IndexOutOfBoundsException("Identificador no válido: " + id);
+		}
+		if (id == tamanio) {
+			Cursor c = new Cursor();
+			c.id = tamanio - 1;
+			return c;
+		}
+		Cursor c = new Cursor(id / TAM_BLOQUE);
+		while (c.id < id - 1) {
+			c.siguiente();
+		}
+		return c;
+	}
+
+	/**
+	 * Método auxiliar que compara la primera palabra de un bloque con otra palabra.
+	 */
+	private int compararPrimera(int bloque, CharSequence palabra) {
+		long r = leer(bloques[bloque]);
+		int lon = valor(r);
+		int n = palabra.length();
+		for (int i = 0; i < lon && i < n; ++i) {
+			r = leer(siguiente(r));
+			int c = valor(r);
+			if (c != palabra.charAt(i)) {
+				return c - palabra.charAt(i);
+			}
+		}
+		return lon - n;
+	}
+
+	/**
+	 * Método auxiliar que busca una palabra en un bloque. Se mantiene el número
+	 * de caracteres m que la palabra anterior del bloque comparte con la buscada,
+	 * que es menor que ella; así, cada palabra del bloque se compara solo a partir
+	 * de los caracteres que comparte con la anterior:
+	 * si comparte más de m, también es menor que la buscada; si comparte menos de m,
+	 * es mayor; y si comparte exactamente m, se comparan sus caracteres restantes.
+	 * Los enteros se leen con leer, sin crear un Lector.
+	 */
+	private int buscarEnBloque(int bloque, CharSequence palabra) {
+		int n = palabra.length();
+		int m = 0;
+		int comun = 0;
+		long r = leer(bloques[bloque]);
+		int lon = valor(r);
+		int p = siguiente(r);
+		for (int id = bloque * TAM_BLOQUE; id < tamanio && id < (bloque + 1) * TAM_BLOQUE; ++id) {
+			if (id > bloque * TAM_BLOQUE) {
+				r = leer(p);
+				comun = valor(r);
+				r = leer(siguiente(r));
+				lon = comun + valor(r);
+				p = siguiente(r);
+			}
+			if (comun > m) {
+				p = saltar(p, lon - comun);
+				continue;
+			} else if (comun < m) {
+				return -1;
+			}
+			int cmp = 0;
+			for (int i = comun; i < lon; ++i) {
+				r = leer(p);
+				int c = valor(r);
+				p = siguiente(r);
+				if (cmp == 0) {
+					if (i >= n) {
+						cmp = 1;
+					} else if (c != palabra.charAt(i)) {
+						cmp = c - palabra.charAt(i);
+					} else {
+						++m;
+					}
+				}
+			}
+			if (cmp == 0) {
+				if (lon == n) {
+					return id;
+				}
+				cmp = (lon > n) ? 1 : -1;
+			}
+			if (cmp > 0) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Método auxiliar que lee el entero codificado que empieza en la posición p
+	 * de datos. Devuelve el entero en los 32 bits bajos y la posición siguiente
+	 * en los altos (véanse valor y siguiente), para no crear ningún objeto.
+	 */
+	private long leer(int p) {
+		int v = 0;
+		int desp = 0;
+		byte b;
+		do {
+			b = datos[p++];
+			v |= (b & 0x7F) << desp;
+			desp += 7;
+		} while (b < 0);
+		return (long) p << 32 | (v & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Método auxiliar que salta n enteros codificados a partir de la posición p
+	 * de datos, y devuelve la posición siguiente.
+	 */
+	private int saltar(int p, int n) {
+		for (int i = 0; i < n; ++i) {
+			while (datos[p++] < 0) {
+				// Bytes de continuación
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * Método auxiliar que devuelve el entero de un resultado de leer.
+	 */
+	private static int valor(long r) {
+		return (int) r;
+	}
+
+	/**
+	 * Método auxiliar que devuelve la posición siguiente de un resultado de leer.
+	 */
+	private static int siguiente(long r) {
+		return (int) (r >>> 32);
+	}
+
+	/**
+	 * Cursor que recorre las palabras del diccionario en orden lexicográfico,
+	 * decodificándolas a medida que avanza.
+	 */
+	public class Cursor {
+		private final Lector lector;
+		private int id;
+		private char[] caracteres;
+		private int longitud;
+
+		private Cursor() {
+			lector = new Lector(0);
+			id = -1;
+			caracteres = new char[16];
+		}
+
+		private Cursor(int bloque) {
+			this();
+			lector.p = bloques[bloque];
+			id = bloque * TAM_BLOQUE - 1;
+		}
+
+		/**
+		 * Avanza a la siguiente palabra.
+		 * @return	true si hay otra palabra, false si se ha llegado al final
+		 */
+		public boolean siguiente() {
+			if (id + 1 >= tamanio) {
+				id = tamanio;
+				return false;
+			}
+			++id;
+			int comun = (id % TAM_BLOQUE == 0) ? 0 : lector.leer();
+			longitud = comun + lector.leer();
+			if (longitud > caracteres.length) {
+				caracteres = Arrays.copyOf(caracteres, Math.max(longitud, 2 * caracteres.length));
+			}
+			for (int i = comun; i < longitud; ++i) {
+				caracteres[i] = (char) lector.leer();
+			}
+			return true;
+		}
+
+		/**
+		 * Devuelve el identificador de la palabra actual.
+		 * @return	Identificador
+		 */
+		public int id() {
+			return id;
+		}
+
+		/**
+		 * Devuelve la palabra actual.
+		 * @return	Palabra
+		 */
+		public String termino() {
+			return new String(caracteres, 0, longitud);
+		}
+
+		/**
+		 * Devuelve la longitud de la palabra actual.
+		 * @return	Número de caracteres
+		 */
+		public int longitud() {
+			return longitud;
+		}
+
+		/**
+		 * Devuelve un carácter de la palabra actual, sin crear un String.
+		 * @param i	Posición del carácter (0..longitud() - 1)
+		 * @return	Carácter
+		 */
+		public char caracter(int i) {
+			return caracteres[i];
+		}
+
+		/**
+		 * Indica si la palabra actual empieza por un prefijo, sin crear un String.
+		 * @param prefijo	Prefijo
+		 * @return			true si la palabra empieza por el prefijo
+		 */
+		public boolean empiezaPor(CharSequence prefijo) {
+			int n = prefijo.length();
+			if (n > longitud) {
+				return false;
+			}
+			for (int i = 0; i < n; ++i) {
+				if (caracteres[i] != prefijo.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Método auxiliar que compara la palabra actual con otra, como String.compareTo.
+		 */
+		private int comparar(CharSequence palabra) {
+			int n = Math.min(longitud, palabra.length());
+			for (int i = 0; i < n; ++i) {
+				if (caracteres[i] != palabra.charAt(i)) {
+					return caracteres[i] - palabra.charAt(i);
+				}
+			}
+			return longitud - palabra.length();
+		}
+	}
+
+	/**
+	 * Clase auxiliar que lee enteros con codificación variable de datos.
+	 */
+	private class Lector {
+		int p;
+
+		Lector(int p) {
+			this.p = p;
+		}
+
+		int leer() {
+			long r = DiccionarioTerminos.this.leer(p);
+			p = siguiente(r);
+			return valor(r);
+		}
+
+		void saltar(int n) {
+			p = DiccionarioTerminos.this.saltar(p, n);
+		}
+	}
+
+	/**
+	 * Clase que crea un DiccionarioTerminos a partir de palabras que se añaden
+	 * en orden lexicográfico.
+	 */
+	public static class Creador {
+		private byte[] datos;
+		private int numBytes;
+		private int[] bloques;
+		private int tamanio;
+		private String anterior;
+
+		/**
+		 * Constructor que prepara la creación de un diccionario vacío.
+		 */
+		public Creador() {
+			datos = new byte[64];
+			bloques = new int[4];
+		}
+
+		/**
+		 * Añade una palabra, que debe ser mayor que la anterior en orden lexicográfico.
+		 *
+		 * @param palabra	Palabra a añadir
+		 * @throws IllegalArgumentException si la palabra no es mayor que la anterior
+		 */
+		public void agregar(String palabra) {
+			if (anterior != null && anterior.compareTo(palabra) >= 0) {
+				throw new IllegalArgumentException("Palabra fuera de orden: " + palabra);
+			}
+			int comun = 0;
+			if (tamanio % TAM_BLOQUE == 0) {
+				if (tamanio / TAM_BLOQUE == bloques.length) {
+					bloques = Arrays.copyOf(bloques, 2 * bloques.length);
+				}
+				bloques[tamanio / TAM_BLOQUE] = numBytes;
+			} else {
+				int max = Math.min(anterior.length(), palabra.length());
+				while (comun < max && anterior.charAt(comun) == palabra.charAt(comun)) {
+					++comun;
+				}
+				escribir(comun);
+			}
+			escribir(palabra.length() - comun);
+			for (int i = comun; i < palabra.length(); ++i) {
+				escribir(palabra.charAt(i));
+			}
+			++tamanio;
+			anterior = palabra;
+		}
+
+		/**
+		 * Devuelve el número de palabras añadidas.
+		 * @return	Número de palabras
+		 */
+		public int tamanio() {
+			return tamanio;
+		}
+
+		/**
+		 * Crea el diccionario con las palabras añadidas.
+		 * @return	Diccionario
+		 */
+		public DiccionarioTerminos crear() {
+			int numBloques = (tamanio + TAM_BLOQUE - 1) / TAM_BLOQUE;
+			return new DiccionarioTerminos(Arrays.copyOf(datos, numBytes),
+					Arrays.copyOf(bloques, numBloques), tamanio);
+		}
+
+		/**
+		 * Método auxiliar que escribe un entero no negativo con codificación variable.
+		 */
+		private void escribir(int v) {
+			if (numBytes + 5 > datos.length) {
+				datos = Arrays.copyOf(datos, datos.length + (datos.length >> 1) + 5);
+			}
+			while ((v & ~0x7F) != 0) {
+				datos[numBytes++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			datos[numBytes++] = (byte) v;
+		}
+	}
+}
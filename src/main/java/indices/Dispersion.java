@@ -0,0 +1,33 @@
+package indices;
+
+/**
+ * Clase auxiliar con la función de dispersión de 64 bits que usan los
+ * contadores aproximados. Es determinista, de forma que los contadores
+ * creados con los mismos parámetros en distintos hilos se pueden fusionar.
+ */
+final class Dispersion {
+	private Dispersion() {
+	}
+
+	/**
+	 * Devuelve un código de dispersión de 64 bits de una secuencia de caracteres:
+	 * FNV-1a sobre los caracteres, seguido de la mezcla final de MurmurHash3 para
+	 * que todos los bits dependan de todos los caracteres.
+	 *
+	 * @param s	Secuencia de caracteres
+	 * @return	Código de dispersión
+	 */
+	static long hash64(CharSequence s) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); ++i) {
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
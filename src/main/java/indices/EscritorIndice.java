@@ -0,0 +1,191 @@
+package indices;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.PrimitiveIterator;
+
+/**
+ * Clase auxiliar para presentar los índices rápidamente. Escribe el mismo texto
+ * que los formatos de printf que usaban los índices ("%-10s", "%4d", ...), pero
+ * rellenando y convirtiendo los enteros a mano sobre un buffer de caracteres que
+ * se reutiliza, sin crear objetos por cada palabra ni por cada entero. El buffer
+ * se vuelca al Writer de destino cuando se llena y al llamar a flush.
+ * Los métodos devuelven el propio escritor para poder encadenar las llamadas.
+ */
+class EscritorIndice implements Flushable {
+	// Tamaño del buffer de caracteres
+	private static final int TAM_BUFFER = 1 << 13;
+	private static final String SEPARADOR_LINEA = System.lineSeparator();
+
+	private final Writer destino;
+	private final char[] buffer;
+	private int usados;
+
+	/**
+	 * Crea un escritor sobre un Writer.
+	 *
+	 * @param destino	Writer en que se escribe el texto
+	 */
+	EscritorIndice(Writer destino) {
+		this.destino = destino;
+		buffer = new char[TAM_BUFFER];
+	}
+
+	/**
+	 * Escribe una palabra ajustada a la izquierda y rellena con espacios hasta
+	 * ocupar al menos ancho caracteres, como "%-{ancho}s".
+	 */
+	EscritorIndice palabra(CharSequence palabra, int ancho) {
+		texto(palabra);
+		return espacios(ancho - palabra.length());
+	}
+
+	/**
+	 * Escribe un texto tal cual, como "%s".
+	 */
+	EscritorIndice texto(CharSequence texto) {
+		int n = texto.length();
+		for (int i = 0; i < n; ) {
+			if (usados == buffer.length) {
+				volcar();
+			}
+			int m = Math.min(n - i, buffer.length - usados);
+			if (texto instanceof String) {
+				((String) texto).getChars(i, i + m, buffer, usados);
+			} else {
+				for (int j = 0; j < m; ++j) {
+					buffer[usados + j] = texto.charAt(i + j);
+				}
+			}
+			usados += m;
+			i += m;
+		}
+		return this;
+	}
+
+	/**
+	 * Escribe un entero ajustado a la derecha y rellenado con espacios hasta
+	 * ocupar al menos ancho caracteres, como "%{ancho}d".
+	 */
+	EscritorIndice entero(int valor, int ancho) {
+		long v = valor;
+		boolean negativo = v < 0;
+		if (negativo) {
+			v = -v;
+		}
+		int digitos = 1;
+		for (long d = v; d >= 10; d /= 10) {
+			++digitos;
+		}
+		int lon = digitos + (negativo ? 1 : 0);
+		espacios(ancho - lon);
+		asegurar(lon);
+		if (negativo) {
+			buffer[usados] = '-';
+		}
+		for (int i = usados + lon - 1; i >= usados + lon - digitos; --i) {
+			buffer[i] = (char) ('0' + v % 10);
+			v /= 10;
+		}
+		usados += lon;
+		return this;
+	}
+
+	/**
+	 * Escribe un entero sin relleno, como "%d".
+	 */
+	EscritorIndice entero(int valor) {
+		return entero(valor, 0);
+	}
+
+	/**
+	 * Escribe n espacios (nada si n no es positivo).
+	 */
+	EscritorIndice espacios(int n) {
+		for (int i = 0; i < n; ++i) {
+			caracter(' ');
+		}
+		return this;
+	}
+
+	/**
+	 * Escribe un carácter.
+	 */
+	EscritorIndice caracter(char c) {
+		if (usados == buffer.length) {
+			volcar();
+		}
+		buffer[usados++] = c;
+		return this;
+	}
+
+	/**
+	 * Escribe los enteros de un iterador separados por comas y entre ángulos,
+	 * como "<L1,L2,...,Ln>".
+	 */
+	EscritorIndice enteros(PrimitiveIterator.OfInt it) {
+		caracter('<');
+		if (it.hasNext()) {
+			entero(it.nextInt());
+			while (it.hasNext()) {
+				caracter(',');
+				entero(it.nextInt());
+			}
+		}
+		return caracter('>');
+	}
+
+	/**
+	 * Termina una línea con '\n', como en los formatos de printf.
+	 */
+	EscritorIndice salto() {
+		return caracter('\n');
+	}
+
+	/**
+	 * Termina una línea con el separador de líneas del sistema, como println.
+	 */
+	EscritorIndice separadorLinea() {
+		return texto(SEPARADOR_LINEA);
+	}
+
+	/**
+	 * Vuelca el buffer al Writer de destino y vacía este.
+	 * @throws UncheckedIOException si se produce un error de escritura
+	 */
+	@Override
+	public void flush() {
+		volcar();
+		try {
+			destino.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Método auxiliar que asegura que caben n caracteres más en el buffer
+	 * (n no puede ser mayor que el tamaño del buffer).
+	 */
+	private void asegurar(int n) {
+		if (usados + n > buffer.length) {
+			volcar();
+		}
+	}
+
+	/**
+	 * Método auxiliar que escribe el contenido del buffer en el Writer de destino.
+	 */
+	private void volcar() {
+		if (usados > 0) {
+			try {
+				destino.write(buffer, 0, usados);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			usados = 0;
+		}
+	}
+}
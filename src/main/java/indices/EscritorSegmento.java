@@ -0,0 +1,146 @@
+package indices;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Clase auxiliar que escribe un índice en un archivo de segmento binario, que
+ * después se puede abrir con IndiceSegmento. Las palabras se deben añadir en
+ * orden lexicográfico, cada una con un valor entero y sus datos de apariciones
+ * ya codificados.
+ *
+ * Formato del archivo (enteros en big-endian):
+ * <pre>
+ *  0 int   MAGICO
+ *  4 int   tipo de índice (ordinal de IndiceSegmento.Tipo)
+ *  8 int   número de palabras N
+ * 12 long  posición del área de palabras (UTF-8, una detrás de otra)
+ * 20 long  posición de las N+1 posiciones (long) de cada palabra en su área
+ * 28 long  posición del área de apariciones
+ * 36 long  posición de las N+1 posiciones (long) de las apariciones de cada palabra
+ * 44 long  posición de los N valores (int) de cada palabra
+ * 52       área de apariciones, área de palabras y tablas
+ * </pre>
+ */
+class EscritorSegmento implements Closeable {
+	static final int MAGICO = 0x49445832; // "IDX2"
+	static final int TAM_CABECERA = 52;
+
+	private final Path archivo;
+	private final IndiceSegmento.Tipo tipo;
+	private final DataOutputStream out;
+	// Posición actual en el archivo
+	private long pos;
+	// Palabras en UTF-8, y posición de cada una en el área de palabras
+	private final ByteArrayOutputStream palabras;
+	private long[] posPalabras;
+	// Posición en el archivo de las apariciones de cada palabra
+	private long[] posApariciones;
+	// Valor entero de cada palabra
+	private int[] valores;
+	private int numPalabras;
+	private String ultima;
+
+	/**
+	 * Crea el archivo de segmento, y escribe una cabecera provisional.
+	 *
+	 * @param archivo	Archivo a crear
+	 * @param tipo		Tipo de índice
+	 * @throws IOException si se produce un error de escritura
+	 */
+	EscritorSegmento(Path archivo, IndiceSegmento.Tipo tipo) throws IOException {
+		this.archivo = archivo;
+		this.tipo = tipo;
+		out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivo), 1 << 16));
+		out.write(new byte[TAM_CABECERA]);
+		pos = TAM_CABECERA;
+		palabras = new ByteArrayOutputStream();
+		posPalabras = new long[16];
+		posApariciones = new long[16];
+		valores = new int[16];
+	}
+
+	/**
+	 * Añade una palabra, que debe ser mayor que la anterior en orden lexicográfico.
+	 *
+	 * @param palabra	Palabra
+	 * @param valor		Valor entero asociado a la palabra
+	 * @param datos		Apariciones codificadas (puede ser null si numBytes es 0)
+	 * @param numBytes	Número de bytes de apariciones
+	 * @throws IOException si se produce un error de escritura
+	 */
+	void agregar(String palabra, int valor, byte[] datos, int numBytes) throws IOException {
+		if (ultima != null && ultima.compareTo(palabra) >= 0) {
+			throw new IllegalArgumentException("Palabra fuera de orden: " + palabra);
+		}
+		if (numPalabras + 1 >= posPalabras.length) {
+			posPalabras = Arrays.copyOf(posPalabras, 2 * posPalabras.length);
+			posApariciones = Arrays.copyOf(posApariciones, 2 * posApariciones.length);
+			valores = Arrays.copyOf(valores, 2 * valores.length);
+		}
+		posPalabras[numPalabras] = palabras.size();
+		posApariciones[numPalabras] = pos;
+		valores[numPalabras] = valor;
+		palabras.write(palabra.getBytes(StandardCharsets.UTF_8));
+		if (numBytes > 0) {
+			out.write(datos, 0, numBytes);
+			pos += numBytes;
+		}
+		++numPalabras;
+		ultima = palabra;
+	}
+
+	/**
+	 * Escribe las tablas de palabras y la cabecera definitiva, y cierra el archivo.
+	 */
+	@Override
+	public void close() throws IOException {
+		long posAreaPalabras = pos;
+		long posTablaPalabras;
+		long posTablaApariciones;
+		long posValores;
+		try {
+			long finApariciones = pos;
+			palabras.writeTo(out);
+			pos += palabras.size();
+			posTablaPalabras = pos;
+			posPalabras[numPalabras] = palabras.size();
+			for (int i = 0; i <= numPalabras; ++i) {
+				out.writeLong(posAreaPalabras + posPalabras[i]);
+			}
+			pos += 8L * (numPalabras + 1);
+			posTablaApariciones = pos;
+			posApariciones[numPalabras] = finApariciones;
+			for (int i = 0; i <= numPalabras; ++i) {
+				out.writeLong(posApariciones[i]);
+			}
+			pos += 8L * (numPalabras + 1);
+			posValores = pos;
+			for (int i = 0; i < numPalabras; ++i) {
+				out.writeInt(valores[i]);
+			}
+		} finally {
+			out.close();
+		}
+		ByteBuffer cab = ByteBuffer.allocate(TAM_CABECERA);
+		cab.putInt(MAGICO).putInt(tipo.ordinal()).putInt(numPalabras)
+			.putLong(posAreaPalabras).putLong(posTablaPalabras)
+			.putLong(TAM_CABECERA).putLong(posTablaApariciones).putLong(posValores);
+		cab.flip();
+		try (FileChannel fc = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+			while (cab.hasRemaining()) {
+				fc.write(cab, cab.position());
+			}
+		}
+	}
+}
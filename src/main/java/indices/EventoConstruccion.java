@@ -0,0 +1,52 @@
+package indices;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de JDK Flight Recorder que se emite cada vez que un índice se
+ * construye o amplía (resolver, resolverParalelo o agregarArchivo sin conservar
+ * el texto). Los campos de palabras y tiempos por fase solo tienen valor si el
+ * índice está instrumentado.
+ */
+@Name("indices.Construccion")
+@Label("Construcción de índice")
+@Category("Índices")
+@Description("Construcción o ampliación de un índice")
+@StackTrace(false)
+class EventoConstruccion extends Event {
+	@Label("Tipo de índice")
+	String tipo;
+
+	@Label("Operación")
+	String operacion;
+
+	@Label("Líneas indexadas")
+	long lineas;
+
+	@Label("Palabras")
+	long palabras;
+
+	@Label("Tiempo de tokenización")
+	@Timespan(Timespan.NANOSECONDS)
+	long nanosTokenizar;
+
+	@Label("Tiempo de normalización")
+	@Timespan(Timespan.NANOSECONDS)
+	long nanosNormalizar;
+
+	@Label("Tiempo de inserción")
+	@Timespan(Timespan.NANOSECONDS)
+	long nanosInsertar;
+
+	@Label("Palabras distintas")
+	long terminos;
+
+	@Label("Apariciones")
+	long apariciones;
+}
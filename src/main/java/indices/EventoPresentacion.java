@@ -0,0 +1,24 @@
+package indices;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JDK Flight Recorder que se emite cada vez que se presenta un índice.
+ */
+@Name("indices.Presentacion")
+@Label("Presentación de índice")
+@Category("Índices")
+@Description("Presentación de un índice con presentarIndice")
+@StackTrace(false)
+class EventoPresentacion extends Event {
+	@Label("Tipo de índice")
+	String tipo;
+
+	@Label("Palabras distintas")
+	long terminos;
+}
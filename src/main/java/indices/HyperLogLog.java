@@ -0,0 +1,126 @@
+package indices;
+
+/**
+ * La clase HyperLogLog estima el número de palabras distintas con una memoria
+ * fija de 2^p registros de un byte. Cada palabra se asigna a un registro con los
+ * p bits más altos de su código de dispersión, y el registro guarda el máximo
+ * número de ceros iniciales más uno del resto de bits; la estimación es la media
+ * armónica de los registros, corregida para cardinalidades pequeñas.
+ * El error relativo típico es 1.04 / sqrt(2^p), por lo que p se elige a partir
+ * del error deseado (entre 4 y 18).
+ * Dos estimadores con la misma precisión se fusionan con el máximo de cada registro.
+ */
+public class HyperLogLog {
+	private static final int PRECISION_MIN = 4;
+	private static final int PRECISION_MAX = 18;
+
+	private final int precision;
+	private final byte[] registros;
+
+	/**
+	 * Constructor que crea un estimador vacío con el error relativo dado.
+	 *
+	 * @param error	Error relativo típico deseado (0 < error < 1)
+	 */
+	public HyperLogLog(double error) {
+		this(precisionPara(error));
+	}
+
+	private HyperLogLog(int precision) {
+		this.precision = precision;
+		registros = new byte[1 << precision];
+	}
+
+	/**
+	 * Devuelve un estimador vacío con la misma precisión, que se podrá fusionar con este.
+	 * @return	Estimador vacío
+	 */
+	public HyperLogLog vacio() {
+		return new HyperLogLog(precision);
+	}
+
+	/**
+	 * Cuenta una palabra.
+	 * @param palabra	Palabra
+	 */
+	public void agregar(CharSequence palabra) {
+		long h = Dispersion.hash64(palabra);
+		int r = (int) (h >>> (64 - precision));
+		int ceros = Long.numberOfLeadingZeros(h << precision);
+		byte rango = (byte) (Math.min(ceros, 64 - precision) + 1);
+		if (rango > registros[r]) {
+			registros[r] = rango;
+		}
+	}
+
+	/**
+	 * Estima el número de palabras distintas contadas.
+	 * @return	Estimación del número de palabras distintas
+	 */
+	public long estimar() {
+		int m = registros.length;
+		double suma = 0;
+		int vacios = 0;
+		for (byte reg : registros) {
+			suma += Math.scalb(1.0, -reg);
+			if (reg == 0) {
+				++vacios;
+			}
+		}
+		double e = alfa(m) * m * m / suma;
+		if (e <= 2.5 * m && vacios > 0) {
+			e = m * Math.log((double) m / vacios);
+		}
+		return Math.round(e);
+	}
+
+	/**
+	 * Añade a este estimador las palabras contadas por otro con la misma precisión.
+	 *
+	 * @param otro	Estimador a fusionar
+	 * @throws IllegalArgumentException si la precisión es distinta
+	 */
+	public void fusionar(HyperLogLog otro) {
+		if (otro.precision != precision) {
+			throw new IllegalArgumentException("Estimadores con distinta precisión");
+		}
+		for (int i = 0; i < registros.length; ++i) {
+			registros[i] = (byte) Math.max(registros[i], otro.registros[i]);
+		}
+	}
+
+	/**
+	 * Devuelve el error relativo típico del estimador.
+	 * @return	Error relativo típico
+	 */
+	public double getError() {
+		return 1.04 / Math.sqrt(registros.length);
+	}
+
+	/**
+	 * Método auxiliar que calcula la precisión necesaria para un error relativo.
+	 */
+	private static int precisionPara(double error) {
+		if ( ! (error > 0 && error < 1)) {
+			throw new IllegalArgumentException("Error no válido: " + error);
+		}
+		int p = (int) Math.ceil(2 * Math.log(1.04 / error) / Math.log(2));
+		return Math.max(PRECISION_MIN, Math.min(PRECISION_MAX, p));
+	}
+
+	/**
+	 * Método auxiliar con la constante de corrección del sesgo para m registros.
+	 */
+	private static double alfa(int m) {
+		switch (m) {
+		case 16:
+			return 0.673;
+		case 32:
+			return 0.697;
+		case 64:
+			return 0.709;
+		default:
+			return 0.7213 / (1 + 1.079 / m);
+		}
+	}
+}
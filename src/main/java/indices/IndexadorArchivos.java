@@ -0,0 +1,268 @@
+package indices;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * La clase IndexadorArchivos indexa muchos archivos a la vez, en una cadena de
+ * tres etapas:
+ * la lectura de cada archivo, que espera sobre todo a la E/S, se hace en un hilo
+ * propio, virtual si la máquina virtual los tiene (Java 21 o posterior);
+ * la división en palabras y la construcción del índice de cada archivo, que
+ * consume CPU, se hacen en un número limitado de hilos de trabajo;
+ * y los índices de los archivos se reúnen, en el orden en que se dan los
+ * archivos, en el hilo que llama, que también recibe los avisos de progreso.
+ * Para acotar la memoria, solo se procesan a la vez unos pocos archivos por
+ * cada hilo de trabajo.
+ * Las líneas se pueden numerar de forma global, a continuación unas de otras
+ * en un único índice, o por archivo, con un índice para cada archivo.
+ */
+public class IndexadorArchivos {
+	// Número máximo de archivos en proceso por cada hilo de trabajo
+	private static final int ARCHIVOS_POR_TRABAJADOR = 16;
+
+	/**
+	 * Interfaz para recibir avisos de progreso. Los avisos se reciben en el hilo
+	 * que indexa, en el orden de los archivos.
+	 */
+	@FunctionalInterface
+	public interface Progreso {
+		/**
+		 * Se invoca cuando un archivo se ha añadido al resultado.
+		 *
+		 * @param archivo		Archivo
+		 * @param primeraLinea	Número de su primera línea en el índice
+		 * @param numLineas		Número de líneas del archivo
+		 * @param completados	Número de archivos añadidos hasta ahora
+		 * @param total			Número total de archivos
+		 */
+		void archivoIndexado(Path archivo, int primeraLinea, int numLineas, int completados, int total);
+	}
+
+	private final Supplier<? extends IndiceAbstracto> fabrica;
+	private final String delim;
+	private Charset charset;
+	private int trabajadores;
+	private Progreso progreso;
+
+	/**
+	 * Constructor que prepara la indexación con un tipo de índice y unos
+	 * delimitadores, en UTF-8 y con tantos hilos de trabajo como procesadores.
+	 *
+	 * @param fabrica	Crea los índices vacíos, todos del mismo tipo
+	 * @param delim		Delimitadores de las palabras
+	 * @throws IllegalArgumentException si los delimitadores no son válidos
+	 */
+	public IndexadorArchivos(Supplier<? extends IndiceAbstracto> fabrica, String delim) {
+		new Tokenizador(delim); // Comprueba los delimitadores
+		this.fabrica = Objects.requireNonNull(fabrica);
+		this.delim = delim;
+		charset = StandardCharsets.UTF_8;
+		trabajadores = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Establece la codificación de los archivos.
+	 * @param charset	Codificación
+	 */
+	public void setCharset(Charset charset) {
+		this.charset = Objects.requireNonNull(charset);
+	}
+
+	/**
+	 * Establece el número de hilos de trabajo que dividen en palabras e indexan.
+	 *
+	 * @param trabajadores	Número de hilos de trabajo
+	 * @throws IllegalArgumentException si no es positivo
+	 */
+	public void setTrabajadores(int trabajadores) {
+		if (trabajadores < 1) {
+			throw new IllegalArgumentException("Número de hilos no válido: " + trabajadores);
+		}
+		this.trabajadores = trabajadores;
+	}
+
+	/**
+	 * Establece el receptor de los avisos de progreso (null para ninguno).
+	 * @param progreso	Receptor de los avisos
+	 */
+	public void setProgreso(Progreso progreso) {
+		this.progreso = progreso;
+	}
+
+	/**
+	 * Indexa los archivos con numeración global: las líneas de cada archivo se
+	 * añaden, con su texto, a continuación de las del anterior en un índice
+	 * nuevo, con el mismo resultado que agregar los archivos uno detrás de otro
+	 * y llamar a resolver.
+	 *
+	 * @param archivos	Archivos a indexar, en orden
+	 * @return			Índice con las líneas de todos los archivos
+	 * @throws IOException si se produce un error de lectura
+	 */
+	public IndiceAbstracto indexar(List<Path> archivos) throws IOException {
+		IndiceAbstracto destino = fabrica.get();
+		indexar(archivos, destino);
+		return destino;
+	}
+
+	/**
+	 * Indexa los archivos con numeración global, añadiendo sus líneas a
+	 * continuación de las de un índice del mismo tipo, que antes se pone al día
+	 * con los delimitadores del indexador si hace falta. Si se produce un error,
+	 * el índice conserva los archivos anteriores al que ha fallado.
+	 *
+	 * @param archivos	Archivos a indexar, en orden
+	 * @param destino	Índice al que se añaden las líneas
+	 * @throws IOException si se produce un error de lectura
+	 * @throws IllegalArgumentException si los índices de la fábrica no se pueden
+	 * 			fusionar con el destino (por ejemplo, si uno es un IndiceContador
+	 * 			aproximado y el otro exacto)
+	 */
+	public void indexar(List<Path> archivos, IndiceAbstracto destino) throws IOException {
+		try {
+			procesar(archivos, (archivo, indice) -> destino.agregarIndice(indice));
+		} finally {
+			destino.compactar();
+		}
+	}
+
+	/**
+	 * Indexa los archivos con numeración por archivo: cada archivo tiene su
+	 * propio índice, con su texto y sus líneas numeradas desde 1.
+	 *
+	 * @param archivos	Archivos a indexar
+	 * @return			Índice de cada archivo, en el orden de los archivos
+	 * @throws IOException si se produce un error de lectura
+	 */
+	public Map<Path, IndiceAbstracto> indexarPorArchivo(List<Path> archivos) throws IOException {
+		Map<Path, IndiceAbstracto> res = new LinkedHashMap<>();
+		procesar(archivos, (archivo, indice) -> {
+			res.put(archivo, indice);
+			return 1;
+		});
+		return res;
+	}
+
+	/**
+	 * Interfaz auxiliar para la última etapa, que recibe el índice de cada
+	 * archivo y devuelve el número que ha dado a su primera línea.
+	 */
+	private interface Reunion {
+		int agregar(Path archivo, IndiceAbstracto indice);
+	}
+
+	/**
+	 * Método auxiliar que recorre la cadena de etapas. Se lanzan en orden las
+	 * tareas de los archivos, y cuando hay demasiadas en proceso se espera a la
+	 * más antigua para reunir su resultado.
+	 */
+	private void procesar(List<Path> archivos, Reunion reunion) throws IOException {
+		int total = archivos.size();
+		int maxEnProceso = ARCHIVOS_POR_TRABAJADOR * trabajadores;
+		ArrayDeque<CompletableFuture<IndiceAbstracto>> enProceso = new ArrayDeque<>();
+		ExecutorService lectores = crearLectores();
+		ExecutorService trabajo = Executors.newFixedThreadPool(trabajadores);
+		try {
+			int completados = 0;
+			for (int i = 0; i < total || ! enProceso.isEmpty(); ) {
+				if (i < total && enProceso.size() < maxEnProceso) {
+					Path archivo = archivos.get(i++);
+					enProceso.add(CompletableFuture
+							.supplyAsync(() -> leer(archivo), lectores)
+							.thenApplyAsync(this::construir, trabajo));
+					continue;
+				}
+				IndiceAbstracto indice = esperar(enProceso.remove());
+				Path archivo = archivos.get(completados++);
+				int primera = reunion.agregar(archivo, indice);
+				if (progreso != null) {
+					progreso.archivoIndexado(archivo, primera, indice.frases.size(), completados, total);
+				}
+			}
+		} finally {
+			for (CompletableFuture<IndiceAbstracto> f : enProceso) {
+				f.cancel(false);
+			}
+			lectores.shutdown();
+			trabajo.shutdown();
+		}
+	}
+
+	/**
+	 * Método auxiliar que lee un archivo en un índice nuevo, conservando su texto.
+	 */
+	private IndiceAbstracto leer(Path archivo) {
+		IndiceAbstracto indice = fabrica.get();
+		try {
+			indice.agregarArchivo(archivo, charset);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return indice;
+	}
+
+	/**
+	 * Método auxiliar que construye el índice de un archivo ya leído.
+	 */
+	private IndiceAbstracto construir(IndiceAbstracto indice) {
+		indice.resolver(delim);
+		return indice;
+	}
+
+	/**
+	 * Método auxiliar que espera el resultado de un archivo, y lanza de nuevo
+	 * la excepción que se haya producido en sus tareas.
+	 */
+	private static IndiceAbstracto esperar(CompletableFuture<IndiceAbstracto> f) throws IOException {
+		try {
+			return f.join();
+		} catch (CompletionException e) {
+			Throwable causa = e.getCause();
+			if (causa instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) causa).getCause();
+			} else if (causa instanceof RuntimeException) {
+				throw (RuntimeException) causa;
+			} else if (causa instanceof Error) {
+				throw (Error) causa;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Método auxiliar que crea el ejecutor de las lecturas: uno que crea un hilo
+	 * virtual por tarea si la máquina virtual los tiene (se busca por reflexión,
+	 * para que el código se siga compilando para Java 17), o uno que crea hilos
+	 * de plataforma según hacen falta si no. El número de lecturas a la vez ya
+	 * está acotado por el número de archivos en proceso.
+	 */
+	private static ExecutorService crearLectores() {
+		try {
+			Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) m.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			AtomicInteger numHilo = new AtomicInteger();
+			return Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, "lectura-archivos-" + numHilo.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+}
@@ -1,6 +1,14 @@
 package indices;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
 * Interfaz que define las operaciones comunes a diferentes tipos de índices
@@ -15,18 +23,81 @@ public interface Indice {
 	 */
     void agregarFrase(String linea);
 
+	/**
+	 * Método para añadir todas las líneas de un archivo de texto.
+	 * Por defecto, se añade cada línea con agregarFrase.
+	 *
+	 * @param archivo	Archivo con el texto
+	 * @param cs		Codificación del archivo
+	 * @throws IOException si se produce un error de lectura
+	 */
+    default void agregarArchivo(Path archivo, Charset cs) throws IOException {
+	try (BufferedReader br = Files.newBufferedReader(archivo, cs)) {
+	    String linea;
+	    while ((linea = br.readLine()) != null) {
+		agregarFrase(linea);
+	    }
+	}
+    }
+
 	/**
 	 * Genera el índice correspondiente a partir de todas las líneas que se tengan.
 	 * @param delim Separadores que determinan las palabras en cada línea
 	 */
     void resolver(String delim);
-    
+
+	/**
+	 * Genera el índice correspondiente usando varios hilos. El índice resultante
+	 * es el mismo que el que genera resolver. Por defecto, se usa resolver.
+	 * @param delim Separadores que determinan las palabras en cada línea
+	 * @param paralelismo Número de hilos a usar
+	 */
+    default void resolverParalelo(String delim, int paralelismo) {
+	resolver(delim);
+    }
+
 	/**
 	 * Presenta el índice sobre el PrintWriter que se pasa como argumento.
 	 * @param pw	PrintWriter
 	 */
     void presentarIndice(PrintWriter pw);
 
+	/**
+	 * Presenta el índice sobre un flujo de salida, codificando el texto con el
+	 * juego de caracteres dado. El flujo no se cierra.
+	 * @param os	Flujo de salida
+	 * @param cs	Codificación del texto
+	 * @throws IOException si se produce un error de escritura
+	 */
+    default void presentarIndice(OutputStream os, Charset cs) throws IOException {
+	presentarIndice(Channels.newChannel(os), cs);
+    }
+
+	/**
+	 * Presenta el índice sobre un canal, codificando el texto con el juego de
+	 * caracteres dado. El canal no se cierra.
+	 * @param canal	Canal de salida
+	 * @param cs	Codificación del texto
+	 * @throws IOException si se produce un error de escritura
+	 */
+    default void presentarIndice(WritableByteChannel canal, Charset cs) throws IOException {
+	PrintWriter pw = new PrintWriter(Channels.newWriter(canal, cs));
+	presentarIndice(pw);
+	pw.flush();
+	if (pw.checkError()) {
+	    throw new IOException("Error al presentar el índice");
+	}
+    }
+
+	/**
+	 * Devuelve las medidas de rendimiento del índice.
+	 * Por defecto, el índice no está instrumentado.
+	 * @return	Medidas acumuladas, o null si el índice no está instrumentado
+	 */
+    default Metricas getMetricas() {
+	return null;
+    }
+
 	/**
 	 * Presenta el índice sobre la consola. 
 	 */
@@ -1,29 +1,651 @@
 package indices;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
- * Clase abstracta que implementa (parcialmente9 la interfaz Indice, 
- * y que establece el almacenamiento de las frases en una lista. 
+ * Clase abstracta que implementa (parcialmente9 la interfaz Indice,
+ * y que establece el almacenamiento de las frases en un AlmacenLineas, una
+ * lista compacta de líneas.
+ * También implementa la construcción del índice, tanto secuencial como
+ * paralela, recorriendo las líneas y delegando en las subclases la forma
+ * de añadir al índice las palabras de cada línea.
+ * En modo incremental, una vez construido el índice, cada nueva línea se
+ * añade al índice en el momento de agregarla, y solo se reconstruye el
+ * índice completo si cambian los delimitadores.
+ * Las líneas también se pueden leer de un archivo, e indexarse sin conservar
+ * su texto en frases; en ese caso ya no se puede reconstruir el índice completo.
+ * En modo concurrente, varios hilos pueden agregar frases a la vez: las frases
+ * se numeran en el orden en que se reciben y esperan en una cola sin bloqueos,
+ * y resolver indexa las recibidas hasta ese momento mientras llegan otras.
+ * Cada construcción y presentación emite un evento de JDK Flight Recorder; si
+ * además el índice está instrumentado, se miden las palabras y el tiempo de
+ * cada fase, que se consultan con getMetricas.
  */
 public abstract class IndiceAbstracto  implements Indice {
-	// Variable protegida para almacenar el texto, organizado en líneas.
+	// Número mínimo de líneas que procesa cada tarea en la construcción paralela.
+	private static final int MIN_LINEAS_TAREA = 1024;
+
+	// Variable protegida para almacenar el texto, organizado en líneas. Es el
+	// mismo objeto que texto, vista como List<String>; no se debe reasignar.
 	protected List<String> frases;
-	
+	// El texto como AlmacenLineas, para acceder a las líneas sin copiarlas
+	private final AlmacenLineas texto;
+	// Tokenizador con los delimitadores del índice construido (null si no se ha construido)
+	private Tokenizador tokenizador;
+	// Número de líneas de frases que ya están en el índice
+	private int lineasIndexadas;
+	// Indica si el índice se mantiene actualizado al agregar nuevas líneas
+	private boolean incremental;
+	// Número de líneas indexadas cuyo texto no se ha conservado en frases
+	private int lineasNoRetenidas;
+	// Cola con las líneas agregadas en modo concurrente (null si no es concurrente)
+	private volatile ColaLineas pendientes;
+	// Medidas de rendimiento (null si el índice no está instrumentado)
+	private RegistroMetricas registro;
+
 	/**
 	 * Constructor que inicializa a una lista vacía el almacenamiento del texto.
 	 */
 	public IndiceAbstracto() {
-		frases = new LinkedList<String>();
+		texto = new AlmacenLineas();
+		frases = texto;
 	}
 
 	/**
-	 * Definición del método para añadir una línea al texto.
+	 * Definición del método para añadir una línea al texto. En modo incremental,
+	 * si el índice ya se ha construido, la línea se añade también al índice.
+	 * En modo concurrente, la línea se deja en la cola de líneas pendientes.
 	 */
 	@Override
 	public void agregarFrase(String linea) {
-		frases.add(linea);
+		agregarLinea(linea);
+	}
+
+	/**
+	 * Definición del método para añadir las líneas de un archivo, conservando su texto.
+	 */
+	@Override
+	public void agregarArchivo(Path archivo, Charset cs) throws IOException {
+		agregarArchivo(archivo, cs, true);
+	}
+
+	/**
+	 * Añade las líneas de un archivo, leyéndolo mediante un FileChannel proyectado
+	 * en memoria. Si no se conserva el texto, cada línea se divide en palabras e
+	 * indexa directamente desde el buffer de lectura, sin crear un String por línea;
+	 * para ello el índice debe estar en modo incremental y ya construido, y a partir
+	 * de entonces no se podrá reconstruir con otros delimitadores.
+	 *
+	 * @param archivo		Archivo con el texto
+	 * @param cs			Codificación del archivo
+	 * @param retenerTexto	true para conservar el texto de las líneas en frases
+	 * @throws IOException si se produce un error de lectura
+	 * @throws IllegalStateException si no se conserva el texto y el índice no
+	 * 			está construido en modo incremental
+	 */
+	public void agregarArchivo(Path archivo, Charset cs, boolean retenerTexto) throws IOException {
+		if (retenerTexto) {
+			LectorArchivo.leer(archivo, cs, this::agregarLinea);
+		} else {
+			if ( ! incremental || tokenizador == null) {
+				throw new IllegalStateException(
+						"Para no conservar el texto el índice debe estar construido en modo incremental");
+			}
+			resolver(tokenizador.getDelimitadores());
+			Medida medida = new Medida();
+			LectorArchivo.leer(archivo, cs, linea -> {
+				++lineasNoRetenidas;
+				indexar(this, tokenizador, linea, ++lineasIndexadas);
+				compactarTerminos();
+			});
+			compactar();
+			medida.terminar("agregarArchivo");
+		}
+	}
+
+	/**
+	 * Activa o desactiva el modo incremental. En modo incremental, una vez que
+	 * se ha llamado a resolver, las líneas que se agreguen se añaden directamente
+	 * al índice, y resolver solo reconstruye el índice si cambian los delimitadores.
+	 *
+	 * @param incremental	true para activar el modo incremental
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Indica si el índice está en modo incremental.
+	 * @return	true si el modo incremental está activo
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Activa o desactiva el modo concurrente. En modo concurrente, agregarFrase
+	 * se puede llamar desde varios hilos a la vez: cada línea recibe un número de
+	 * secuencia atómico que fija su número de línea, y se deja en una cola sin
+	 * bloqueos. Al llamar a resolver (desde un único hilo), se toma una instantánea
+	 * de la cola: se pasan a frases, en orden, todas las líneas recibidas hasta
+	 * ese momento, y se construye el índice con ellas, mientras los productores
+	 * siguen agregando líneas a la cola. Al desactivarlo, la cola se cierra de
+	 * forma atómica y las líneas que ya tenían número de secuencia pasan a frases;
+	 * los productores que aún estén agregando líneas las añaden después, de uno
+	 * en uno. Tras desactivarlo, las líneas solo se deben agregar desde un hilo,
+	 * una vez terminados los productores.
+	 *
+	 * @param concurrente	true para activar el modo concurrente
+	 */
+	public void setConcurrente(boolean concurrente) {
+		if (concurrente && pendientes == null) {
+			pendientes = new ColaLineas();
+		} else if ( ! concurrente && pendientes != null) {
+			synchronized (this) {
+				ColaLineas cola = pendientes;
+				cola.cerrar();
+				cola.entregar(texto::agregar);
+				pendientes = null;
+			}
+		}
+	}
+
+	/**
+	 * Indica si el índice está en modo concurrente.
+	 * @return	true si el modo concurrente está activo
+	 */
+	public boolean isConcurrente() {
+		return pendientes != null;
+	}
+
+	/**
+	 * Activa o desactiva la instrumentación. Un índice instrumentado cuenta las
+	 * líneas y palabras que indexa y mide el tiempo dedicado a dividir las líneas
+	 * en palabras, a pasarlas a minúsculas, a insertarlas en el índice y a
+	 * presentarlo, con un coste de unas pocas lecturas del reloj por palabra.
+	 * Al desactivarla se descartan las medidas acumuladas.
+	 *
+	 * @param instrumentado	true para activar la instrumentación
+	 */
+	public void setInstrumentado(boolean instrumentado) {
+		if (instrumentado && registro == null) {
+			registro = new RegistroMetricas();
+		} else if ( ! instrumentado) {
+			registro = null;
+		}
+		if (tokenizador != null) {
+			tokenizador = nuevoTokenizador(tokenizador.getDelimitadores());
+		}
+	}
+
+	/**
+	 * Indica si el índice está instrumentado.
+	 * @return	true si la instrumentación está activa
+	 */
+	public boolean isInstrumentado() {
+		return registro != null;
+	}
+
+	/**
+	 * Devuelve las medidas acumuladas desde que se activó la instrumentación.
+	 * El tamaño máximo del índice se toma al terminar cada construcción y antes
+	 * de vaciar el índice para reconstruirlo.
+	 */
+	@Override
+	public Metricas getMetricas() {
+		RegistroMetricas r = registro;
+		return (r == null) ? null : r.instantanea();
+	}
+
+	/**
+	 * Definición del método que construye el índice. Se vacía el índice y se
+	 * añaden las palabras de cada línea, numerando las líneas desde 1.
+	 * En modo incremental, si los delimitadores son los mismos que los del
+	 * índice ya construido, solo se añaden las líneas que aún no estén en él.
+	 */
+	@Override
+	public void resolver(String delim) {
+		tomarPendientes();
+		Medida medida = new Medida();
+		Tokenizador tk;
+		int numLinea;
+		int desde;
+		if (incremental && mismosDelimitadores(delim)) {
+			tk = tokenizador;
+			numLinea = lineasIndexadas;
+			desde = lineasIndexadas - lineasNoRetenidas;
+		} else {
+			comprobarTextoCompleto();
+			tk = nuevoTokenizador(delim);
+			desde = 0;
+			numLinea = 0;
+			tokenizador = null;
+			registrarTamanio();
+			limpiar();
+		}
+		AlmacenLineas.Vista vista = texto.vista();
+		for (int i = desde; i < texto.size(); ++i) {
+			indexar(this, tk, vista.situar(i), ++numLinea);
+		}
+		compactar();
+		tokenizador = tk;
+		lineasIndexadas = numLinea;
+		medida.terminar("resolver");
+	}
+
+	/**
+	 * Definición del método que construye el índice en paralelo. Las líneas se
+	 * dividen en rangos consecutivos; para cada rango se construye un índice
+	 * parcial con la numeración de líneas global, y los índices parciales se
+	 * fusionan en orden, de forma que el resultado es el mismo que el de resolver.
+	 */
+	@Override
+	public void resolverParalelo(String delim, int paralelismo) {
+		if (paralelismo < 1) {
+			throw new IllegalArgumentException("Paralelismo no válido: " + paralelismo);
+		}
+		tomarPendientes();
+		int numLineas = texto.size();
+		int minLineas = Math.max(MIN_LINEAS_TAREA, numLineas / (4 * paralelismo));
+		if (paralelismo == 1 || numLineas <= minLineas
+				|| (incremental && mismosDelimitadores(delim))) {
+			resolver(delim);
+			return;
+		}
+		comprobarTextoCompleto();
+		Tokenizador tk = nuevoTokenizador(delim); // Comprueba los delimitadores antes de lanzar las tareas
+		Medida medida = new Medida();
+		ForkJoinPool pool = new ForkJoinPool(paralelismo);
+		try {
+			IndiceAbstracto parcial = pool.invoke(
+					new TareaResolver(0, numLineas, delim, minLineas));
+			registrarTamanio();
+			limpiar();
+			fusionar(parcial);
+			compactar();
+			tokenizador = tk;
+			lineasIndexadas = numLineas;
+			medida.terminar("resolverParalelo");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Añade al final de este índice otro índice del mismo tipo ya construido,
+	 * con el texto de sus líneas, numeradas a continuación de las de este. Si
+	 * este índice no está al día con los delimitadores del otro, antes se
+	 * construye con ellos. No se compacta el resultado, para que se puedan
+	 * añadir muchos índices seguidos; se debe llamar a compactar al terminar.
+	 *
+	 * @param otro	Índice construido, con el texto de todas sus líneas
+	 * @return		Número que recibe la primera línea del otro índice
+	 * @throws IllegalArgumentException si el otro índice no está construido,
+	 * 			no conserva el texto de todas sus líneas o no se puede fusionar
+	 * 			con este
+	 */
+	int agregarIndice(IndiceAbstracto otro) {
+		if (otro.tokenizador == null || otro.lineasNoRetenidas > 0
+				|| otro.lineasIndexadas != otro.texto.size()) {
+			throw new IllegalArgumentException("El índice a añadir no está construido");
+		}
+		String delim = otro.tokenizador.getDelimitadores();
+		tomarPendientes();
+		if ( ! mismosDelimitadores(delim) || lineasIndexadas != numLineas()) {
+			resolver(delim);
+		}
+		int primera = lineasIndexadas + 1;
+		// Se fusiona antes de copiar el texto, para no copiarlo si falla
+		fusionar(otro, lineasIndexadas);
+		AlmacenLineas.Vista vista = otro.texto.vista();
+		for (int i = 0; i < otro.texto.size(); ++i) {
+			texto.agregar(vista.situar(i));
+		}
+		lineasIndexadas += otro.lineasIndexadas;
+		return primera;
+	}
+
+	/**
+	 * Método auxiliar que añade una línea al texto y, en modo incremental,
+	 * si el índice ya se ha construido, también al índice.
+	 */
+	private void agregarLinea(CharSequence linea) {
+		ColaLineas cola = pendientes;
+		if (cola != null) {
+			if ( ! cola.agregar(linea.toString())) {
+				// La cola se ha cerrado: se espera a que se vacíe y se añade detrás
+				synchronized (this) {
+					agregarDirecta(linea);
+				}
+			}
+			return;
+		}
+		agregarDirecta(linea);
+	}
+
+	/**
+	 * Método auxiliar que añade una línea al texto, fuera del modo concurrente,
+	 * y, en modo incremental, si el índice ya se ha construido, también al índice.
+	 */
+	private void agregarDirecta(CharSequence linea) {
+		texto.agregar(linea);
+		if (incremental && tokenizador != null && lineasIndexadas == numLineas() - 1) {
+			indexar(this, tokenizador, linea, ++lineasIndexadas);
+			compactarTerminos();
+		}
+	}
+
+	/**
+	 * Método auxiliar que añade a un índice (este o uno parcial) las palabras de
+	 * una línea y, si el tokenizador está instrumentado, acumula sus medidas.
+	 */
+	private static void indexar(IndiceAbstracto destino, Tokenizador tk, CharSequence linea, int numLinea) {
+		tk.reiniciar(linea);
+		if (tk instanceof TokenizadorInstrumentado) {
+			long t = System.nanoTime();
+			destino.indexarLinea(tk, numLinea);
+			((TokenizadorInstrumentado) tk).terminarLinea(System.nanoTime() - t);
+		} else {
+			destino.indexarLinea(tk, numLinea);
+		}
+	}
+
+	/**
+	 * Método auxiliar que crea un tokenizador, instrumentado si lo está el índice.
+	 */
+	private Tokenizador nuevoTokenizador(String delim) {
+		RegistroMetricas r = registro;
+		return (r == null) ? new Tokenizador(delim) : new TokenizadorInstrumentado(delim, r);
+	}
+
+	/**
+	 * Método auxiliar que, si el índice está instrumentado, registra su tamaño actual.
+	 */
+	private void registrarTamanio() {
+		if (registro != null) {
+			registro.tamanio(numTerminos(), numApariciones());
+		}
+	}
+
+	/**
+	 * Método auxiliar que, en modo concurrente, pasa a frases las líneas
+	 * recibidas en la cola hasta el momento.
+	 */
+	private void tomarPendientes() {
+		ColaLineas cola = pendientes;
+		if (cola != null) {
+			cola.entregar(texto::agregar);
+		}
+	}
+
+	/**
+	 * Devuelve el número de líneas que están en el índice construido.
+	 */
+	int numLineasIndexadas() {
+		return lineasIndexadas;
+	}
+
+	/**
+	 * Método auxiliar que devuelve el número total de líneas, conservadas o no.
+	 */
+	private int numLineas() {
+		return texto.size() + lineasNoRetenidas;
+	}
+
+	/**
+	 * Método auxiliar que comprueba que se conserva el texto de todas las líneas,
+	 * necesario para construir el índice completo.
+	 */
+	private void comprobarTextoCompleto() {
+		if (lineasNoRetenidas > 0) {
+			throw new IllegalStateException(
+					"No se puede reconstruir el índice: hay líneas cuyo texto no se ha conservado");
+		}
+	}
+
+	/**
+	 * Método auxiliar que indica si el índice está construido con los
+	 * delimitadores que se pasan como argumento.
+	 */
+	private boolean mismosDelimitadores(String delim) {
+		return tokenizador != null && tokenizador.getDelimitadores().equals(delim);
+	}
+
+	/**
+	 * Guarda el índice construido en un archivo de segmento binario, con un
+	 * diccionario ordenado de palabras y las apariciones de cada palabra, que
+	 * se puede abrir en modo de solo lectura con IndiceSegmento.abrir.
+	 *
+	 * @param archivo	Archivo en que se guarda el índice
+	 * @throws IOException si se produce un error de escritura
+	 */
+	public abstract void guardar(Path archivo) throws IOException;
+
+	/**
+	 * Presenta el índice, emitiendo un evento de JDK Flight Recorder y, si el
+	 * índice está instrumentado, midiendo el tiempo. El formato lo establece
+	 * cada subclase en presentar.
+	 */
+	@Override
+	public void presentarIndice(PrintWriter pw) {
+		medirPresentacion(() -> presentar(pw));
+	}
+
+	/**
+	 * Ejecuta una presentación del índice, emitiendo un evento de JDK Flight
+	 * Recorder y, si el índice está instrumentado, midiendo el tiempo. Permite
+	 * a las subclases presentar el índice con otro formato igual que presentarIndice.
+	 *
+	 * @param presentacion	Presentación a ejecutar
+	 */
+	protected final void medirPresentacion(Runnable presentacion) {
+		EventoPresentacion evento = new EventoPresentacion();
+		evento.begin();
+		long t = System.nanoTime();
+		presentacion.run();
+		if (registro != null) {
+			registro.presentacion(System.nanoTime() - t);
+		}
+		if (evento.shouldCommit()) {
+			evento.tipo = getClass().getSimpleName();
+			evento.terminos = numTerminos();
+			evento.commit();
+		}
+	}
+
+	/**
+	 * Presenta el índice sobre el PrintWriter que se pasa como argumento.
+	 *
+	 * @param pw	PrintWriter
+	 */
+	protected abstract void presentar(PrintWriter pw);
+
+	/**
+	 * Devuelve el número de palabras distintas del índice.
+	 *
+	 * @return	Número de palabras distintas
+	 */
+	protected abstract long numTerminos();
+
+	/**
+	 * Devuelve el número de apariciones de palabras guardadas en el índice.
+	 *
+	 * @return	Número de apariciones
+	 */
+	protected abstract long numApariciones();
+
+	/**
+	 * Vacía el índice construido.
+	 */
+	protected abstract void limpiar();
+
+	/**
+	 * Marca el índice como no construido, de forma que la siguiente llamada a
+	 * resolver lo reconstruye completo aunque sea incremental. Las subclases lo
+	 * usan cuando cambian la forma de construir el índice.
+	 */
+	protected void invalidar() {
+		tokenizador = null;
+	}
+
+	/**
+	 * Se invoca al terminar de construir o ampliar el índice, para que las
+	 * subclases pasen a una representación compacta lo que se ha añadido.
+	 * Por defecto no hace nada.
+	 */
+	protected void compactar() {
+	}
+
+	/**
+	 * Se invoca tras añadir una línea al índice ya construido en modo
+	 * incremental, cuando no se va a llamar a compactar, para que las subclases
+	 * que guardan aparte las palabras nuevas las pasen a su representación
+	 * compacta si ya son demasiadas. Se invoca con cada línea, así que debe ser
+	 * barato cuando no hay nada que hacer. Por defecto no hace nada.
+	 */
+	protected void compactarTerminos() {
+	}
+
+	/**
+	 * Añade al índice las palabras de una línea.
+	 *
+	 * @param tk		Tokenizador preparado para recorrer la línea
+	 * @param numLinea	Número de línea (empezando en 1)
+	 */
+	protected abstract void indexarLinea(Tokenizador tk, int numLinea);
+
+	/**
+	 * Crea un índice vacío del mismo tipo, que se usará como índice parcial
+	 * en la construcción paralela.
+	 *
+	 * @return	Índice vacío del mismo tipo
+	 */
+	protected abstract IndiceAbstracto crearParcial();
+
+	/**
+	 * Añade a este índice el contenido de un índice parcial del mismo tipo,
+	 * construido sobre líneas posteriores a todas las ya indexadas.
+	 *
+	 * @param parcial	Índice parcial a fusionar
+	 */
+	protected void fusionar(IndiceAbstracto parcial) {
+		fusionar(parcial, 0);
 	}
 
+	/**
+	 * Añade a este índice el contenido de un índice parcial del mismo tipo,
+	 * sumando un desplazamiento a sus números de línea, que así deben quedar
+	 * detrás de todas las líneas ya indexadas.
+	 *
+	 * @param parcial			Índice parcial a fusionar
+	 * @param desplazamiento	Número a sumar a los números de línea del parcial
+	 */
+	protected abstract void fusionar(IndiceAbstracto parcial, int desplazamiento);
+
+	/**
+	 * Crea un índice nuevo del mismo tipo que reúne varios índices del mismo tipo,
+	 * construidos sobre rangos de líneas consecutivos y dados en ese orden. Las
+	 * palabras se recorren con una mezcla ordenada, y los índices dados no se
+	 * modifican, por lo que se pueden seguir consultando mientras tanto.
+	 *
+	 * @param partes	Índices a reunir, en orden de líneas
+	 * @return			Índice con el contenido de todas las partes
+	 */
+	protected abstract IndiceAbstracto mezclar(List<IndiceAbstracto> partes);
+
+	/**
+	 * Presenta, con el mismo formato que presentarIndice, el índice que reúne
+	 * varios índices del mismo tipo (como en mezclar), sin llegar a construirlo.
+	 *
+	 * @param pw		PrintWriter
+	 * @param partes	Índices a reunir, en orden de líneas
+	 */
+	protected abstract void presentarMezcla(PrintWriter pw, List<IndiceAbstracto> partes);
+
+	/**
+	 * Tarea que construye el índice parcial de un rango de líneas [desde, hasta),
+	 * dividiéndolo en dos mitades si es demasiado grande.
+	 */
+	private class TareaResolver extends RecursiveTask<IndiceAbstracto> {
+		private static final long serialVersionUID = 1L;
+		private final int desde;
+		private final int hasta;
+		private final String delim;
+		private final int minLineas;
+
+		TareaResolver(int desde, int hasta, String delim, int minLineas) {
+			this.desde = desde;
+			this.hasta = hasta;
+			this.delim = delim;
+			this.minLineas = minLineas;
+		}
+
+		@Override
+		protected IndiceAbstracto compute() {
+			if (hasta - desde <= minLineas) {
+				IndiceAbstracto parcial = crearParcial();
+				Tokenizador tk = nuevoTokenizador(delim);
+				AlmacenLineas.Vista vista = texto.vista();
+				for (int i = desde; i < hasta; ++i) {
+					indexar(parcial, tk, vista.situar(i), i + 1);
+				}
+				return parcial;
+			}
+			int medio = (desde + hasta) >>> 1;
+			TareaResolver izq = new TareaResolver(desde, medio, delim, minLineas);
+			TareaResolver der = new TareaResolver(medio, hasta, delim, minLineas);
+			izq.fork();
+			IndiceAbstracto resDer = der.compute();
+			IndiceAbstracto resIzq = izq.join();
+			resIzq.fusionar(resDer);
+			return resIzq;
+		}
+	}
+
+	/**
+	 * Medida de una construcción: al crearla empieza el evento de JDK Flight
+	 * Recorder y el tiempo, y al terminarla se registran y se emite el evento.
+	 */
+	private class Medida {
+		private final EventoConstruccion evento;
+		private final Metricas antes;
+		private final long inicio;
+
+		Medida() {
+			evento = new EventoConstruccion();
+			evento.begin();
+			RegistroMetricas r = registro;
+			antes = (r == null) ? null : r.instantanea();
+			inicio = System.nanoTime();
+		}
+
+		void terminar(String operacion) {
+			RegistroMetricas r = registro;
+			if (r != null) {
+				r.construccion(System.nanoTime() - inicio);
+				r.tamanio(numTerminos(), numApariciones());
+			}
+			if (evento.shouldCommit()) {
+				evento.tipo = IndiceAbstracto.this.getClass().getSimpleName();
+				evento.operacion = operacion;
+				evento.lineas = lineasIndexadas;
+				if (r != null && antes != null) {
+					Metricas despues = r.instantanea();
+					evento.palabras = despues.palabras() - antes.palabras();
+					evento.nanosTokenizar = despues.nanosTokenizar() - antes.nanosTokenizar();
+					evento.nanosNormalizar = despues.nanosNormalizar() - antes.nanosNormalizar();
+					evento.nanosInsertar = despues.nanosInsertar() - antes.nanosInsertar();
+				}
+				evento.terminos = numTerminos();
+				evento.apariciones = numApariciones();
+				evento.commit();
+			}
+		}
+	}
 }
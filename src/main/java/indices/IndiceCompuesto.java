@@ -0,0 +1,433 @@
+package indices;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * La clase IndiceCompuesto hereda de IndiceAbstracto y construye a la vez, en una
+ * única pasada por el texto, la información de los tres índices: el número de
+ * apariciones de cada palabra (IndiceContador), las líneas en que aparece
+ * (IndiceLineas) y sus posiciones en cada línea (IndicePosicionesEnLineas).
+ * El texto se guarda una sola vez, cada línea se divide en palabras una sola vez,
+ * y cada palabra recibe un único identificador en una TablaTerminos compartida,
+ * que indexa tres arrays paralelos: contadores, listas de líneas y listas de
+ * posiciones.
+ * Cada uno de los tres índices se obtiene como una vista (vistaContador,
+ * vistaLineas, vistaPosiciones), que presenta el índice con el mismo formato que
+ * la clase correspondiente. El propio índice compuesto se presenta y se guarda
+ * con el formato de IndicePosicionesEnLineas, que incluye toda la información.
+ */
+public class IndiceCompuesto extends IndiceAbstracto {
+	// Identificador de cada palabra, compartido por los tres arrays
+	private TablaTerminos terminos;
+	// Número de apariciones de cada palabra, por identificador
+	private int[] contadores;
+	// Líneas en que aparece cada palabra, por identificador
+	private ListaLineas[] lineas;
+	// Apariciones (línea, posición) de cada palabra, por identificador
+	private ListaPosiciones[] posiciones;
+	// Listas de líneas que no están compactas, es decir, creadas o modificadas
+	// desde la última vez que se compactó el índice
+	private final List<ListaLineas> modificadas;
+
+	/**
+	 * Constructor que inicializa el texto a una lista de líneas vacía y el
+	 * índice a una tabla de términos vacía.
+	 */
+	public IndiceCompuesto() {
+		super();
+		terminos = new TablaTerminos();
+		modificadas = new ArrayList<>();
+		limpiar();
+	}
+
+	/**
+	 * Vacía el índice antes de construirlo.
+	 */
+	@Override
+	protected void limpiar() {
+		terminos.limpiar();
+		contadores = new int[16];
+		lineas = new ListaLineas[16];
+		posiciones = new ListaPosiciones[16];
+		modificadas.clear();
+	}
+
+	/**
+	 * Pasa cada lista de líneas que ha cambiado desde la última vez a la
+	 * representación que menos ocupa.
+	 */
+	@Override
+	protected void compactar() {
+		for (ListaLineas lista : modificadas) {
+			lista.compactar();
+		}
+		modificadas.clear();
+	}
+
+	/**
+	 * Redefine el método que añade las palabras de una línea: por cada palabra,
+	 * se busca su identificador una sola vez y se actualizan su contador, su
+	 * lista de líneas y su lista de posiciones.
+	 */
+	@Override
+	protected void indexarLinea(Tokenizador tk, int numLinea) {
+		int numPos = 0;
+		while (tk.siguiente()) {
+			++numPos;
+			CharSequence palabra = tk.palabraMinusculas();
+			if (palabra.length() > 0) {
+				int id = idDe(palabra);
+				++contadores[id];
+				boolean compacta = lineas[id].compacta();
+				if (lineas[id].agregar(numLinea) && compacta) {
+					modificadas.add(lineas[id]);
+				}
+				posiciones[id].agregar(numLinea, numPos);
+			}
+		}
+	}
+
+	/**
+	 * Método auxiliar que devuelve el identificador de una palabra, añadiéndola
+	 * a la tabla de términos si no estaba, con su contador y sus listas vacías
+	 * (la de líneas, entre las modificadas).
+	 *
+	 * @param palabra	Palabra a buscar o añadir
+	 * @return			Identificador de la palabra
+	 */
+	private int idDe(CharSequence palabra) {
+		int id = terminos.agregar(palabra);
+		if (id == contadores.length) {
+			contadores = Arrays.copyOf(contadores, 2 * id);
+			lineas = Arrays.copyOf(lineas, 2 * id);
+			posiciones = Arrays.copyOf(posiciones, 2 * id);
+		}
+		if (lineas[id] == null) {
+			lineas[id] = new ListaLineas();
+			posiciones[id] = new ListaPosiciones();
+			modificadas.add(lineas[id]);
+		}
+		return id;
+	}
+
+	/**
+	 * Crea un IndiceCompuesto vacío como índice parcial.
+	 */
+	@Override
+	protected IndiceAbstracto crearParcial() {
+		return new IndiceCompuesto();
+	}
+
+	/**
+	 * Fusiona un índice parcial sumando los contadores y añadiendo las listas
+	 * de líneas y de posiciones de cada palabra tras las de este índice.
+	 */
+	@Override
+	protected void fusionar(IndiceAbstracto parcial, int desplazamiento) {
+		IndiceCompuesto otro = (IndiceCompuesto) parcial;
+		for (int i = 0; i < otro.terminos.tamanio(); ++i) {
+			int id = idDe(otro.terminos.termino(i));
+			contadores[id] += otro.contadores[i];
+			boolean compacta = lineas[id].compacta();
+			lineas[id].agregarTodas(otro.lineas[i], desplazamiento);
+			if (compacta && ! lineas[id].compacta()) {
+				modificadas.add(lineas[id]);
+			}
+			posiciones[id].agregarTodas(otro.posiciones[i], desplazamiento);
+		}
+	}
+
+	/**
+	 * Crea un IndiceCompuesto con las palabras de todas las partes, sumando los
+	 * contadores y uniendo las listas de las partes una detrás de otra.
+	 */
+	@Override
+	protected IndiceAbstracto mezclar(List<IndiceAbstracto> partes) {
+		IndiceCompuesto res = new IndiceCompuesto();
+		MezclaOrdenada<Entrada> m = mezcla(partes);
+		while (m.siguiente()) {
+			int id = res.idDe(m.palabra());
+			for (Entrada e : m.valores()) {
+				res.contadores[id] += e.contador;
+				res.lineas[id].agregarTodas(e.lineas);
+				res.posiciones[id].agregarTodas(e.posiciones);
+			}
+		}
+		res.compactar();
+		return res;
+	}
+
+	/**
+	 * Presenta la reunión de varias partes recorriendo sus palabras en orden,
+	 * con el formato de IndicePosicionesEnLineas.
+	 */
+	@Override
+	protected void presentarMezcla(PrintWriter pw, List<IndiceAbstracto> partes) {
+		EscritorIndice es = new EscritorIndice(pw);
+		MezclaOrdenada<Entrada> m = mezcla(partes);
+		while (m.siguiente()) {
+			List<Entrada> valores = m.valores();
+			ListaPosiciones lp = valores.get(0).posiciones;
+			if (valores.size() > 1) {
+				lp = new ListaPosiciones();
+				for (Entrada e : valores) {
+					lp.agregarTodas(e.posiciones);
+				}
+			}
+			es.texto(m.palabra()).separadorLinea();
+			IndicePosicionesEnLineas.presLnPos(es, lp);
+		}
+		es.flush();
+	}
+
+	/**
+	 * Método auxiliar que crea la mezcla ordenada de las palabras de varias partes.
+	 */
+	private static MezclaOrdenada<Entrada> mezcla(List<IndiceAbstracto> partes) {
+		List<Iterator<? extends Map.Entry<String, Entrada>>> fuentes = new ArrayList<>(partes.size());
+		for (IndiceAbstracto p : partes) {
+			fuentes.add(((IndiceCompuesto) p).entradas());
+		}
+		return new MezclaOrdenada<>(fuentes);
+	}
+
+	/**
+	 * Método auxiliar que devuelve un iterador sobre las palabras, en orden
+	 * lexicográfico, con su información.
+	 */
+	private Iterator<Map.Entry<String, Entrada>> entradas() {
+		int[] orden = terminos.ordenLexicografico();
+		return new Iterator<Map.Entry<String, Entrada>>() {
+			private int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < orden.length;
+			}
+
+			@Override
+			public Map.Entry<String, Entrada> next() {
+				if (i >= orden.length) {
+					throw new NoSuchElementException();
+				}
+				int id = orden[i++];
+				return new AbstractMap.SimpleImmutableEntry<>(terminos.termino(id),
+						new Entrada(contadores[id], lineas[id], posiciones[id]));
+			}
+		};
+	}
+
+	/**
+	 * Clase auxiliar con la información de una palabra en una parte.
+	 */
+	private static class Entrada {
+		final int contador;
+		final ListaLineas lineas;
+		final ListaPosiciones posiciones;
+
+		Entrada(int contador, ListaLineas lineas, ListaPosiciones posiciones) {
+			this.contador = contador;
+			this.lineas = lineas;
+			this.posiciones = posiciones;
+		}
+	}
+
+	/**
+	 * Devuelve el número de veces que aparece una palabra en el texto, en O(1).
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Número de apariciones (0 si la palabra no aparece)
+	 */
+	public int frecuencia(String palabra) {
+		int id = terminos.buscar(palabra.toLowerCase(Locale.ROOT));
+		return (id < 0) ? 0 : contadores[id];
+	}
+
+	/**
+	 * Devuelve las líneas en que aparece una palabra, en O(1). La lista devuelta
+	 * es la del propio índice (no se copia), por lo que no se debe modificar.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Lista de líneas (vacía si la palabra no aparece)
+	 */
+	public ListaLineas lineas(String palabra) {
+		int id = terminos.buscar(palabra.toLowerCase(Locale.ROOT));
+		return (id < 0) ? new ListaLineas() : lineas[id];
+	}
+
+	/**
+	 * Devuelve las apariciones (línea, posición) de una palabra, en O(1). La
+	 * lista devuelta es la del propio índice (no se copia), por lo que no se
+	 * debe modificar.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Lista de apariciones (vacía si la palabra no aparece)
+	 */
+	public ListaPosiciones posiciones(String palabra) {
+		int id = terminos.buscar(palabra.toLowerCase(Locale.ROOT));
+		return (id < 0) ? new ListaPosiciones() : posiciones[id];
+	}
+
+	/**
+	 * Devuelve las líneas que cumplen una consulta booleana con palabras y los
+	 * operadores AND, OR y NOT (véase ConsultaBooleana).
+	 * Si la consulta es una sola palabra, la lista devuelta es la del propio
+	 * índice (no se copia), por lo que no se debe modificar.
+	 *
+	 * @param consulta	Texto de la consulta
+	 * @return			Líneas que cumplen la consulta
+	 * @throws IllegalArgumentException si la consulta no está bien formada
+	 */
+	public ListaLineas consultar(String consulta) {
+		return ConsultaBooleana.analizar(consulta).evaluar(this::lineas, numLineasIndexadas());
+	}
+
+	/**
+	 * Devuelve el número de palabras distintas del índice.
+	 */
+	@Override
+	protected long numTerminos() {
+		return terminos.tamanio();
+	}
+
+	/**
+	 * Devuelve el número de apariciones de palabras, que es el de posiciones.
+	 */
+	@Override
+	protected long numApariciones() {
+		long n = 0;
+		for (int id = 0; id < terminos.tamanio(); ++id) {
+			n += contadores[id];
+		}
+		return n;
+	}
+
+	/**
+	 * Guarda el índice en un segmento de tipo POSICIONES, con el número de
+	 * apariciones y las apariciones codificadas de cada palabra.
+	 */
+	@Override
+	public void guardar(Path archivo) throws IOException {
+		try (EscritorSegmento es = new EscritorSegmento(archivo, IndiceSegmento.Tipo.POSICIONES)) {
+			for (int id : terminos.ordenLexicografico()) {
+				ListaPosiciones lista = posiciones[id];
+				es.agregar(terminos.termino(id), lista.tamanio(), lista.datos(), lista.numBytes());
+			}
+		}
+	}
+
+	/**
+	 * Presenta el índice con el formato de IndicePosicionesEnLineas.
+	 */
+	@Override
+	protected void presentar(PrintWriter pw) {
+		presentar(pw, Formato.POSICIONES);
+	}
+
+	/**
+	 * Método auxiliar que presenta el índice con el formato de una de las vistas.
+	 */
+	private void presentar(PrintWriter pw, Formato formato) {
+		EscritorIndice es = new EscritorIndice(pw);
+		for (int id : terminos.ordenLexicografico()) {
+			String palabra = terminos.termino(id);
+			switch (formato) {
+			case CONTADOR:
+				IndiceContador.presContador(es, palabra, contadores[id]);
+				break;
+			case LINEAS:
+				IndiceLineas.presLinea(es, palabra, lineas[id]);
+				break;
+			default:
+				es.texto(palabra).separadorLinea();
+				IndicePosicionesEnLineas.presLnPos(es, posiciones[id]);
+			}
+		}
+		es.flush();
+	}
+
+	/**
+	 * Devuelve una vista del índice que se presenta como un IndiceContador.
+	 * @return	Vista con el número de apariciones de cada palabra
+	 */
+	public Indice vistaContador() {
+		return new Vista(Formato.CONTADOR);
+	}
+
+	/**
+	 * Devuelve una vista del índice que se presenta como un IndiceLineas.
+	 * @return	Vista con las líneas de cada palabra
+	 */
+	public Indice vistaLineas() {
+		return new Vista(Formato.LINEAS);
+	}
+
+	/**
+	 * Devuelve una vista del índice que se presenta como un IndicePosicionesEnLineas.
+	 * @return	Vista con las posiciones de cada palabra en cada línea
+	 */
+	public Indice vistaPosiciones() {
+		return new Vista(Formato.POSICIONES);
+	}
+
+	/**
+	 * Formatos de presentación de las vistas.
+	 */
+	private enum Formato {
+		CONTADOR, LINEAS, POSICIONES
+	}
+
+	/**
+	 * Vista del índice compuesto con el formato de uno de los tres índices.
+	 * Las líneas que se agregan y la construcción se delegan en el índice
+	 * compuesto, por lo que todas las vistas comparten el texto y el índice.
+	 */
+	private class Vista implements Indice {
+		private final Formato formato;
+
+		Vista(Formato formato) {
+			this.formato = formato;
+		}
+
+		@Override
+		public void agregarFrase(String linea) {
+			IndiceCompuesto.this.agregarFrase(linea);
+		}
+
+		@Override
+		public void agregarArchivo(Path archivo, Charset cs) throws IOException {
+			IndiceCompuesto.this.agregarArchivo(archivo, cs);
+		}
+
+		@Override
+		public void resolver(String delim) {
+			IndiceCompuesto.this.resolver(delim);
+		}
+
+		@Override
+		public void resolverParalelo(String delim, int paralelismo) {
+			IndiceCompuesto.this.resolverParalelo(delim, paralelismo);
+		}
+
+		@Override
+		public void presentarIndice(PrintWriter pw) {
+			medirPresentacion(() -> presentar(pw, formato));
+		}
+
+		@Override
+		public Metricas getMetricas() {
+			return IndiceCompuesto.this.getMetricas();
+		}
+	}
+}
@@ -1,69 +1,497 @@
 package indices;
 
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.Scanner;
-import java.util.TreeMap;
 
 /**
- * La clase IndiceContador hereda de la clase abstracta IndiceAbstracto, 
- * y tendrá, además de la variable frases que hereda de 
- * IndiceAbstracto, una variable indice donde se almacenará el índice que 
- * se va a construir a partir del texto disponible en la variable de 
- * instancia frases y los delimitadores que se especifiquen. 
- * El índice a construir se guardará en una correspondencia en la que a 
- * cada palabra del texto se le asocia el número de apariciones de dicha 
- * palabra (véase la salida en el caso del ejemplo anterior). 
- * Las palabras se deben mantener ordenadas lexicográficamente.
+ * La clase IndiceContador hereda de la clase abstracta IndiceAbstracto,
+ * y tendrá, además de la variable frases que hereda de
+ * IndiceAbstracto, una tabla de términos y un array de contadores donde se
+ * almacenará el índice que
+ * se va a construir a partir del texto disponible en la variable de
+ * instancia frases y los delimitadores que se especifiquen.
+ * El índice a construir asocia a
+ * cada palabra del texto el número de apariciones de dicha
+ * palabra (véase la salida en el caso del ejemplo anterior).
+ * Para que contar cada palabra cueste O(1), las palabras se guardan en una
+ * tabla hash que les asigna un identificador, y el número de apariciones de
+ * cada palabra se guarda en un array de enteros indexado por ese identificador.
+ * Las palabras se ordenan lexicográficamente solo al presentar el índice.
+ * Las palabras más frecuentes se obtienen con un montículo acotado, sin ordenar
+ * todas las palabras, y se pueden mantener continuamente a medida que se cuentan.
+ * En modo aproximado no se guardan las palabras: el número de apariciones de cada
+ * palabra se estima con un CountMinSketch y el número de palabras distintas con un
+ * HyperLogLog, que ocupan una memoria fija sea cual sea el tamaño del texto.
  */
 public class IndiceContador extends IndiceAbstracto {
-	// Variable privada para almacenar la correspondencia entre palabras y enteros.
-	private SortedMap<String, Integer> indice;
+	// Variable privada para almacenar las palabras, cada una con su identificador.
+	private TablaTerminos terminos;
+	// Variable privada con el número de apariciones de cada palabra, por identificador.
+	private int[] contadores;
+	// Montículo con las palabras más frecuentes, si se mantienen continuamente (o null)
+	private MonticuloTopK topKContinuo;
+	// Estimadores del modo aproximado (null en modo exacto)
+	private CountMinSketch frecuencias;
+	private HyperLogLog distintas;
+	// Búsqueda por patrones en las palabras ordenadas (null hasta la primera),
+	// y orden lexicográfico de los identificadores con que se creó
+	private IndicePermuterm permuterm;
+	private int[] ordenPermuterm;
 
 	/**
-	 * Constructor que inicializa las variables correspondientes. 
-	 * Se invoca a super para inicializar el texto a una lista de líneas vacía, 
-	 * y se inicializa a una correspondencia vacía la variable que representa el índice.
+	 * Constructor que inicializa las variables correspondientes.
+	 * Se invoca a super para inicializar el texto a una lista de líneas vacía,
+	 * y se inicializa a vacío el índice.
 	 */
 	public IndiceContador() {
 		super();
-		indice = new TreeMap<>();
+		terminos = new TablaTerminos();
+		contadores = new int[16];
 	}
 
 	/**
-	 * Redefine el método que construye el índice, calculando el número de
-	 * apariciones de cada palabra significativa en el texto frases y completando 
+	 * Devuelve el número de palabras distintas (estimado en modo aproximado).
+	 */
+	@Override
+	protected long numTerminos() {
+		return numPalabrasDistintas();
+	}
+
+	/**
+	 * Devuelve la suma de los contadores de todas las palabras.
+	 */
+	@Override
+	protected long numApariciones() {
+		if (isAproximado()) {
+			return frecuencias.total();
+		}
+		long n = 0;
+		for (int id = 0; id < terminos.tamanio(); ++id) {
+			n += contadores[id];
+		}
+		return n;
+	}
+
+	/**
+	 * Vacía el índice antes de construirlo.
+	 */
+	@Override
+	protected void limpiar() {
+		if (isAproximado()) {
+			frecuencias = frecuencias.vacio();
+			distintas = distintas.vacio();
+		}
+		terminos.limpiar();
+		contadores = new int[16];
+		if (topKContinuo != null) {
+			topKContinuo = new MonticuloTopK(topKContinuo.k, true);
+		}
+	}
+
+	/**
+	 * Redefine el método que añade las palabras de una línea, contando las
+	 * apariciones de cada palabra significativa y completando
 	 * la estructura indice para mantener esta información.
 	 */
 	@Override
-	public void resolver(String delim) {
-		indice.clear();
-		for(String linea : frases) {
-			try (Scanner sc = new Scanner(linea)) {
-				sc.useDelimiter(delim);
-				while (sc.hasNext()) {
-					agregar(sc.next());
-				}
+	protected void indexarLinea(Tokenizador tk, int numLinea) {
+		while (tk.siguiente()) {
+			agregar(tk.palabraMinusculas());
+		}
+	}
+
+	/**
+	 * Crea un IndiceContador vacío para la construcción paralela, en el mismo modo
+	 * y, si es aproximado, con estimadores que se pueden fusionar con los de este
+	 * (cada parcial ocupa la memoria de un CountMinSketch, véase setAproximado).
+	 */
+	@Override
+	protected IndiceAbstracto crearParcial() {
+		IndiceContador parcial = new IndiceContador();
+		if (isAproximado()) {
+			parcial.frecuencias = frecuencias.vacio();
+			parcial.distintas = distintas.vacio();
+		}
+		return parcial;
+	}
+
+	/**
+	 * Fusiona un índice parcial sumando el número de apariciones de cada palabra
+	 * o, en modo aproximado, fusionando los estimadores.
+	 *
+	 * @throws IllegalArgumentException si los dos índices no están en el mismo
+	 * 			modo (exacto o aproximado)
+	 */
+	@Override
+	protected void fusionar(IndiceAbstracto parcial, int desplazamiento) {
+		IndiceContador otro = (IndiceContador) parcial;
+		if (otro.isAproximado() != isAproximado()) {
+			throw new IllegalArgumentException("No se puede fusionar un índice "
+					+ (otro.isAproximado() ? "aproximado" : "exacto") + " con uno "
+					+ (isAproximado() ? "aproximado" : "exacto"));
+		}
+		if (isAproximado()) {
+			frecuencias.fusionar(otro.frecuencias);
+			distintas.fusionar(otro.distintas);
+			return;
+		}
+		for (int i = 0; i < otro.terminos.tamanio(); ++i) {
+			int id = idDe(otro.terminos.termino(i));
+			contadores[id] += otro.contadores[i];
+		}
+		if (topKContinuo != null) {
+			topKContinuo = calcularTopK(topKContinuo.k, true);
+		}
+	}
+
+	/**
+	 * Crea un IndiceContador con las palabras de todas las partes, sumando
+	 * el número de apariciones de cada palabra en las partes.
+	 */
+	@Override
+	protected IndiceAbstracto mezclar(List<IndiceAbstracto> partes) {
+		IndiceContador res = (IndiceContador) crearParcial();
+		if (isAproximado()) {
+			for (IndiceAbstracto p : partes) {
+				res.fusionar(p);
 			}
+			return res;
+		}
+		MezclaOrdenada<Integer> m = mezcla(partes);
+		while (m.siguiente()) {
+			int id = res.idDe(m.palabra());
+			res.contadores[id] = suma(m.valores());
+		}
+		return res;
+	}
+
+	/**
+	 * Presenta la reunión de varias partes recorriendo sus palabras en orden.
+	 */
+	@Override
+	protected void presentarMezcla(PrintWriter pw, List<IndiceAbstracto> partes) {
+		comprobarExacto();
+		EscritorIndice es = new EscritorIndice(pw);
+		MezclaOrdenada<Integer> m = mezcla(partes);
+		while (m.siguiente()) {
+			presContador(es, m.palabra(), suma(m.valores()));
+		}
+		es.flush();
+	}
+
+	/**
+	 * Método auxiliar que crea la mezcla ordenada de las palabras de varias partes.
+	 */
+	private static MezclaOrdenada<Integer> mezcla(List<IndiceAbstracto> partes) {
+		List<Iterator<? extends Map.Entry<String, Integer>>> fuentes = new ArrayList<>(partes.size());
+		for (IndiceAbstracto p : partes) {
+			IndiceContador ic = (IndiceContador) p;
+			int[] orden = ic.terminos.ordenLexicografico();
+			fuentes.add(Arrays.stream(orden)
+					.mapToObj(id -> Map.entry(ic.terminos.termino(id), ic.contadores[id]))
+					.iterator());
 		}
+		return new MezclaOrdenada<>(fuentes);
+	}
+
+	/**
+	 * Método auxiliar que suma los números de apariciones de una palabra.
+	 */
+	private static int suma(List<Integer> valores) {
+		int s = 0;
+		for (int v : valores) {
+			s += v;
+		}
+		return s;
 	}
 
 	/**
 	 * Método privado auxiliar para añadir una palabra al índice.
 	 * @param palabra
 	 */
-	private void agregar(String palabra) {
-		if ( ! palabra.isEmpty() ) {
-			palabra = palabra.toLowerCase();
-			Integer cnt = indice.get(palabra);
-			if (cnt == null) {
-				indice.put(palabra, 1);
-			} else {
-				indice.put(palabra, cnt + 1);
+	private void agregar(CharSequence palabra) {
+		if (palabra.length() > 0) {
+			if (isAproximado()) {
+				frecuencias.agregar(palabra);
+				distintas.agregar(palabra);
+				return;
+			}
+			int id = idDe(palabra);
+			++contadores[id];
+			if (topKContinuo != null) {
+				topKContinuo.ofrecer(id);
+			}
+		}
+	}
+
+	/**
+	 * Método auxiliar que devuelve el identificador de una palabra, añadiéndola
+	 * a la tabla de términos si no estaba y asegurando que tiene contador.
+	 *
+	 * @param palabra	Palabra a buscar o añadir
+	 * @return			Identificador de la palabra
+	 */
+	private int idDe(CharSequence palabra) {
+		int id = terminos.agregar(palabra);
+		if (id == contadores.length) {
+			contadores = Arrays.copyOf(contadores, 2 * id);
+		}
+		return id;
+	}
+
+	/**
+	 * Devuelve el número de veces que aparece una palabra en el texto, en O(1).
+	 * En modo aproximado, es una estimación que nunca es menor que el número real.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Número de apariciones (0 si la palabra no aparece)
+	 */
+	public int frecuencia(String palabra) {
+		if (isAproximado()) {
+			return (int) Math.min(Integer.MAX_VALUE, frecuencias.estimar(palabra.toLowerCase(Locale.ROOT)));
+		}
+		int id = terminos.buscar(palabra.toLowerCase(Locale.ROOT));
+		return (id < 0) ? 0 : contadores[id];
+	}
+
+	/**
+	 * Devuelve las palabras que coinciden con un patrón con comodines '*', por
+	 * ejemplo "perr*" o "*rra", con su número de apariciones, de mayor a menor
+	 * número de apariciones. Los prefijos se buscan en su rango de las palabras
+	 * ordenadas, en un DiccionarioTerminos, y los demás patrones en un índice
+	 * permuterm (véase IndicePermuterm), con un coste proporcional al número de
+	 * palabras encontradas. Pero la primera búsqueda después de añadir palabras
+	 * nuevas al índice (por ejemplo, tras cada línea con alguna palabra nueva en
+	 * modo incremental) vuelve a ordenar todas las palabras y a crear el
+	 * diccionario, y la primera que no es de un prefijo, las rotaciones de todas
+	 * las palabras.
+	 *
+	 * @param patron	Patrón
+	 * @return			Palabras encontradas con su número de apariciones
+	 * @throws IllegalStateException si el índice está en modo aproximado
+	 */
+	public ListaFrecuencias frecuenciasPatron(String patron) {
+		int[] encontradas = permuterm().buscar(patron.toLowerCase(Locale.ROOT));
+		int[] orden = ordenPermuterm;
+		// Mayor número de apariciones primero y, a igualdad, orden lexicográfico
+		long[] claves = new long[encontradas.length];
+		for (int i = 0; i < encontradas.length; ++i) {
+			long veces = contadores[orden[encontradas[i]]];
+			claves[i] = (Integer.MAX_VALUE - veces) << 32 | encontradas[i];
+		}
+		Arrays.sort(claves);
+		String[] palabras = new String[claves.length];
+		int[] veces = new int[claves.length];
+		for (int i = 0; i < claves.length; ++i) {
+			int id = orden[(int) claves[i]];
+			palabras[i] = terminos.termino(id);
+			veces[i] = contadores[id];
+		}
+		return new ListaFrecuencias(palabras, veces);
+	}
+
+	/**
+	 * Devuelve las palabras a distancia de edición maxDistancia o menos de una
+	 * palabra dada (por ejemplo, "jarra" para "jara" con distancia 1), de menor
+	 * a mayor distancia y, a igual distancia, de mayor a menor número de
+	 * apariciones. Las palabras ordenadas se recorren con un autómata de
+	 * Levenshtein (véase AutomataLevenshtein) que salta los prefijos que no
+	 * pueden llevar a ninguna palabra a esa distancia, por lo que con
+	 * distancias 1 y 2 solo se visita una pequeña parte de las palabras.
+	 *
+	 * @param palabra		Palabra buscada
+	 * @param maxDistancia	Distancia de edición máxima (no negativa)
+	 * @return				Palabras encontradas con su distancia y su número de apariciones
+	 * @throws IllegalStateException si el índice está en modo aproximado
+	 */
+	public ListaSimilares similares(String palabra, int maxDistancia) {
+		AutomataLevenshtein a = new AutomataLevenshtein(palabra.toLowerCase(Locale.ROOT), maxDistancia);
+		DiccionarioTerminos dic = permuterm().diccionario();
+		int[] orden = ordenPermuterm;
+		ListaSimilares.Creador res = new ListaSimilares.Creador();
+		a.buscar(dic, (id, distancia) -> res.agregar(terminos.termino(orden[id]), distancia, contadores[orden[id]]));
+		return res.crear();
+	}
+
+	/**
+	 * Devuelve el número de palabras distintas del texto. En modo aproximado,
+	 * es una estimación.
+	 *
+	 * @return	Número de palabras distintas
+	 */
+	public long numPalabrasDistintas() {
+		return isAproximado() ? distintas.estimar() : terminos.tamanio();
+	}
+
+	/**
+	 * Activa o desactiva el modo aproximado, con las cotas de error por defecto:
+	 * frecuencias con un error de hasta una diezmilésima del número total de
+	 * palabras con probabilidad 0.999, y un 1% de error en el número de palabras
+	 * distintas. Al cambiar de modo se vacía el índice, que se reconstruirá
+	 * completo en la siguiente llamada a resolver.
+	 *
+	 * @param aproximado	true para activar el modo aproximado
+	 */
+	public void setAproximado(boolean aproximado) {
+		if (aproximado) {
+			setAproximado(1e-4, 1e-3, 0.01);
+		} else if (isAproximado()) {
+			frecuencias = null;
+			distintas = null;
+			limpiar();
+			invalidar();
+		}
+	}
+
+	/**
+	 * Activa el modo aproximado con las cotas de error dadas. En este modo no se
+	 * guardan las palabras, por lo que no se puede presentar ni guardar el índice,
+	 * ni obtener las palabras más frecuentes. Se vacía el índice, que se
+	 * reconstruirá completo en la siguiente llamada a resolver.
+	 * El CountMinSketch ocupa ceil(e / epsilon) * ceil(ln(1 / delta)) long: con
+	 * las cotas por defecto, 27183 * 7 long, unos 1,5 MB. Cada índice parcial
+	 * tiene el suyo, por lo que resolverParalelo llega a ocupar hasta
+	 * 4 * paralelismo veces esa memoria, e IndexadorArchivos, si la fábrica crea
+	 * índices aproximados, una vez por cada archivo en proceso; con cotas más
+	 * estrictas conviene limitar el paralelismo.
+	 *
+	 * @param epsilon			Error máximo de las frecuencias, relativo al número total de palabras
+	 * @param delta				Probabilidad de superar ese error
+	 * @param errorDistintas	Error relativo típico del número de palabras distintas
+	 */
+	public void setAproximado(double epsilon, double delta, double errorDistintas) {
+		frecuencias = new CountMinSketch(epsilon, delta);
+		distintas = new HyperLogLog(errorDistintas);
+		topKContinuo = null;
+		limpiar();
+		invalidar();
+	}
+
+	/**
+	 * Indica si el índice está en modo aproximado.
+	 * @return	true si el modo aproximado está activo
+	 */
+	public boolean isAproximado() {
+		return frecuencias != null;
+	}
+
+	/**
+	 * Devuelve las k palabras más frecuentes, de mayor a menor número de
+	 * apariciones (a igual número, en orden lexicográfico). Se recorren las
+	 * palabras manteniendo en un montículo las k mejores, en O(n log k); si se
+	 * mantienen continuamente al menos k palabras, no se recorre el índice.
+	 *
+	 * @param k	Número de palabras (no negativo)
+	 * @return	Lista con las k palabras más frecuentes (menos si no hay tantas)
+	 */
+	public ListaFrecuencias topK(int k) {
+		comprobarExacto();
+		if (k < 0) {
+			throw new IllegalArgumentException("Número de palabras no válido: " + k);
+		}
+		MonticuloTopK m;
+		if (topKContinuo != null && topKContinuo.k >= k) {
+			m = new MonticuloTopK(topKContinuo);
+		} else {
+			m = calcularTopK(k, false);
+		}
+		return m.extraer(k);
+	}
+
+	/**
+	 * Activa el mantenimiento continuo de las k palabras más frecuentes: cada
+	 * vez que se cuenta una palabra se actualiza un montículo con las k mejores,
+	 * en O(log k), de forma que topK (hasta k) es inmediato. Como los contadores
+	 * solo crecen, una palabra solo puede entrar en el montículo desplazando a la
+	 * peor, y el resultado es exacto. Con k igual a 0 se desactiva.
+	 *
+	 * @param k	Número de palabras a mantener (no negativo)
+	 */
+	public void setTopKContinuo(int k) {
+		comprobarExacto();
+		if (k < 0) {
+			throw new IllegalArgumentException("Número de palabras no válido: " + k);
+		}
+		topKContinuo = (k == 0) ? null : calcularTopK(k, true);
+	}
+
+	/**
+	 * Devuelve el número de palabras más frecuentes que se mantienen continuamente.
+	 * @return	Número de palabras (0 si no se mantienen)
+	 */
+	public int getTopKContinuo() {
+		return (topKContinuo == null) ? 0 : topKContinuo.k;
+	}
+
+	/**
+	 * Método auxiliar que devuelve la búsqueda por patrones sobre las palabras
+	 * ordenadas, creándola de nuevo si el índice ha cambiado desde la anterior.
+	 * ordenPermuterm queda con el identificador de cada palabra del diccionario.
+	 */
+	private IndicePermuterm permuterm() {
+		comprobarExacto();
+		int[] orden = terminos.ordenLexicografico();
+		if (ordenPermuterm != orden) {
+			DiccionarioTerminos.Creador creador = new DiccionarioTerminos.Creador();
+			for (int id : orden) {
+				creador.agregar(terminos.termino(id));
+			}
+			permuterm = new IndicePermuterm(creador.crear());
+			ordenPermuterm = orden;
+		}
+		return permuterm;
+	}
+
+	/**
+	 * Método auxiliar que comprueba que el índice guarda las palabras.
+	 */
+	private void comprobarExacto() {
+		if (isAproximado()) {
+			throw new IllegalStateException("En modo aproximado no se guardan las palabras");
+		}
+	}
+
+	/**
+	 * Método auxiliar que crea un montículo con las k palabras más frecuentes
+	 * recorriendo todas las palabras.
+	 */
+	private MonticuloTopK calcularTopK(int k, boolean seguir) {
+		MonticuloTopK m = new MonticuloTopK(k, seguir);
+		for (int id = 0; id < terminos.tamanio(); ++id) {
+			m.ofrecer(id);
+		}
+		return m;
+	}
+
+	/**
+	 * Método auxiliar que indica si la palabra a va detrás de la palabra b entre
+	 * las más frecuentes.
+	 */
+	private boolean peor(int a, int b) {
+		if (contadores[a] != contadores[b]) {
+			return contadores[a] < contadores[b];
+		}
+		return terminos.termino(a).compareTo(terminos.termino(b)) > 0;
+	}
+
+	/**
+	 * Guarda el índice en un segmento de tipo CONTADOR, con el número de
+	 * apariciones de cada palabra.
+	 */
+	@Override
+	public void guardar(Path archivo) throws IOException {
+		comprobarExacto();
+		try (EscritorSegmento es = new EscritorSegmento(archivo, IndiceSegmento.Tipo.CONTADOR)) {
+			for (int id : terminos.ordenLexicografico()) {
+				es.agregar(terminos.termino(id), contadores[id], null, 0);
 			}
-			//Integer cnt = indice.getOrDefault(palabra, 0);
-			//indice.put(palabra, cnt+1);
 		}
 	}
 
@@ -75,12 +503,145 @@ public class IndiceContador extends IndiceAbstracto {
 	 * Donde, para cada palabra, le sigue el número de veces que aparece en el texto.
 	 */
     @Override
-	public void presentarIndice(PrintWriter pw) {
-		// for(String palabra : indice.keySet()) {
-		//	  pw.printf("%-10s %4d\n", palabra, indice.get(palabra));
-		// }
-		for(Map.Entry<String,Integer> e : indice.entrySet()) {
-			pw.printf("%-10s %4d\n", e.getKey(), e.getValue());
+	protected void presentar(PrintWriter pw) {
+		comprobarExacto();
+		EscritorIndice es = new EscritorIndice(pw);
+		for(int id : terminos.ordenLexicografico()) {
+			presContador(es, terminos.termino(id), contadores[id]);
+		}
+		es.flush();
+	}
+
+	/**
+	 * Método auxiliar que presenta la fila de una palabra seguida de su número
+	 * de apariciones, con el formato "%-10s %4d\n".
+	 *
+	 * @param es		Escritor sobre el que se presenta
+	 * @param palabra	Palabra
+	 * @param n			Número de apariciones
+	 */
+	static void presContador(EscritorIndice es, String palabra, int n) {
+		es.palabra(palabra, 10).caracter(' ').entero(n, 4).salto();
+	}
+
+	/**
+	 * Montículo de identificadores de palabras, acotado a k, con la peor de
+	 * las palabras en la raíz. Si se sigue la posición de cada palabra en el
+	 * montículo, se puede recolocar una palabra cuyo contador ha aumentado.
+	 */
+	private class MonticuloTopK {
+		final int k;
+		private final int[] ids;
+		private int tamanio;
+		// Posición + 1 de cada palabra en el montículo, 0 si no está (o null si no se sigue)
+		private int[] posiciones;
+
+		MonticuloTopK(int k, boolean seguir) {
+			this.k = k;
+			ids = new int[k];
+			posiciones = seguir ? new int[contadores.length] : null;
+		}
+
+		/**
+		 * Copia un montículo, sin seguir las posiciones.
+		 */
+		MonticuloTopK(MonticuloTopK otro) {
+			k = otro.k;
+			ids = Arrays.copyOf(otro.ids, otro.k);
+			tamanio = otro.tamanio;
+		}
+
+		/**
+		 * Ofrece una palabra nueva, o una que ya se había ofrecido y cuyo
+		 * contador ha aumentado.
+		 */
+		void ofrecer(int id) {
+			int p = (posiciones != null && id < posiciones.length) ? posiciones[id] - 1 : -1;
+			if (p >= 0) {
+				hundir(p);
+			} else if (tamanio < k) {
+				colocar(tamanio, id);
+				flotar(tamanio++);
+			} else if (k > 0 && peor(ids[0], id)) {
+				if (posiciones != null) {
+					posiciones[ids[0]] = 0;
+				}
+				colocar(0, id);
+				hundir(0);
+			}
+		}
+
+		/**
+		 * Extrae las n mejores palabras (n no mayor que k), de mejor a peor.
+		 * El montículo queda vacío.
+		 */
+		ListaFrecuencias extraer(int n) {
+			while (tamanio > n) {
+				quitarRaiz();
+			}
+			String[] palabras = new String[tamanio];
+			int[] frecuencias = new int[tamanio];
+			for (int i = tamanio - 1; i >= 0; --i) {
+				palabras[i] = terminos.termino(ids[0]);
+				frecuencias[i] = contadores[ids[0]];
+				quitarRaiz();
+			}
+			return new ListaFrecuencias(palabras, frecuencias);
+		}
+
+		private void quitarRaiz() {
+			if (posiciones != null) {
+				posiciones[ids[0]] = 0;
+			}
+			--tamanio;
+			if (tamanio > 0) {
+				colocar(0, ids[tamanio]);
+				hundir(0);
+			}
+		}
+
+		private void flotar(int i) {
+			while (i > 0) {
+				int padre = (i - 1) >>> 1;
+				if ( ! peor(ids[i], ids[padre])) {
+					return;
+				}
+				intercambiar(i, padre);
+				i = padre;
+			}
+		}
+
+		private void hundir(int i) {
+			while (true) {
+				int hijo = 2 * i + 1;
+				if (hijo >= tamanio) {
+					return;
+				}
+				if (hijo + 1 < tamanio && peor(ids[hijo + 1], ids[hijo])) {
+					++hijo;
+				}
+				if ( ! peor(ids[hijo], ids[i])) {
+					return;
+				}
+				intercambiar(i, hijo);
+				i = hijo;
+			}
+		}
+
+		private void intercambiar(int i, int j) {
+			int id = ids[i];
+			colocar(i, ids[j]);
+			colocar(j, id);
+		}
+
+		private void colocar(int i, int id) {
+			ids[i] = id;
+			if (posiciones != null) {
+				if (id >= posiciones.length) {
+					posiciones = Arrays.copyOf(posiciones, Math.max(id + 1, 2 * posiciones.length));
+				}
+				posiciones[id] = i + 1;
+			}
 		}
 	}
 }
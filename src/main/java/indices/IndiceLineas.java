@@ -1,25 +1,31 @@
 package indices;
 
+import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.StringJoiner;
-import java.util.Scanner;
-import java.util.Collection;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
  * La clase IndiceLineas hereda de IndiceAbstracto. Incluye una variable indice
  * que almacena una correspondencia en la que a cada palabra del texto se le asocia 
  * un conjunto con los números de líneas en donde aparece. 
  * Las palabras estarán ordenadas lexicográficamente y los números de línea de menor a mayor.
+ * Los conjuntos de líneas se guardan de forma compacta en objetos ListaLineas.
+ * Al terminar de construir el índice, las palabras pasan a un DiccionarioTerminos
+ * y las listas a un array indexado por el identificador de cada palabra; al
+ * ampliarlo, solo cuando hay bastantes palabras nuevas (véase MapaTerminos).
  */
 public class IndiceLineas extends IndiceAbstracto {
 	// Variable privada para almacenar el índice, una correspondencia que asocia 
 	//a cada palabra un conjunto con las líneas en que aparece.
-	private SortedMap<String, SortedSet<Integer> > indice;
+	private MapaTerminos<ListaLineas> indice;
+	// Listas que no están compactas, es decir, creadas o modificadas desde la
+	// última vez que se compactó el índice
+	private final List<ListaLineas> modificadas;
 
 	/**
 	 * Constructor que inicializa las variables correspondientes. 
@@ -28,27 +34,164 @@ public class IndiceLineas extends IndiceAbstracto {
 	 */
 	public IndiceLineas() {
 		super();
-		indice = new TreeMap<>();
+		indice = new MapaTerminos<>();
+		modificadas = new ArrayList<>();
 	}
 
 	/**
-	 * Redefine el método que construye el índice, asociando a cada palabra
-	 * en el texto frases el conjunto con los números de línea en que aparece.
+	 * Devuelve el número de palabras distintas del índice.
 	 */
 	@Override
-	public void resolver(String delim) {
+	protected long numTerminos() {
+		return indice.size();
+	}
+
+	/**
+	 * Devuelve la suma de los tamaños de las listas de todas las palabras.
+	 */
+	@Override
+	protected long numApariciones() {
+		long n = 0;
+		for (Map.Entry<String, ListaLineas> e : indice) {
+			n += e.getValue().tamanio();
+		}
+		return n;
+	}
+
+	/**
+	 * Vacía el índice antes de construirlo.
+	 */
+	@Override
+	protected void limpiar() {
 		indice.clear();
-		int numLinea = 0;
-		for (String linea : frases) {
-			++numLinea;
-			try (Scanner sc = new Scanner(linea)) {
-				sc.useDelimiter(delim);
-				while (sc.hasNext()) {
-					agregar(sc.next(), numLinea);
+		modificadas.clear();
+	}
+
+	/**
+	 * Pasa las palabras añadidas al índice a un diccionario compacto, y cada
+	 * lista de líneas modificada desde la última vez a la representación que
+	 * menos ocupa.
+	 */
+	@Override
+	protected void compactar() {
+		indice.compactar();
+		for (ListaLineas lista : modificadas) {
+			lista.compactar();
+		}
+		modificadas.clear();
+	}
+
+	/**
+	 * Pasa las palabras añadidas al índice a un diccionario compacto si ya son
+	 * demasiadas (véase MapaTerminos).
+	 */
+	@Override
+	protected void compactarTerminos() {
+		indice.compactar();
+	}
+
+	/**
+	 * Redefine el método que añade las palabras de una línea, asociando a cada
+	 * palabra el número de línea en que aparece.
+	 */
+	@Override
+	protected void indexarLinea(Tokenizador tk, int numLinea) {
+		while (tk.siguiente()) {
+			agregar(tk.palabraMinusculas(), numLinea);
+		}
+	}
+
+	/**
+	 * Crea un IndiceLineas vacío para la construcción paralela.
+	 */
+	@Override
+	protected IndiceAbstracto crearParcial() {
+		return new IndiceLineas();
+	}
+
+	/**
+	 * Fusiona un índice parcial, añadiendo a cada palabra sus líneas en el parcial.
+	 */
+	@Override
+	protected void fusionar(IndiceAbstracto parcial, int desplazamiento) {
+		for(Map.Entry<String, ListaLineas> e : ((IndiceLineas) parcial).indice) {
+			ListaLineas lista = indice.get(e.getKey());
+			if (lista == null && desplazamiento == 0) {
+				lista = e.getValue();
+				indice.put(e.getKey(), lista);
+				if ( ! lista.compacta()) {
+					modificadas.add(lista);
+				}
+			} else if (lista == null) {
+				lista = new ListaLineas();
+				indice.put(e.getKey(), lista);
+				modificadas.add(lista);
+				lista.agregarTodas(e.getValue(), desplazamiento);
+			} else {
+				boolean compacta = lista.compacta();
+				lista.agregarTodas(e.getValue(), desplazamiento);
+				if (compacta && ! lista.compacta()) {
+					modificadas.add(lista);
 				}
 			}
 		}
 	}
+
+	/**
+	 * Crea un IndiceLineas con las palabras de todas las partes, en el que las
+	 * líneas de cada palabra son las de las partes una detrás de otra.
+	 */
+	@Override
+	protected IndiceAbstracto mezclar(List<IndiceAbstracto> partes) {
+		IndiceLineas res = new IndiceLineas();
+		MezclaOrdenada<ListaLineas> m = mezcla(partes);
+		while (m.siguiente()) {
+			ListaLineas lista = unir(m.valores());
+			res.indice.put(m.palabra(), lista);
+			res.modificadas.add(lista);
+		}
+		res.compactar();
+		return res;
+	}
+
+	/**
+	 * Presenta la reunión de varias partes recorriendo sus palabras en orden.
+	 */
+	@Override
+	protected void presentarMezcla(PrintWriter pw, List<IndiceAbstracto> partes) {
+		EscritorIndice es = new EscritorIndice(pw);
+		MezclaOrdenada<ListaLineas> m = mezcla(partes);
+		while (m.siguiente()) {
+			presLinea(es, m.palabra(), unir(m.valores()));
+		}
+		es.flush();
+	}
+
+	/**
+	 * Método auxiliar que crea la mezcla ordenada de las palabras de varias partes.
+	 */
+	private static MezclaOrdenada<ListaLineas> mezcla(List<IndiceAbstracto> partes) {
+		List<Iterator<? extends Map.Entry<String, ListaLineas>>> fuentes = new ArrayList<>(partes.size());
+		for (IndiceAbstracto p : partes) {
+			fuentes.add(((IndiceLineas) p).indice.iterator());
+		}
+		return new MezclaOrdenada<>(fuentes);
+	}
+
+	/**
+	 * Método auxiliar que une listas de líneas consecutivas sin modificarlas.
+	 * Si solo hay una, se devuelve ella misma.
+	 */
+	private static ListaLineas unir(List<ListaLineas> listas) {
+		if (listas.size() == 1) {
+			return listas.get(0);
+		}
+		ListaLineas lista = new ListaLineas();
+		for (ListaLineas l : listas) {
+			lista.agregarTodas(l);
+		}
+		return lista;
+	}
 	
 	/**
 	 * Método privado auxiliar para añadir en el índice el número 
@@ -58,15 +201,96 @@ public class IndiceLineas extends IndiceAbstracto {
 	 * @param palabra	Palabra a actualizar en el índice
 	 * @param numLinea	Número de línea a añadir
 	 */
-	private void agregar(String palabra, int numLinea) {
-		if ( ! palabra.isEmpty() ) {
-			palabra = palabra.toLowerCase();
-			SortedSet<Integer> set = indice.get(palabra);
-			if (set == null) {
-				set = new TreeSet<>();
-				indice.put(palabra, set);
+	private void agregar(CharSequence palabra, int numLinea) {
+		if (palabra.length() > 0) {
+			ListaLineas lista = indice.get(palabra);
+			if (lista == null) {
+				lista = new ListaLineas();
+				indice.put(palabra.toString(), lista);
+				modificadas.add(lista);
+			}
+			boolean compacta = lista.compacta();
+			if (lista.agregar(numLinea) && compacta) {
+				modificadas.add(lista);
+			}
+		}
+	}
+
+	/**
+	 * Devuelve las líneas en que aparece una palabra, en O(log n). La lista
+	 * devuelta es la del propio índice (no se copia), por lo que no se debe
+	 * modificar.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Lista de líneas (vacía si la palabra no aparece)
+	 */
+	public ListaLineas lineas(String palabra) {
+		ListaLineas lista = indice.get(palabra.toLowerCase(Locale.ROOT));
+		return (lista == null) ? new ListaLineas() : lista;
+	}
+
+	/**
+	 * Devuelve las palabras que coinciden con un patrón con comodines '*', por
+	 * ejemplo "perr*" o "*rra", con sus líneas. En las palabras ya compactadas,
+	 * los prefijos se buscan en su rango y los demás patrones en un índice
+	 * permuterm, con un coste proporcional al número de palabras encontradas;
+	 * las rotaciones de todas las palabras de ese índice se vuelven a crear la
+	 * primera vez que se busca después de compactar las palabras. Las palabras nuevas, aún sin compactar, se
+	 * recorren desde la primera que empieza por la parte del patrón anterior
+	 * al primer '*': si el patrón empieza por '*', se recorren todas (véase
+	 * MapaTerminos). Las listas son las del propio índice, por lo que no se
+	 * deben modificar.
+	 *
+	 * @param patron	Patrón
+	 * @return			Palabras encontradas, en orden lexicográfico, con sus líneas
+	 */
+	public Map<String, ListaLineas> lineasPatron(String patron) {
+		return indice.buscarPatron(patron.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Devuelve las palabras a distancia de edición maxDistancia o menos de una
+	 * palabra dada, de menor a mayor distancia y, a igual distancia, de mayor a
+	 * menor número de líneas en que aparecen (véase IndiceContador.similares).
+	 *
+	 * @param palabra		Palabra buscada
+	 * @param maxDistancia	Distancia de edición máxima (no negativa)
+	 * @return				Palabras encontradas con su distancia y su número de líneas
+	 */
+	public ListaSimilares similares(String palabra, int maxDistancia) {
+		AutomataLevenshtein a = new AutomataLevenshtein(palabra.toLowerCase(Locale.ROOT), maxDistancia);
+		ListaSimilares.Creador res = new ListaSimilares.Creador();
+		indice.buscarSimilares(a, (p, distancia, lista) -> res.agregar(p, distancia, lista.tamanio()));
+		return res.crear();
+	}
+
+	/**
+	 * Devuelve las líneas que cumplen una consulta booleana con palabras y los
+	 * operadores AND, OR y NOT (véase ConsultaBooleana), por ejemplo
+	 * "guerra AND perra AND NOT porra".
+	 * Si la consulta es una sola palabra, la lista devuelta es la del propio
+	 * índice (no se copia), por lo que no se debe modificar.
+	 *
+	 * @param consulta	Texto de la consulta
+	 * @return			Líneas que cumplen la consulta
+	 * @throws IllegalArgumentException si la consulta no está bien formada
+	 */
+	public ListaLineas consultar(String consulta) {
+		return ConsultaBooleana.analizar(consulta).evaluar(this);
+	}
+
+	/**
+	 * Guarda el índice en un segmento de tipo LINEAS, con el número de líneas
+	 * y las líneas codificadas de cada palabra.
+	 */
+	@Override
+	public void guardar(Path archivo) throws IOException {
+		try (EscritorSegmento es = new EscritorSegmento(archivo, IndiceSegmento.Tipo.LINEAS)) {
+			for (Map.Entry<String, ListaLineas> e : indice) {
+				ListaLineas lista = e.getValue();
+				byte[] datos = lista.codificar();
+				es.agregar(e.getKey(), lista.tamanio(), datos, datos.length);
 			}
-			set.add(numLinea);
 		}
 	}
 
@@ -78,24 +302,23 @@ public class IndiceLineas extends IndiceAbstracto {
 	 * separadas por comas y entre ángulos.
 	 */
 	@Override
-	public void presentarIndice(PrintWriter pw) {
-		for(Map.Entry<String, SortedSet<Integer>> e : indice.entrySet()) {
-			pw.printf("%-10s %s\n", e.getKey(), col2str(e.getValue()));
+	protected void presentar(PrintWriter pw) {
+		EscritorIndice es = new EscritorIndice(pw);
+		for(Map.Entry<String, ListaLineas> e : indice) {
+			presLinea(es, e.getKey(), e.getValue());
 		}
+		es.flush();
 	}
 
 	/** 
-	 * Método auxiliar que convierte una colección de enteros a un String, separando
-	 * por comas los enteros, y encerrándolos entre ángulos.
+	 * Método auxiliar que presenta la fila de una palabra, seguida de sus líneas
+	 * separadas por comas y entre ángulos, con el formato "%-10s %s\n".
 	 * 
-	 * @param c		Colección de enteros
-	 * @return		Cadena de enteros separadas por comas y entre ángulos
+	 * @param es		Escritor sobre el que se presenta
+	 * @param palabra	Palabra
+	 * @param c			Lista de líneas
 	 */
-	private String col2str(Collection<Integer> c) {
-		StringJoiner sj = new StringJoiner(",", "<", ">");
-		for (Integer i : c) {
-			sj.add(i.toString());
-		}
-		return sj.toString();
+	static void presLinea(EscritorIndice es, String palabra, ListaLineas c) {
+		es.palabra(palabra, 10).caracter(' ').enteros(c.iterator()).salto();
 	}
 }
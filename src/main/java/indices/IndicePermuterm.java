@@ -0,0 +1,184 @@
+package indices;
+
+import java.util.Arrays;
+
+/**
+ * Clase auxiliar que busca las palabras de un DiccionarioTerminos que
+ * coinciden con un patrón con comodines '*' (cualquier secuencia de caracteres,
+ * incluida la vacía), por ejemplo "perr*", "*rra", "*er*" o "p*a".
+ * Los patrones con un único '*' al final se resuelven recorriendo el rango de
+ * palabras del diccionario que empiezan por el prefijo. Los demás usan un
+ * índice permuterm, que se crea la primera vez que hace falta: un diccionario
+ * con todas las rotaciones de cada palabra seguida de una marca de fin FIN, y
+ * el identificador de la palabra de cada rotación. Un patrón X*Y se convierte
+ * en el prefijo Y FIN X de las rotaciones ("*rra" en "rra" FIN, "*er*" en
+ * "er"); si el patrón tiene más de un '*', se busca con su primera y su última
+ * parte y se comprueba el patrón completo en cada palabra encontrada.
+ * Así, cada búsqueda cuesta O(log n) más el número de rotaciones encontradas.
+ */
+class IndicePermuterm {
+	// Marca de fin de palabra, que no es un carácter válido en un texto
+	static final char FIN = '\uFFFF';
+
+	private final DiccionarioTerminos diccionario;
+	// Rotaciones de las palabras, creadas la primera vez que hacen falta
+	private DiccionarioTerminos rotaciones;
+	// Identificador en diccionario de la palabra de cada rotación
+	private int[] ids;
+
+	/**
+	 * Constructor que asocia el diccionario en que se busca.
+	 *
+	 * @param diccionario	Diccionario con las palabras
+	 */
+	IndicePermuterm(DiccionarioTerminos diccionario) {
+		this.diccionario = diccionario;
+	}
+
+	/**
+	 * Devuelve el diccionario en que se busca.
+	 */
+	DiccionarioTerminos diccionario() {
+		return diccionario;
+	}
+
+	/**
+	 * Busca las palabras que coinciden con un patrón.
+	 *
+	 * @param patron	Patrón, ya en minúsculas
+	 * @return			Identificadores en el diccionario de las palabras, de menor a
+	 * 					mayor (es decir, en orden lexicográfico)
+	 */
+	int[] buscar(String patron) {
+		int primero = patron.indexOf('*');
+		if (primero < 0) {
+			int id = diccionario.buscar(patron);
+			return (id < 0) ? new int[0] : new int[] { id };
+		}
+		int ultimo = patron.lastIndexOf('*');
+		String prefijo = patron.substring(0, primero);
+		if (primero == patron.length() - 1) {
+			return buscarPrefijo(diccionario, prefijo, null);
+		}
+		if (rotaciones == null) {
+			crearRotaciones();
+		}
+		String clave = patron.substring(ultimo + 1) + FIN + prefijo;
+		if (clave.length() == 1) {
+			// Patrón *X*...: rotaciones que empiezan por su parte más larga
+			for (String parte : patron.split("\\*")) {
+				if (parte.length() >= clave.length()) {
+					clave = parte;
+				}
+			}
+		}
+		int[] encontrados = buscarPrefijo(rotaciones, clave, (primero == ultimo) ? null : patron);
+		for (int i = 0; i < encontrados.length; ++i) {
+			encontrados[i] = ids[encontrados[i]];
+		}
+		// Una palabra puede tener varias rotaciones con el prefijo (en "*er*",
+		// una por cada aparición de "er")
+		Arrays.sort(encontrados);
+		int n = 0;
+		for (int i = 0; i < encontrados.length; ++i) {
+			if (n == 0 || encontrados[i] != encontrados[n - 1]) {
+				encontrados[n++] = encontrados[i];
+			}
+		}
+		return Arrays.copyOf(encontrados, n);
+	}
+
+	/**
+	 * Indica si una palabra coincide con un patrón con comodines '*'. Se avanza
+	 * a la vez en el patrón y en la palabra; al encontrar un '*' se recuerda su
+	 * posición, y si después no coinciden, se vuelve a él consumiendo un
+	 * carácter más de la palabra.
+	 *
+	 * @param patron	Patrón
+	 * @param palabra	Palabra
+	 * @return			true si la palabra coincide con el patrón
+	 */
+	static boolean coincide(String patron, CharSequence palabra) {
+		int p = 0;
+		int i = 0;
+		int estrella = -1;
+		int desde = 0;
+		while (i < palabra.length()) {
+			if (p < patron.length() && patron.charAt(p) == '*') {
+				estrella = p++;
+				desde = i;
+			} else if (p < patron.length() && patron.charAt(p) == palabra.charAt(i)) {
+				++p;
+				++i;
+			} else if (estrella >= 0) {
+				p = estrella + 1;
+				i = ++desde;
+			} else {
+				return false;
+			}
+		}
+		while (p < patron.length() && patron.charAt(p) == '*') {
+			++p;
+		}
+		return p == patron.length();
+	}
+
+	/**
+	 * Método auxiliar que devuelve los identificadores de las palabras de un
+	 * diccionario que empiezan por un prefijo y, si patron no es null, que
+	 * deshechas las rotaciones coinciden con él.
+	 */
+	private static int[] buscarPrefijo(DiccionarioTerminos dic, String prefijo, String patron) {
+		int[] res = new int[8];
+		int n = 0;
+		DiccionarioTerminos.Cursor c = dic.cursor(dic.limiteInferior(prefijo));
+		while (c.siguiente() && c.empiezaPor(prefijo)) {
+			if (patron != null && ! coincide(patron, palabraDeRotacion(c.termino()))) {
+				continue;
+			}
+			if (n == res.length) {
+				res = Arrays.copyOf(res, 2 * n);
+			}
+			res[n++] = c.id();
+		}
+		return Arrays.copyOf(res, n);
+	}
+
+	/**
+	 * Método auxiliar que deshace una rotación Y FIN X, devolviendo la palabra XY.
+	 */
+	private static String palabraDeRotacion(String rotacion) {
+		int fin = rotacion.indexOf(FIN);
+		return rotacion.substring(fin + 1) + rotacion.substring(0, fin);
+	}
+
+	/**
+	 * Método auxiliar que crea el diccionario con las rotaciones de todas las
+	 * palabras, ordenadas lexicográficamente.
+	 */
+	private void crearRotaciones() {
+		int total = 0;
+		DiccionarioTerminos.Cursor c = diccionario.cursor();
+		while (c.siguiente()) {
+			total += c.termino().length() + 1;
+		}
+		String[] r = new String[total];
+		int n = 0;
+		c = diccionario.cursor();
+		while (c.siguiente()) {
+			String conFin = c.termino() + FIN;
+			for (int i = 0; i < conFin.length(); ++i) {
+				r[n++] = conFin.substring(i) + conFin.substring(0, i);
+			}
+		}
+		Arrays.sort(r);
+		DiccionarioTerminos.Creador creador = new DiccionarioTerminos.Creador();
+		int[] idRotacion = new int[total];
+		for (int i = 0; i < total; ++i) {
+			creador.agregar(r[i]);
+			idRotacion[i] = diccionario.buscar(palabraDeRotacion(r[i]));
+		}
+		rotaciones = creador.crear();
+		ids = idRotacion;
+	}
+}
@@ -1,14 +1,13 @@
 package indices;
 
+import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.StringJoiner;
-import java.util.Scanner;
-import java.util.Collection;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
  * la clase IndicePosicionesEnLineas hereda de IndiceAbstracto.
@@ -17,15 +16,20 @@ import java.util.TreeSet;
  * conjunto con las posiciones de la palabra en cada número de línea. 
  * Las palabras estarán ordenadas lexicográficamente y las líneas y 
  * posiciones de menor a mayor.
+ * Para cada palabra, las parejas (línea, posición) se guardan de forma compacta
+ * en un objeto ListaPosiciones, y se agrupan por líneas al presentar el índice.
+ * Al terminar de construir el índice, las palabras pasan a un DiccionarioTerminos
+ * y las listas a un array indexado por el identificador de cada palabra; al
+ * ampliarlo, solo cuando hay bastantes palabras nuevas (véase MapaTerminos).
  */
 public class IndicePosicionesEnLineas extends IndiceAbstracto {
 	/*
 	 * Variable privada que representa el índice, donde a cada palabra
-	 * se le asocia una correspondencia entre líneas en que aparece la palabra
-	 * y un conjunto con las posiciones en las que aparece la palbra dentro 
-	 * de la línea. Todas las colecciones son ordenadas.
+	 * se le asocia la lista de líneas en que aparece la palabra
+	 * con las posiciones en las que aparece la palbra dentro 
+	 * de cada línea. Las listas están ordenadas por línea y posición.
 	*/ 
-	private SortedMap<String, SortedMap<Integer, SortedSet<Integer> > > indice;
+	private MapaTerminos<ListaPosiciones> indice;
 
 	/**
 	 * Constructor que inicializa las variables correspondientes. 
@@ -34,32 +38,151 @@ public class IndicePosicionesEnLineas extends IndiceAbstracto {
 	 */
 	public IndicePosicionesEnLineas() {
 		super();
-		indice = new TreeMap<>();
+		indice = new MapaTerminos<>();
 	}
 
 	/**
-	 * Redefine el método que construye el índice, asociando a cada palabra
-	 * en el texto frases una correspondencia que asocia a cada línea en 
-	 * que aparece la palabra, el conjunto con las posiciones en que dicha
-	 * palabra aparece en la línea.
+	 * Devuelve el número de palabras distintas del índice.
+	 */
+	@Override
+	protected long numTerminos() {
+		return indice.size();
+	}
+
+	/**
+	 * Devuelve la suma de los tamaños de las listas de todas las palabras.
+	 */
+	@Override
+	protected long numApariciones() {
+		long n = 0;
+		for (Map.Entry<String, ListaPosiciones> e : indice) {
+			n += e.getValue().tamanio();
+		}
+		return n;
+	}
+
+	/**
+	 * Vacía el índice antes de construirlo.
 	 */
 	@Override
-	public void resolver(String delim) {
+	protected void limpiar() {
 		indice.clear();
-		int numLinea = 0;
-		for (String linea : frases) {
-			++numLinea;
-			try (Scanner sc = new Scanner(linea)) {
-				sc.useDelimiter(delim);
-				int numPos = 0;
-				while (sc.hasNext()) {
-					++numPos;
-					agregar(sc.next(), numLinea, numPos);
+	}
+
+	/**
+	 * Pasa las palabras añadidas al índice a un diccionario compacto.
+	 */
+	@Override
+	protected void compactar() {
+		indice.compactar();
+	}
+
+	/**
+	 * Pasa las palabras añadidas al índice a un diccionario compacto si ya son
+	 * demasiadas (véase MapaTerminos).
+	 */
+	@Override
+	protected void compactarTerminos() {
+		indice.compactar();
+	}
+
+	/**
+	 * Redefine el método que añade las palabras de una línea, asociando a cada
+	 * palabra la línea en que aparece y las posiciones en que dicha
+	 * palabra aparece en la línea.
+	 */
+	@Override
+	protected void indexarLinea(Tokenizador tk, int numLinea) {
+		int numPos = 0;
+		while (tk.siguiente()) {
+			++numPos;
+			agregar(tk.palabraMinusculas(), numLinea, numPos);
+		}
+	}
+
+	/**
+	 * Crea un IndicePosicionesEnLineas vacío para la construcción paralela.
+	 */
+	@Override
+	protected IndiceAbstracto crearParcial() {
+		return new IndicePosicionesEnLineas();
+	}
+
+	/**
+	 * Fusiona un índice parcial, añadiendo a cada palabra sus líneas
+	 * (con sus posiciones) en el parcial.
+	 */
+	@Override
+	protected void fusionar(IndiceAbstracto parcial, int desplazamiento) {
+		for(Map.Entry<String, ListaPosiciones> e : ((IndicePosicionesEnLineas) parcial).indice) {
+			ListaPosiciones lista = indice.get(e.getKey());
+			if (lista == null && desplazamiento == 0) {
+				indice.put(e.getKey(), e.getValue());
+			} else {
+				if (lista == null) {
+					lista = new ListaPosiciones();
+					indice.put(e.getKey(), lista);
 				}
+				lista.agregarTodas(e.getValue(), desplazamiento);
 			}
 		}
 	}
 
+	/**
+	 * Crea un IndicePosicionesEnLineas con las palabras de todas las partes, en
+	 * el que las apariciones de cada palabra son las de las partes una detrás de otra.
+	 */
+	@Override
+	protected IndiceAbstracto mezclar(List<IndiceAbstracto> partes) {
+		IndicePosicionesEnLineas res = new IndicePosicionesEnLineas();
+		MezclaOrdenada<ListaPosiciones> m = mezcla(partes);
+		while (m.siguiente()) {
+			res.indice.put(m.palabra(), unir(m.valores()));
+		}
+		res.compactar();
+		return res;
+	}
+
+	/**
+	 * Presenta la reunión de varias partes recorriendo sus palabras en orden.
+	 */
+	@Override
+	protected void presentarMezcla(PrintWriter pw, List<IndiceAbstracto> partes) {
+		EscritorIndice es = new EscritorIndice(pw);
+		MezclaOrdenada<ListaPosiciones> m = mezcla(partes);
+		while (m.siguiente()) {
+			es.texto(m.palabra()).separadorLinea();
+			presLnPos(es, unir(m.valores()));
+		}
+		es.flush();
+	}
+
+	/**
+	 * Método auxiliar que crea la mezcla ordenada de las palabras de varias partes.
+	 */
+	private static MezclaOrdenada<ListaPosiciones> mezcla(List<IndiceAbstracto> partes) {
+		List<Iterator<? extends Map.Entry<String, ListaPosiciones>>> fuentes = new ArrayList<>(partes.size());
+		for (IndiceAbstracto p : partes) {
+			fuentes.add(((IndicePosicionesEnLineas) p).indice.iterator());
+		}
+		return new MezclaOrdenada<>(fuentes);
+	}
+
+	/**
+	 * Método auxiliar que une listas de apariciones consecutivas sin modificarlas.
+	 * Si solo hay una, se devuelve ella misma.
+	 */
+	private static ListaPosiciones unir(List<ListaPosiciones> listas) {
+		if (listas.size() == 1) {
+			return listas.get(0);
+		}
+		ListaPosiciones lista = new ListaPosiciones();
+		for (ListaPosiciones l : listas) {
+			lista.agregarTodas(l);
+		}
+		return lista;
+	}
+
 	/**
 	 * Método auxiliar para añadir al índice la posición (tercer argumento) 
 	 * en la que una palabra (primer argumento) aparece en determinada 
@@ -69,20 +192,108 @@ public class IndicePosicionesEnLineas extends IndiceAbstracto {
 	 * @param numLinea	Línea en la que aparece la palabra
 	 * @param numPos	Posición de la palabra dentro de la línea
 	 */
-	private void agregar(String palabra, int numLinea, int numPos) {
-		if ( ! palabra.isEmpty() ) {
-			palabra = palabra.toLowerCase();
-			SortedMap<Integer, SortedSet<Integer>> map = indice.get(palabra);
-			if (map == null) {
-				map = new TreeMap<>();
-				indice.put(palabra, map);
+	private void agregar(CharSequence palabra, int numLinea, int numPos) {
+		if (palabra.length() > 0) {
+			ListaPosiciones lista = indice.get(palabra);
+			if (lista == null) {
+				lista = new ListaPosiciones();
+				indice.put(palabra.toString(), lista);
 			}
-			SortedSet<Integer> set = map.get(numLinea);
-			if (set == null) {
-				set = new TreeSet<>();
-				map.put(numLinea, set);
+			lista.agregar(numLinea, numPos);
+		}
+	}
+
+	/**
+	 * Devuelve las apariciones (línea, posición) de una palabra, en O(log n).
+	 * La lista devuelta es la del propio índice (no se copia), por lo que no se
+	 * debe modificar.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Lista de apariciones (vacía si la palabra no aparece)
+	 */
+	public ListaPosiciones posiciones(String palabra) {
+		ListaPosiciones lista = indice.get(palabra.toLowerCase(Locale.ROOT));
+		return (lista == null) ? new ListaPosiciones() : lista;
+	}
+
+	/**
+	 * Devuelve las palabras que coinciden con un patrón con comodines '*', por
+	 * ejemplo "perr*" o "*rra", con sus apariciones (véase
+	 * IndiceLineas.lineasPatron). Las listas son las del propio índice, por lo
+	 * que no se deben modificar.
+	 *
+	 * @param patron	Patrón
+	 * @return			Palabras encontradas, en orden lexicográfico, con sus apariciones
+	 */
+	public Map<String, ListaPosiciones> posicionesPatron(String patron) {
+		return indice.buscarPatron(patron.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Busca una frase exacta, es decir, las apariciones de las palabras dadas
+	 * en posiciones consecutivas de una misma línea. Se recorren las apariciones
+	 * de la palabra menos frecuente y, para cada una, se comprueba que las demás
+	 * palabras están en la posición correspondiente; como las comprobaciones se
+	 * hacen en orden, cada lista de apariciones se recorre una sola vez.
+	 *
+	 * @param palabras	Palabras de la frase, en orden
+	 * @return			Línea y posición de la primera palabra de cada aparición de la frase
+	 */
+	public ListaPosiciones buscarFrase(String... palabras) {
+		ListaPosiciones resultado = new ListaPosiciones();
+		int n = palabras.length;
+		if (n == 0) {
+			return resultado;
+		}
+		ListaPosiciones.Cursor[] cursores = new ListaPosiciones.Cursor[n];
+		int menor = 0;
+		ListaPosiciones listaMenor = null;
+		for (int i = 0; i < n; ++i) {
+			ListaPosiciones lista = indice.get(palabras[i].toLowerCase(Locale.ROOT));
+			if (lista == null) {
+				return resultado;
+			}
+			if (listaMenor == null || lista.tamanio() < listaMenor.tamanio()) {
+				listaMenor = lista;
+				menor = i;
+			}
+			cursores[i] = lista.cursor();
+		}
+		ListaPosiciones.Cursor guia = cursores[menor];
+		while (guia.siguiente()) {
+			int linea = guia.linea();
+			int inicio = guia.posicion() - menor;
+			if (inicio < 0) {
+				continue;
+			}
+			boolean encontrada = true;
+			for (int i = 0; i < n && encontrada; ++i) {
+				if (i != menor) {
+					ListaPosiciones.Cursor c = cursores[i];
+					if ( ! c.avanzarHasta(linea, inicio + i)) {
+						return resultado;
+					}
+					encontrada = c.linea() == linea && c.posicion() == inicio + i;
+				}
+			}
+			if (encontrada) {
+				resultado.agregar(linea, inicio);
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * Guarda el índice en un segmento de tipo POSICIONES, con el número de
+	 * apariciones y las apariciones codificadas de cada palabra.
+	 */
+	@Override
+	public void guardar(Path archivo) throws IOException {
+		try (EscritorSegmento es = new EscritorSegmento(archivo, IndiceSegmento.Tipo.POSICIONES)) {
+			for (Map.Entry<String, ListaPosiciones> e : indice) {
+				ListaPosiciones lista = e.getValue();
+				es.agregar(e.getKey(), lista.tamanio(), lista.datos(), lista.numBytes());
 			}
-			set.add(numPos);
 		}
 	}
 
@@ -98,38 +309,43 @@ public class IndicePosicionesEnLineas extends IndiceAbstracto {
 	 * (separadas por comas y entre ángulos).
 	 */
     @Override
-	public void presentarIndice(PrintWriter pw) {
-		for(Map.Entry<String, SortedMap<Integer, SortedSet<Integer>>> e : indice.entrySet()) {
-			pw.println(e.getKey());
-			presLnPos(pw, e.getValue());
+	protected void presentar(PrintWriter pw) {
+		EscritorIndice es = new EscritorIndice(pw);
+		for(Map.Entry<String, ListaPosiciones> e : indice) {
+			es.texto(e.getKey()).separadorLinea();
+			presLnPos(es, e.getValue());
 		}
+		es.flush();
 	}
 	
     /**
-     * Método auxiliar para presentar una fila en la que se indica la línea en que
-     * aparece una palabra seguida del conjunto de posiciones que ocupa en esa línea.
+     * Método auxiliar para presentar, para cada línea en que
+     * aparece una palabra, una fila con la línea seguida del conjunto de posiciones
+     * que ocupa en esa línea, separadas por comas y entre ángulos, con el
+     * formato "%10s %4d %s\n".
      * 
-     * @param pw	PrintWriter
-     * @param mp	Correspondencia que asocia conjunto de posiciones a líneas.
+     * @param es	Escritor sobre el que se presenta
+     * @param lp	Lista de posiciones de la palabra, ordenada por líneas.
      */
-	private void presLnPos(PrintWriter pw, SortedMap<Integer, SortedSet<Integer>> mp) {
-		for(Map.Entry<Integer, SortedSet<Integer>> e : mp.entrySet()) {
-			pw.printf("%10s %4d %s\n", "", e.getKey(), col2str(e.getValue()));
+	static void presLnPos(EscritorIndice es, ListaPosiciones lp) {
+		ListaPosiciones.Cursor c = lp.cursor();
+		boolean abierta = false;
+		int linea = 0;
+		while (c.siguiente()) {
+			if ( ! abierta || c.linea() != linea) {
+				if (abierta) {
+					es.caracter('>').salto();
+				}
+				linea = c.linea();
+				es.espacios(10).caracter(' ').entero(linea, 4).caracter(' ').caracter('<');
+				abierta = true;
+			} else {
+				es.caracter(',');
+			}
+			es.entero(c.posicion());
 		}
-	}
-	
-	/** 
-	 * Método auxiliar que convierte una colección de enteros a un String, separando
-	 * por comas los enteros, y encerrándolos entre ángulos.
-	 * 
-	 * @param c		Colección de enteros
-	 * @return		Cadena de enteros separadas por comas y entre ángulos
-	 */
-	private String col2str(Collection<Integer> c) {
-		StringJoiner sj = new StringJoiner(",", "<", ">");
-		for (Integer i : c) {
-			sj.add(i.toString());
+		if (abierta) {
+			es.caracter('>').salto();
 		}
-		return sj.toString();
 	}
 }
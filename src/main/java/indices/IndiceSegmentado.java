@@ -0,0 +1,255 @@
+package indices;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * La clase IndiceSegmentado implementa un índice para textos que crecen de forma
+ * continua. Las líneas se indexan por lotes: cada lote de líneas nuevas forma un
+ * segmento, un índice pequeño que ya no se modifica, con la numeración de líneas
+ * global. Así, agregar líneas nunca obliga a reconstruir el índice de las líneas
+ * anteriores.
+ * Para que el número de segmentos no crezca sin límite, un hilo en segundo plano
+ * fusiona los segmentos cuando hay FACTOR_FUSION segmentos seguidos del
+ * mismo nivel, mediante una mezcla ordenada de sus palabras; el segmento resultante
+ * es del nivel siguiente. Mientras tanto, el índice se puede seguir consultando y
+ * ampliando. Al presentar el índice se mezclan las palabras de todos los segmentos.
+ * Los segmentos son índices del tipo que crea la fábrica que se pasa al constructor.
+ */
+public class IndiceSegmentado implements Indice, AutoCloseable {
+	// Número de líneas por defecto de cada segmento nuevo
+	private static final int LINEAS_SEGMENTO = 1024;
+	// Número de segmentos del mismo nivel que se fusionan en uno
+	private static final int FACTOR_FUSION = 4;
+
+	private final Supplier<? extends IndiceAbstracto> fabrica;
+	private final int lineasPorSegmento;
+	// Texto de todas las líneas, para poder reconstruir con otros delimitadores
+	private final AlmacenLineas frases;
+	// Tokenizador con los delimitadores del índice construido (null si no se ha construido)
+	private Tokenizador tokenizador;
+	// Número de líneas de frases que ya están en algún segmento
+	private int lineasIndexadas;
+	// Segmentos en orden de líneas. La lista no se modifica: se sustituye por otra
+	private volatile List<Segmento> segmentos;
+	// Se incrementa al reconstruir el índice, para descartar las fusiones en curso
+	private int generacion;
+	// Hilo que fusiona los segmentos en segundo plano
+	private final ExecutorService fusionador;
+
+	/**
+	 * Constructor que crea un índice segmentado vacío, con segmentos nuevos de
+	 * LINEAS_SEGMENTO líneas.
+	 *
+	 * @param fabrica	Fábrica de índices vacíos del tipo de los segmentos
+	 */
+	public IndiceSegmentado(Supplier<? extends IndiceAbstracto> fabrica) {
+		this(fabrica, LINEAS_SEGMENTO);
+	}
+
+	/**
+	 * Constructor que crea un índice segmentado vacío.
+	 *
+	 * @param fabrica			Fábrica de índices vacíos del tipo de los segmentos
+	 * @param lineasPorSegmento	Número de líneas a partir del cual las líneas
+	 * 							agregadas forman un segmento nuevo
+	 */
+	public IndiceSegmentado(Supplier<? extends IndiceAbstracto> fabrica, int lineasPorSegmento) {
+		if (lineasPorSegmento < 1) {
+			throw new IllegalArgumentException("Número de líneas no válido: " + lineasPorSegmento);
+		}
+		this.fabrica = fabrica;
+		this.lineasPorSegmento = lineasPorSegmento;
+		frases = new AlmacenLineas();
+		segmentos = Collections.emptyList();
+		fusionador = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "fusion-segmentos");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Añade una línea al texto. Si el índice ya se ha construido y hay
+	 * lineasPorSegmento líneas sin indexar, se crea con ellas un segmento nuevo.
+	 */
+	@Override
+	public void agregarFrase(String linea) {
+		frases.agregar(linea);
+		if (tokenizador != null && frases.size() - lineasIndexadas >= lineasPorSegmento) {
+			sellar(tokenizador, frases.size());
+		}
+	}
+
+	/**
+	 * Construye el índice. Si los delimitadores son los del índice ya construido,
+	 * solo se crea un segmento con las líneas que aún no estén en ninguno; si no,
+	 * se descartan todos los segmentos y se crean de nuevo.
+	 */
+	@Override
+	public void resolver(String delim) {
+		if (tokenizador == null || ! tokenizador.getDelimitadores().equals(delim)) {
+			Tokenizador tk = new Tokenizador(delim);
+			synchronized (this) {
+				++generacion;
+				segmentos = Collections.emptyList();
+			}
+			lineasIndexadas = 0;
+			for (int hasta = lineasPorSegmento; hasta < frases.size(); hasta += lineasPorSegmento) {
+				sellar(tk, hasta);
+			}
+			tokenizador = tk;
+		}
+		if (lineasIndexadas < frases.size()) {
+			sellar(tokenizador, frases.size());
+		}
+	}
+
+	/**
+	 * Presenta el índice mezclando las palabras de los segmentos actuales.
+	 * Las líneas agregadas que aún no están en ningún segmento no se presentan.
+	 */
+	@Override
+	public void presentarIndice(PrintWriter pw) {
+		List<Segmento> actuales = segmentos;
+		if (actuales.isEmpty()) {
+			return;
+		}
+		List<IndiceAbstracto> partes = new ArrayList<>(actuales.size());
+		for (Segmento s : actuales) {
+			partes.add(s.indice);
+		}
+		partes.get(0).presentarMezcla(pw, partes);
+	}
+
+	/**
+	 * Devuelve el número de segmentos actuales.
+	 * @return	Número de segmentos
+	 */
+	public int numSegmentos() {
+		return segmentos.size();
+	}
+
+	/**
+	 * Espera a que terminen las fusiones pendientes en segundo plano.
+	 *
+	 * @throws InterruptedException si se interrumpe la espera
+	 */
+	public void esperarFusiones() throws InterruptedException {
+		try {
+			fusionador.submit(() -> { }).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Detiene el hilo de fusión. Las fusiones pendientes se completan, pero
+	 * no se harán más.
+	 */
+	@Override
+	public void close() {
+		fusionador.shutdown();
+	}
+
+	/**
+	 * Método auxiliar que crea un segmento con las líneas de frases desde
+	 * lineasIndexadas hasta la línea hasta (excluida), y programa su fusión.
+	 */
+	private void sellar(Tokenizador tk, int hasta) {
+		IndiceAbstracto indice = fabrica.get();
+		AlmacenLineas.Vista vista = frases.vista();
+		for (int i = lineasIndexadas; i < hasta; ++i) {
+			tk.reiniciar(vista.situar(i));
+			indice.indexarLinea(tk, i + 1);
+		}
+		indice.compactar();
+		Segmento nuevo = new Segmento(indice, 0);
+		synchronized (this) {
+			List<Segmento> lista = new ArrayList<>(segmentos);
+			lista.add(nuevo);
+			segmentos = Collections.unmodifiableList(lista);
+		}
+		lineasIndexadas = hasta;
+		if ( ! fusionador.isShutdown()) {
+			fusionador.execute(this::fusionarPendientes);
+		}
+	}
+
+	/**
+	 * Método auxiliar, que se ejecuta en el hilo de fusión, que fusiona grupos de
+	 * FACTOR_FUSION segmentos seguidos del mismo nivel mientras los haya. Los segmentos se
+	 * mezclan fuera de la sección crítica; después se sustituyen por el resultado,
+	 * salvo que entretanto se haya reconstruido el índice. Los segmentos son
+	 * índices en memoria, sin archivos abiertos, así que los sustituidos no se
+	 * cierran: se liberan cuando ninguna presentación en curso los usa.
+	 */
+	private void fusionarPendientes() {
+		while (true) {
+			List<Segmento> grupo;
+			int gen;
+			synchronized (this) {
+				grupo = buscarGrupo(segmentos);
+				if (grupo == null) {
+					return;
+				}
+				gen = generacion;
+			}
+			List<IndiceAbstracto> partes = new ArrayList<>(FACTOR_FUSION);
+			for (Segmento s : grupo) {
+				partes.add(s.indice);
+			}
+			Segmento fusionado = new Segmento(partes.get(0).mezclar(partes), grupo.get(0).nivel + 1);
+			synchronized (this) {
+				if (gen != generacion) {
+					return;
+				}
+				// Entretanto solo se han podido agregar segmentos al final
+				List<Segmento> actuales = segmentos;
+				int inicio = actuales.indexOf(grupo.get(0));
+				List<Segmento> lista = new ArrayList<>(actuales.size() - FACTOR_FUSION + 1);
+				lista.addAll(actuales.subList(0, inicio));
+				lista.add(fusionado);
+				lista.addAll(actuales.subList(inicio + FACTOR_FUSION, actuales.size()));
+				segmentos = Collections.unmodifiableList(lista);
+			}
+		}
+	}
+
+	/**
+	 * Método auxiliar que busca los primeros FACTOR_FUSION segmentos seguidos
+	 * del mismo nivel, o devuelve null si no los hay.
+	 */
+	private static List<Segmento> buscarGrupo(List<Segmento> lista) {
+		int inicio = 0;
+		for (int i = 1; i <= lista.size(); ++i) {
+			if (i - inicio == FACTOR_FUSION) {
+				return lista.subList(inicio, i);
+			}
+			if (i < lista.size() && lista.get(i).nivel != lista.get(inicio).nivel) {
+				inicio = i;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Clase auxiliar con un segmento: un índice que ya no se modifica y su nivel
+	 * (0 para los segmentos nuevos, y uno más que el de sus partes para los fusionados).
+	 */
+	private static class Segmento {
+		final IndiceAbstracto indice;
+		final int nivel;
+
+		Segmento(IndiceAbstracto indice, int nivel) {
+			this.indice = indice;
+			this.nivel = nivel;
+		}
+	}
+}
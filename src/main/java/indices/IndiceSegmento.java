@@ -0,0 +1,387 @@
+package indices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * La clase IndiceSegmento representa un índice de solo lectura guardado en un
+ * archivo de segmento binario (véase guardar en IndiceAbstracto). El archivo se
+ * proyecta en memoria y no se carga en el heap: las palabras se buscan por
+ * búsqueda binaria sobre el diccionario ordenado del archivo, y las apariciones
+ * se decodifican directamente del archivo al consultarlas o presentarlas.
+ * Abrir un segmento no depende del tamaño del índice, por lo que es inmediato.
+ * No se pueden agregar frases ni resolver el índice. El segmento se debe cerrar
+ * cuando ya no se use, y después no se puede consultar ni presentar.
+ */
+public class IndiceSegmento implements Indice, Closeable {
+	/**
+	 * Tipo de índice guardado en un segmento.
+	 */
+	public enum Tipo {
+		CONTADOR, LINEAS, POSICIONES
+	}
+
+	private final ArchivoProyectado datos;
+	private final Tipo tipo;
+	private final int numPalabras;
+	private final long posTablaPalabras;
+	private final long posTablaApariciones;
+	private final long posValores;
+
+	private IndiceSegmento(ArchivoProyectado datos) throws IOException {
+		this.datos = datos;
+		if (datos.tamanio() < EscritorSegmento.TAM_CABECERA || datos.getInt(0) != EscritorSegmento.MAGICO) {
+			throw new IOException("No es un archivo de segmento de índice");
+		}
+		int t = datos.getInt(4);
+		if (t < 0 || t >= Tipo.values().length) {
+			throw new IOException("Tipo de índice desconocido: " + t);
+		}
+		tipo = Tipo.values()[t];
+		numPalabras = datos.getInt(8);
+		posTablaPalabras = datos.getLong(20);
+		posTablaApariciones = datos.getLong(36);
+		posValores = datos.getLong(44);
+	}
+
+	/**
+	 * Abre un archivo de segmento en modo de solo lectura.
+	 *
+	 * @param archivo	Archivo de segmento
+	 * @return			Índice de solo lectura
+	 * @throws IOException si el archivo no se puede leer o no es un segmento
+	 */
+	public static IndiceSegmento abrir(Path archivo) throws IOException {
+		ArchivoProyectado datos = ArchivoProyectado.abrir(archivo);
+		try {
+			return new IndiceSegmento(datos);
+		} catch (IOException e) {
+			datos.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Cierra el segmento y suelta la proyección del archivo.
+	 */
+	@Override
+	public void close() {
+		datos.close();
+	}
+
+	/**
+	 * Devuelve el tipo de índice guardado en el segmento.
+	 * @return	Tipo de índice
+	 */
+	public Tipo getTipo() {
+		return tipo;
+	}
+
+	/**
+	 * Devuelve el número de palabras del índice.
+	 * @return	Número de palabras
+	 */
+	public int numPalabras() {
+		return numPalabras;
+	}
+
+	/**
+	 * Devuelve la palabra i-ésima en orden lexicográfico.
+	 *
+	 * @param i	Número de orden de la palabra (empezando en 0)
+	 * @return	Palabra
+	 */
+	public String palabra(int i) {
+		comprobarAbierto();
+		if (i < 0 || i >= numPalabras) {
+			throw new IndexOutOfBoundsException("Palabra no válida: " + i);
+		}
+		long ini = datos.getLong(posTablaPalabras + 8L * i);
+		int lon = (int) (datos.getLong(posTablaPalabras + 8L * (i + 1)) - ini);
+		byte[] b = new byte[lon];
+		datos.get(ini, b, 0, lon);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Busca una palabra en el diccionario, en O(log n). La palabra se codifica
+	 * en UTF-8 una vez, y en cada paso se compara con los bytes del archivo,
+	 * sin decodificar las palabras del diccionario.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Número de orden de la palabra, o -1 si no está
+	 */
+	public int buscar(String palabra) {
+		comprobarAbierto();
+		byte[] clave = palabra.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+		int izq = 0;
+		int der = numPalabras - 1;
+		while (izq <= der) {
+			int medio = (izq + der) >>> 1;
+			int cmp = comparar(medio, clave);
+			if (cmp < 0) {
+				izq = medio + 1;
+			} else if (cmp > 0) {
+				der = medio - 1;
+			} else {
+				return medio;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Devuelve el número de veces que aparece una palabra en el texto: para un
+	 * índice de líneas, el número de líneas en que aparece.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Número de apariciones (0 si la palabra no aparece)
+	 */
+	public int frecuencia(String palabra) {
+		int i = buscar(palabra);
+		return (i < 0) ? 0 : valor(i);
+	}
+
+	/**
+	 * Devuelve un iterador sobre las líneas (sin repetir, de menor a mayor) en que
+	 * aparece una palabra, decodificándolas del archivo a medida que se recorren.
+	 *
+	 * @param palabra	Palabra a buscar
+	 * @return			Iterador sobre las líneas
+	 * @throws UnsupportedOperationException si el índice es de tipo CONTADOR
+	 */
+	public PrimitiveIterator.OfInt lineas(String palabra) {
+		if (tipo == Tipo.CONTADOR) {
+			throw new UnsupportedOperationException("El índice no guarda líneas");
+		}
+		int i = buscar(palabra);
+		Decodificador d = (i < 0) ? new Decodificador(0, 0) : decodificador(i);
+		return new PrimitiveIterator.OfInt() {
+			private int linea = 0;
+			private int posicion = 0;
+			private boolean primera = true;
+			private boolean pendiente = false;
+
+			@Override
+			public boolean hasNext() {
+				if ( ! pendiente) {
+					pendiente = avanzar();
+				}
+				return pendiente;
+			}
+
+			@Override
+			public int nextInt() {
+				if ( ! hasNext()) {
+					throw new NoSuchElementException();
+				}
+				pendiente = false;
+				return linea;
+			}
+
+			private boolean avanzar() {
+				while (d.hayMas()) {
+					int dl = d.leer();
+					if (tipo == Tipo.LINEAS) {
+						linea += dl;
+						return true;
+					}
+					int dp = d.leer();
+					posicion = (dl == 0) ? posicion + dp : dp;
+					if (dl != 0 || primera) {
+						primera = false;
+						linea += dl;
+						return true;
+					}
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Método para presentar el índice con el mismo formato que el índice
+	 * a partir del cual se guardó el segmento.
+	 */
+	@Override
+	public void presentarIndice(PrintWriter pw) {
+		comprobarAbierto();
+		EscritorIndice es = new EscritorIndice(pw);
+		for (int i = 0; i < numPalabras; ++i) {
+			String palabra = palabra(i);
+			switch (tipo) {
+			case CONTADOR:
+				es.palabra(palabra, 10).caracter(' ').entero(valor(i), 4).salto();
+				break;
+			case LINEAS:
+				es.palabra(palabra, 10).caracter(' ');
+				presLineas(es, decodificador(i));
+				es.salto();
+				break;
+			case POSICIONES:
+				es.texto(palabra).separadorLinea();
+				presLnPos(es, decodificador(i));
+				break;
+			}
+		}
+		es.flush();
+	}
+
+	/**
+	 * Un segmento es de solo lectura.
+	 * @throws UnsupportedOperationException siempre
+	 */
+	@Override
+	public void agregarFrase(String linea) {
+		throw new UnsupportedOperationException("Índice de solo lectura");
+	}
+
+	/**
+	 * Un segmento es de solo lectura.
+	 * @throws UnsupportedOperationException siempre
+	 */
+	@Override
+	public void resolver(String delim) {
+		throw new UnsupportedOperationException("Índice de solo lectura");
+	}
+
+	/**
+	 * Método auxiliar que comprueba que el segmento no se ha cerrado.
+	 */
+	private void comprobarAbierto() {
+		if ( ! datos.abierto()) {
+			throw new IllegalStateException("Segmento cerrado");
+		}
+	}
+
+	/**
+	 * Método auxiliar que compara la palabra i-ésima con una clave en UTF-8,
+	 * con el mismo orden que String.compareTo. Los bytes UTF-8 de dos palabras
+	 * ordenan igual que sus caracteres UTF-16, salvo que los caracteres a partir
+	 * de U+10000 (primer byte F0-F4) van en UTF-16 antes que los de U+E000 a
+	 * U+FFFF (primer byte EE-EF); por eso se cambia el peso de esos bytes.
+	 */
+	private int comparar(int i, byte[] clave) {
+		long ini = datos.getLong(posTablaPalabras + 8L * i);
+		int lon = (int) (datos.getLong(posTablaPalabras + 8L * (i + 1)) - ini);
+		int n = Math.min(lon, clave.length);
+		for (int k = 0; k < n; ++k) {
+			int a = datos.get(ini + k) & 0xFF;
+			int b = clave[k] & 0xFF;
+			if (a != b) {
+				return peso(a) - peso(b);
+			}
+		}
+		return lon - clave.length;
+	}
+
+	/**
+	 * Método auxiliar que devuelve el peso de un byte UTF-8 en el orden de UTF-16.
+	 */
+	private static int peso(int b) {
+		if (b >= 0xF0) {
+			return b - 2;
+		} else if (b >= 0xEE) {
+			return b + 7;
+		}
+		return b;
+	}
+
+	/**
+	 * Método auxiliar que devuelve el valor entero de la palabra i-ésima.
+	 */
+	private int valor(int i) {
+		return datos.getInt(posValores + 4L * i);
+	}
+
+	/**
+	 * Método auxiliar que devuelve un decodificador de las apariciones de la palabra i-ésima.
+	 */
+	private Decodificador decodificador(int i) {
+		return new Decodificador(datos.getLong(posTablaApariciones + 8L * i),
+				datos.getLong(posTablaApariciones + 8L * (i + 1)));
+	}
+
+	/**
+	 * Método auxiliar que presenta las líneas codificadas, separadas por comas
+	 * y entre ángulos.
+	 */
+	private void presLineas(EscritorIndice es, Decodificador d) {
+		es.caracter('<');
+		int linea = 0;
+		boolean primera = true;
+		while (d.hayMas()) {
+			if ( ! primera) {
+				es.caracter(',');
+			}
+			primera = false;
+			linea += d.leer();
+			es.entero(linea);
+		}
+		es.caracter('>');
+	}
+
+	/**
+	 * Método auxiliar para presentar, para cada línea en que aparece una palabra,
+	 * una fila con la línea seguida de las posiciones que ocupa en esa línea.
+	 */
+	private void presLnPos(EscritorIndice es, Decodificador d) {
+		boolean abierta = false;
+		int linea = 0;
+		int posicion = 0;
+		while (d.hayMas()) {
+			int dl = d.leer();
+			int dp = d.leer();
+			posicion = (dl == 0) ? posicion + dp : dp;
+			if ( ! abierta || dl != 0) {
+				if (abierta) {
+					es.caracter('>').salto();
+				}
+				linea += dl;
+				es.espacios(10).caracter(' ').entero(linea, 4).caracter(' ').caracter('<');
+				abierta = true;
+			} else {
+				es.caracter(',');
+			}
+			es.entero(posicion);
+		}
+		if (abierta) {
+			es.caracter('>').salto();
+		}
+	}
+
+	/**
+	 * Clase auxiliar que lee enteros con codificación variable de un rango del archivo.
+	 */
+	private class Decodificador {
+		private long p;
+		private final long fin;
+
+		Decodificador(long inicio, long fin) {
+			this.p = inicio;
+			this.fin = fin;
+		}
+
+		boolean hayMas() {
+			return p < fin;
+		}
+
+		int leer() {
+			int v = 0;
+			int desp = 0;
+			byte b;
+			do {
+				b = datos.get(p++);
+				v |= (b & 0x7F) << desp;
+				desp += 7;
+			} while (b < 0);
+			return v;
+		}
+	}
+}
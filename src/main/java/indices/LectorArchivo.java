@@ -0,0 +1,169 @@
+package indices;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Clase auxiliar que lee un archivo de texto línea a línea proyectándolo en
+ * memoria (MappedByteBuffer) por ventanas, y decodificándolo sobre un único
+ * buffer de caracteres reutilizable. Cada línea se entrega como una vista
+ * sobre dicho buffer, siempre el mismo objeto, sin crear nada por línea.
+ * Las líneas terminan en "\n", "\r" o "\r\n", como en BufferedReader, y,
+ * también como en BufferedReader, los bytes que no son válidos en la
+ * codificación producen una MalformedInputException (o
+ * UnmappableCharacterException) en lugar de sustituirse.
+ */
+class LectorArchivo {
+	// Tamaño máximo de cada ventana del archivo proyectada en memoria
+	private static final int TAM_VENTANA = 1 << 26;
+	// Tamaño inicial del buffer de caracteres
+	private static final int TAM_BUFFER = 1 << 16;
+
+	private final Consumer<CharSequence> receptor;
+	private CharBuffer cb;
+	// Vista que se sitúa en cada línea del buffer
+	private final Linea linea = new Linea();
+	// Indica si el último carácter procesado fue un '\r'
+	private boolean saltarLF;
+
+	private LectorArchivo(Consumer<CharSequence> receptor) {
+		this.receptor = receptor;
+		cb = CharBuffer.allocate(TAM_BUFFER);
+	}
+
+	/**
+	 * Lee el archivo y entrega cada una de sus líneas al receptor. La línea
+	 * entregada solo es válida durante la llamada al receptor.
+	 *
+	 * @param archivo	Archivo a leer
+	 * @param cs		Codificación del archivo
+	 * @param receptor	Receptor de cada línea
+	 * @throws IOException si se produce un error de lectura
+	 */
+	static void leer(Path archivo, Charset cs, Consumer<CharSequence> receptor) throws IOException {
+		new LectorArchivo(receptor).leer(archivo, cs);
+	}
+
+	private void leer(Path archivo, Charset cs) throws IOException {
+		CharsetDecoder dec = cs.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		try (FileChannel fc = FileChannel.open(archivo, StandardOpenOption.READ)) {
+			long tam = fc.size();
+			long pos = 0;
+			boolean fin = false;
+			while ( ! fin) {
+				long tamVentana = Math.min(TAM_VENTANA, tam - pos);
+				fin = pos + tamVentana >= tam;
+				MappedByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, pos, tamVentana);
+				CoderResult cr;
+				do {
+					cr = dec.decode(bb, cb, fin);
+					if (cr.isError()) {
+						cr.throwException();
+					}
+					procesar();
+				} while (cr.isOverflow());
+				// Los bytes de un carácter incompleto al final de la ventana
+				// se vuelven a leer en la siguiente
+				pos += bb.position();
+			}
+			CoderResult cr;
+			while ((cr = dec.flush(cb)).isOverflow()) {
+				procesar();
+			}
+			if (cr.isError()) {
+				cr.throwException();
+			}
+			procesar();
+		}
+		cb.flip();
+		if (cb.hasRemaining()) {
+			receptor.accept(linea.situar(0, cb.limit()));
+		}
+	}
+
+	/**
+	 * Método auxiliar que entrega las líneas completas del buffer y deja
+	 * al principio del buffer la línea incompleta, si la hay.
+	 */
+	private void procesar() {
+		cb.flip();
+		int lim = cb.limit();
+		int ini = 0;
+		for (int i = 0; i < lim; ++i) {
+			char c = cb.get(i);
+			if (saltarLF) {
+				saltarLF = false;
+				if (c == '\n') {
+					ini = i + 1;
+					continue;
+				}
+			}
+			if (c == '\n' || c == '\r') {
+				receptor.accept(linea.situar(ini, i));
+				ini = i + 1;
+				saltarLF = (c == '\r');
+			}
+		}
+		cb.position(ini);
+		cb.compact();
+		if ( ! cb.hasRemaining()) {
+			// La línea no cabe en el buffer
+			CharBuffer nuevo = CharBuffer.allocate(2 * cb.capacity());
+			cb.flip();
+			nuevo.put(cb);
+			cb = nuevo;
+		}
+	}
+
+	/**
+	 * Vista de una línea del buffer de caracteres, que se sitúa en cada línea
+	 * antes de entregarla. Solo es válida mientras no cambia el buffer.
+	 */
+	private class Linea implements CharSequence {
+		private int inicio;
+		private int longitud;
+
+		Linea situar(int ini, int fin) {
+			inicio = ini;
+			longitud = fin - ini;
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return longitud;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= longitud) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			return cb.array()[inicio + index];
+		}
+
+		@Override
+		public String subSequence(int start, int end) {
+			if (start < 0 || end > longitud || start > end) {
+				throw new IndexOutOfBoundsException("[" + start + ", " + end + ")");
+			}
+			return new String(cb.array(), inicio + start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			return subSequence(0, longitud);
+		}
+	}
+}
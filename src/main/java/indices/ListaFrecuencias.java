@@ -0,0 +1,46 @@
+package indices;
+
+/**
+ * La clase ListaFrecuencias guarda una lista de palabras con su número de
+ * apariciones, ordenada de mayor a menor número de apariciones y, a igual
+ * número, lexicográficamente. Las palabras y los números de apariciones se
+ * guardan en dos arrays paralelos, sin crear un objeto por cada entrada.
+ */
+public class ListaFrecuencias {
+	private final String[] palabras;
+	private final int[] frecuencias;
+
+	/**
+	 * Constructor que crea la lista a partir de dos arrays ya ordenados.
+	 */
+	ListaFrecuencias(String[] palabras, int[] frecuencias) {
+		this.palabras = palabras;
+		this.frecuencias = frecuencias;
+	}
+
+	/**
+	 * Devuelve el número de palabras de la lista.
+	 * @return	Número de palabras
+	 */
+	public int tamanio() {
+		return palabras.length;
+	}
+
+	/**
+	 * Devuelve la palabra i-ésima de la lista.
+	 * @param i	Número de orden (empezando en 0)
+	 * @return	Palabra
+	 */
+	public String palabra(int i) {
+		return palabras[i];
+	}
+
+	/**
+	 * Devuelve el número de apariciones de la palabra i-ésima de la lista.
+	 * @param i	Número de orden (empezando en 0)
+	 * @return	Número de apariciones
+	 */
+	public int frecuencia(int i) {
+		return frecuencias[i];
+	}
+}
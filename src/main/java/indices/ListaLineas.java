@@ -0,0 +1,430 @@
+package indices;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * La clase ListaLineas almacena un conjunto de números de línea ordenados de
+ * menor a mayor de forma compacta, al estilo de los Roaring bitmaps: las líneas
+ * se reparten en bloques según sus 16 bits altos, y cada bloque (Contenedor)
+ * guarda los 16 bits bajos con la representación que menos ocupa: un array
+ * ordenado para las palabras poco frecuentes, un mapa de bits para las que
+ * aparecen en casi todas las líneas ("la", "de") o rachas para los rangos de
+ * líneas consecutivas. Así, una palabra que aparece en todas las líneas ocupa
+ * un bit por línea, en lugar de un Integer y un nodo de un TreeSet.
+ * Las intersecciones, uniones y diferencias se hacen bloque a bloque; sobre los
+ * mapas de bits, 64 líneas en cada operación con long.
+ */
+public class ListaLineas implements Iterable<Integer> {
+	// 16 bits altos de las líneas de cada bloque, de menor a mayor
+	private char[] claves;
+	// Bloques, en el mismo orden que claves
+	private Contenedor[] bloques;
+	// Número de bloques
+	private int numBloques;
+	// Número de líneas en la lista
+	private int tamanio;
+	// Última línea añadida
+	private int ultima;
+	// Indica si no ha cambiado desde la última vez que se compactó
+	private boolean compacta;
+
+	/**
+	 * Constructor que crea una lista de líneas vacía.
+	 */
+	public ListaLineas() {
+		claves = new char[1];
+		bloques = new Contenedor[1];
+	}
+
+	/**
+	 * Crea una lista con todas las líneas desde..hasta (ambas incluidas),
+	 * guardadas como rachas.
+	 *
+	 * @param desde	Primera línea (no negativa)
+	 * @param hasta	Última línea
+	 * @return		Lista de líneas (vacía si hasta es menor que desde)
+	 */
+	static ListaLineas rango(int desde, int hasta) {
+		ListaLineas l = new ListaLineas();
+		for (int alto = desde >>> 16; desde <= hasta && alto <= hasta >>> 16; ++alto) {
+			int ini = (alto == desde >>> 16) ? desde & 0xFFFF : 0;
+			int fin = (alto == hasta >>> 16) ? hasta & 0xFFFF : 0xFFFF;
+			l.agregarBloque(alto, Contenedor.rango(ini, fin));
+		}
+		return l;
+	}
+
+	/**
+	 * Añade un número de línea, que debe ser mayor o igual que el último añadido.
+	 * Si es igual que el último, no se añade.
+	 *
+	 * @param linea	Número de línea (no negativo)
+	 * @return		true si se ha añadido, false si ya estaba
+	 * @throws IllegalArgumentException si la línea es menor que la última añadida
+	 */
+	public boolean agregar(int linea) {
+		if (tamanio > 0 && linea <= ultima) {
+			if (linea == ultima) {
+				return false;
+			}
+			throw new IllegalArgumentException("Línea fuera de orden: " + linea);
+		} else if (linea < 0) {
+			throw new IllegalArgumentException("Línea no válida: " + linea);
+		}
+		compacta = false;
+		int alto = linea >>> 16;
+		if (numBloques > 0 && claves[numBloques - 1] == alto) {
+			bloques[numBloques - 1] = bloques[numBloques - 1].agregar(linea & 0xFFFF);
+			ultima = linea;
+			++tamanio;
+			return true;
+		}
+		if (numBloques > 0) {
+			// El bloque anterior ya no cambia: se elige su representación
+			bloques[numBloques - 1] = bloques[numBloques - 1].optimizar();
+		}
+		agregarBloque(alto, new Contenedor.Arreglo().agregar(linea & 0xFFFF));
+		return true;
+	}
+
+	/**
+	 * Añade al final todas las líneas de otra lista, cuya primera línea debe ser
+	 * mayor que la última de esta lista.
+	 *
+	 * @param otra	Lista de líneas a añadir
+	 * @throws IllegalArgumentException si las líneas no quedan en orden
+	 */
+	public void agregarTodas(ListaLineas otra) {
+		agregarTodas(otra, 0);
+	}
+
+	/**
+	 * Añade al final todas las líneas de otra lista, sumándoles un desplazamiento;
+	 * la primera línea desplazada debe ser mayor que la última de esta lista.
+	 * Si el desplazamiento es múltiplo de 65536, los bloques se copian enteros
+	 * cambiando solo su clave; si no, se añaden las líneas una a una.
+	 *
+	 * @param otra			Lista de líneas a añadir
+	 * @param desplazamiento	Número a sumar a cada línea de la otra lista
+	 * @throws IllegalArgumentException si las líneas no quedan en orden
+	 */
+	public void agregarTodas(ListaLineas otra, int desplazamiento) {
+		if (otra.tamanio == 0) {
+			return;
+		}
+		int primera = (otra.claves[0] << 16 | otra.bloques[0].siguiente(0, new int[1])) + desplazamiento;
+		if ((tamanio > 0 && primera <= ultima) || primera < 0) {
+			throw new IllegalArgumentException("Línea fuera de orden: " + primera);
+		}
+		if ((desplazamiento & 0xFFFF) != 0 || (numBloques > 0 && claves[numBloques - 1] == primera >>> 16)) {
+			for (PrimitiveIterator.OfInt it = otra.iterator(); it.hasNext(); ) {
+				agregar(it.nextInt() + desplazamiento);
+			}
+			return;
+		}
+		if (numBloques > 0) {
+			bloques[numBloques - 1] = bloques[numBloques - 1].optimizar();
+		}
+		for (int i = 0; i < otra.numBloques; ++i) {
+			agregarBloque(otra.claves[i] + (desplazamiento >>> 16), otra.bloques[i].copia());
+		}
+	}
+
+	/**
+	 * Devuelve la intersección con otra lista, sin modificar ninguna de las dos.
+	 *
+	 * @param otra	Lista de líneas
+	 * @return		Líneas que están en las dos listas
+	 */
+	public ListaLineas interseccion(ListaLineas otra) {
+		ListaLineas res = new ListaLineas();
+		int i = 0;
+		int j = 0;
+		while (i < numBloques && j < otra.numBloques) {
+			if (claves[i] < otra.claves[j]) {
+				++i;
+			} else if (claves[i] > otra.claves[j]) {
+				++j;
+			} else {
+				res.agregarBloque(claves[i], Contenedor.interseccion(bloques[i], otra.bloques[j]));
+				++i;
+				++j;
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Devuelve la unión con otra lista, sin modificar ninguna de las dos.
+	 *
+	 * @param otra	Lista de líneas
+	 * @return		Líneas que están en alguna de las dos listas
+	 */
+	public ListaLineas union(ListaLineas otra) {
+		ListaLineas res = new ListaLineas();
+		int i = 0;
+		int j = 0;
+		while (i < numBloques || j < otra.numBloques) {
+			if (j == otra.numBloques || (i < numBloques && claves[i] < otra.claves[j])) {
+				res.agregarBloque(claves[i], bloques[i].copia());
+				++i;
+			} else if (i == numBloques || claves[i] > otra.claves[j]) {
+				res.agregarBloque(otra.claves[j], otra.bloques[j].copia());
+				++j;
+			} else {
+				res.agregarBloque(claves[i], Contenedor.union(bloques[i], otra.bloques[j]));
+				++i;
+				++j;
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Devuelve las líneas de esta lista que no están en otra, sin modificar
+	 * ninguna de las dos.
+	 *
+	 * @param otra	Lista de líneas a quitar
+	 * @return		Líneas de esta lista que no están en la otra
+	 */
+	public ListaLineas diferencia(ListaLineas otra) {
+		ListaLineas res = new ListaLineas();
+		int j = 0;
+		for (int i = 0; i < numBloques; ++i) {
+			while (j < otra.numBloques && otra.claves[j] < claves[i]) {
+				++j;
+			}
+			if (j < otra.numBloques && otra.claves[j] == claves[i]) {
+				res.agregarBloque(claves[i], Contenedor.diferencia(bloques[i], otra.bloques[j]));
+			} else {
+				res.agregarBloque(claves[i], bloques[i].copia());
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Pasa cada bloque a la representación que menos ocupa. Se invoca al
+	 * terminar de construir el índice, cuando ya no se añaden más líneas.
+	 */
+	void compactar() {
+		for (int i = 0; i < numBloques; ++i) {
+			bloques[i] = bloques[i].optimizar();
+		}
+		compacta = true;
+	}
+
+	/**
+	 * Indica si la lista no ha cambiado desde la última vez que se compactó.
+	 */
+	boolean compacta() {
+		return compacta;
+	}
+
+	/**
+	 * Devuelve el número de líneas de la lista.
+	 * @return	Número de líneas
+	 */
+	public int tamanio() {
+		return tamanio;
+	}
+
+	/**
+	 * Devuelve la última (mayor) línea de la lista.
+	 * @return	Última línea
+	 * @throws NoSuchElementException si la lista está vacía
+	 */
+	public int ultima() {
+		if (tamanio == 0) {
+			throw new NoSuchElementException();
+		}
+		return ultima;
+	}
+
+	/**
+	 * Devuelve un iterador que recorre las líneas de menor a mayor
+	 * sin crear objetos por cada línea (usando nextInt).
+	 */
+	@Override
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			private final Cursor c = cursor();
+			private boolean hay = c.siguiente();
+
+			@Override
+			public boolean hasNext() {
+				return hay;
+			}
+
+			@Override
+			public int nextInt() {
+				if ( ! hay) {
+					throw new NoSuchElementException();
+				}
+				int linea = c.linea();
+				hay = c.siguiente();
+				return linea;
+			}
+		};
+	}
+
+	/**
+	 * Devuelve un cursor situado antes de la primera línea.
+	 * @return	Cursor sobre las líneas de menor a mayor
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Cursor que recorre las líneas de menor a mayor y puede saltar hacia
+	 * delante hasta una línea dada: busca el bloque por su clave y, dentro de
+	 * él, la línea con una búsqueda exponencial (o en el mapa de bits).
+	 */
+	public class Cursor {
+		// Bloque actual
+		private int bloque;
+		// Posición en el bloque de la línea actual (véase Contenedor.siguiente)
+		private final int[] pista = new int[1];
+		// Línea actual
+		private int valor;
+		private boolean iniciado;
+		private boolean agotado;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Avanza a la siguiente línea.
+		 * @return	true si hay otra línea, false si se ha llegado al final
+		 */
+		public boolean siguiente() {
+			if (agotado) {
+				return false;
+			} else if ( ! iniciado) {
+				iniciado = true;
+				return mover(0);
+			} else if (valor == Integer.MAX_VALUE) {
+				agotado = true;
+				return false;
+			}
+			return mover(valor + 1);
+		}
+
+		/**
+		 * Avanza hasta la primera línea mayor o igual que objetivo. Si la línea
+		 * actual ya lo es, no se mueve. Cuesta O(log d) en claves de bloques,
+		 * siendo d el número de bloques saltados, más la búsqueda en el bloque.
+		 *
+		 * @param objetivo	Línea buscada
+		 * @return			true si hay tal línea, false si se ha llegado al final
+		 */
+		public boolean avanzarHasta(int objetivo) {
+			if (agotado) {
+				return false;
+			} else if (iniciado && valor >= objetivo) {
+				return true;
+			}
+			iniciado = true;
+			return mover(Math.max(objetivo, 0));
+		}
+
+		/**
+		 * Devuelve la línea actual.
+		 * @return	Línea
+		 */
+		public int linea() {
+			return valor;
+		}
+
+		/**
+		 * Método auxiliar que sitúa el cursor en la primera línea mayor o igual
+		 * que objetivo, que no es menor que la actual.
+		 */
+		private boolean mover(int objetivo) {
+			int alto = objetivo >>> 16;
+			while (bloque < numBloques) {
+				if (claves[bloque] < alto) {
+					// Búsqueda exponencial del primer bloque con clave mayor o igual
+					int izq = bloque;
+					int paso = 1;
+					int der = bloque + 1;
+					while (der < numBloques && claves[der] < alto) {
+						izq = der;
+						paso <<= 1;
+						der = izq + paso;
+					}
+					der = Math.min(der, numBloques);
+					while (der - izq > 1) {
+						int medio = (izq + der) >>> 1;
+						if (claves[medio] < alto) {
+							izq = medio;
+						} else {
+							der = medio;
+						}
+					}
+					bloque = der;
+					pista[0] = 0;
+					continue;
+				}
+				int bajo = (claves[bloque] == alto) ? objetivo & 0xFFFF : 0;
+				int v = bloques[bloque].siguiente(bajo, pista);
+				if (v >= 0) {
+					valor = claves[bloque] << 16 | v;
+					return true;
+				}
+				++bloque;
+				pista[0] = 0;
+			}
+			agotado = true;
+			return false;
+		}
+	}
+
+	/**
+	 * Devuelve las líneas codificadas como en las versiones anteriores de la
+	 * lista, para guardarlas en un segmento: la diferencia con la línea anterior
+	 * con un número variable de bytes (7 bits por byte; el bit más alto indica
+	 * que sigue otro byte).
+	 */
+	byte[] codificar() {
+		byte[] datos = new byte[Math.max(4, tamanio + (tamanio >> 1))];
+		int n = 0;
+		int anterior = 0;
+		for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); ) {
+			int linea = it.nextInt();
+			int v = linea - anterior;
+			anterior = linea;
+			if (n + 5 > datos.length) {
+				datos = Arrays.copyOf(datos, datos.length + (datos.length >> 1) + 5);
+			}
+			while ((v & ~0x7F) != 0) {
+				datos[n++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			datos[n++] = (byte) v;
+		}
+		return Arrays.copyOf(datos, n);
+	}
+
+	/**
+	 * Método auxiliar que añade un bloque al final, si no está vacío.
+	 */
+	private void agregarBloque(int alto, Contenedor c) {
+		if (c.cardinal() == 0) {
+			return;
+		}
+		if (numBloques == claves.length) {
+			claves = Arrays.copyOf(claves, 2 * numBloques);
+			bloques = Arrays.copyOf(bloques, 2 * numBloques);
+		}
+		compacta = false;
+		claves[numBloques] = (char) alto;
+		bloques[numBloques] = c;
+		++numBloques;
+		tamanio += c.cardinal();
+		ultima = alto << 16 | c.maximo();
+	}
+}
@@ -0,0 +1,249 @@
+package indices;
+
+import java.util.Arrays;
+
+/**
+ * La clase ListaPosiciones almacena de forma compacta las apariciones de una
+ * palabra como pares (línea, posición), ordenados por línea y, dentro de cada
+ * línea, por posición. Como los pares se añaden en ese orden, cada par se guarda
+ * como dos enteros con codificación variable (7 bits por byte): la diferencia
+ * con la línea anterior y, si la línea es la misma, la diferencia con la posición
+ * anterior o, si la línea es otra, la posición. Los pares se decodifican bajo
+ * demanda mediante un Cursor, sin crear objetos por cada aparición.
+ */
+public class ListaPosiciones {
+	// Bytes con los pares codificados
+	private byte[] datos;
+	// Número de bytes usados en datos
+	private int numBytes;
+	// Número de pares de la lista
+	private int tamanio;
+	// Número de líneas distintas de la lista
+	private int numLineas;
+	// Último par añadido
+	private int ultimaLinea;
+	private int ultimaPosicion;
+
+	/**
+	 * Constructor que crea una lista de posiciones vacía.
+	 */
+	public ListaPosiciones() {
+		datos = new byte[4];
+	}
+
+	/**
+	 * Añade una aparición, que debe ser posterior a la última añadida.
+	 *
+	 * @param linea		Número de línea (no negativo)
+	 * @param posicion	Posición dentro de la línea (no negativa)
+	 * @throws IllegalArgumentException si la aparición no es posterior a la última
+	 */
+	public void agregar(int linea, int posicion) {
+		if (linea < 0 || posicion < 0) {
+			throw new IllegalArgumentException("Aparición no válida: " + linea + " " + posicion);
+		}
+		if (tamanio > 0 && (linea < ultimaLinea
+				|| (linea == ultimaLinea && posicion <= ultimaPosicion))) {
+			throw new IllegalArgumentException("Aparición fuera de orden: " + linea + " " + posicion);
+		}
+		asegurar(10);
+		if (tamanio == 0 || linea != ultimaLinea) {
+			++numLineas;
+		}
+		escribir(linea - ultimaLinea);
+		escribir(linea == ultimaLinea ? posicion - ultimaPosicion : posicion);
+		ultimaLinea = linea;
+		ultimaPosicion = posicion;
+		++tamanio;
+	}
+
+	/**
+	 * Añade al final todas las apariciones de otra lista, cuya primera línea
+	 * debe ser mayor que la última de esta lista.
+	 *
+	 * @param otra	Lista de posiciones a añadir
+	 * @throws IllegalArgumentException si las apariciones no quedan en orden
+	 */
+	public void agregarTodas(ListaPosiciones otra) {
+		agregarTodas(otra, 0);
+	}
+
+	/**
+	 * Añade al final todas las apariciones de otra lista, sumando un desplazamiento
+	 * a sus líneas; la primera línea desplazada debe ser mayor que la última de
+	 * esta lista. Como solo la primera línea se guarda en valor absoluto, solo se
+	 * recodifica esta.
+	 *
+	 * @param otra			Lista de posiciones a añadir
+	 * @param desplazamiento	Número a sumar a cada línea de la otra lista
+	 * @throws IllegalArgumentException si las apariciones no quedan en orden
+	 */
+	public void agregarTodas(ListaPosiciones otra, int desplazamiento) {
+		if (otra.tamanio == 0) {
+			return;
+		}
+		// Se recodifica la diferencia de la primera línea y se copia el resto tal cual
+		int primera = 0;
+		int p = 0;
+		int desp = 0;
+		byte b;
+		do {
+			b = otra.datos[p++];
+			primera |= (b & 0x7F) << desp;
+			desp += 7;
+		} while (b < 0);
+		primera += desplazamiento;
+		if ((tamanio > 0 && primera <= ultimaLinea) || primera < 0) {
+			throw new IllegalArgumentException("Línea fuera de orden: " + primera);
+		}
+		asegurar(5 + otra.numBytes - p);
+		escribir(primera - ultimaLinea);
+		System.arraycopy(otra.datos, p, datos, numBytes, otra.numBytes - p);
+		numBytes += otra.numBytes - p;
+		tamanio += otra.tamanio;
+		numLineas += otra.numLineas;
+		ultimaLinea = otra.ultimaLinea + desplazamiento;
+		ultimaPosicion = otra.ultimaPosicion;
+	}
+
+	/**
+	 * Devuelve el número de apariciones de la lista.
+	 * @return	Número de apariciones
+	 */
+	public int tamanio() {
+		return tamanio;
+	}
+
+	/**
+	 * Devuelve el número de líneas distintas de la lista.
+	 * @return	Número de líneas
+	 */
+	public int numLineas() {
+		return numLineas;
+	}
+
+	/**
+	 * Devuelve un cursor situado antes de la primera aparición.
+	 * @return	Cursor sobre las apariciones
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Devuelve los bytes con los datos codificados, para guardarlos en un segmento.
+	 * Solo son válidos los numBytes() primeros.
+	 */
+	byte[] datos() {
+		return datos;
+	}
+
+	/**
+	 * Devuelve el número de bytes usados en datos().
+	 */
+	int numBytes() {
+		return numBytes;
+	}
+
+	/**
+	 * Método auxiliar que escribe un entero no negativo con codificación variable.
+	 * Debe haber sitio suficiente en datos.
+	 */
+	private void escribir(int v) {
+		while ((v & ~0x7F) != 0) {
+			datos[numBytes++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		datos[numBytes++] = (byte) v;
+	}
+
+	/**
+	 * Método auxiliar que asegura que caben n bytes más en datos.
+	 */
+	private void asegurar(int n) {
+		if (numBytes + n > datos.length) {
+			datos = Arrays.copyOf(datos, Math.max(numBytes + n, datos.length + (datos.length >> 1)));
+		}
+	}
+
+	/**
+	 * Cursor que recorre las apariciones de la lista en orden, decodificándolas
+	 * a medida que avanza.
+	 */
+	public class Cursor {
+		private int p;
+		private int linea;
+		private int posicion;
+		// Indica si el cursor está situado en una aparición
+		private boolean valido;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Avanza a la siguiente aparición.
+		 * @return	true si hay otra aparición, false si se ha llegado al final
+		 */
+		public boolean siguiente() {
+			if (p >= numBytes) {
+				valido = false;
+				return false;
+			}
+			int dl = leer();
+			int dp = leer();
+			linea += dl;
+			posicion = (dl == 0) ? posicion + dp : dp;
+			valido = true;
+			return true;
+		}
+
+		/**
+		 * Avanza hasta la primera aparición que sea igual o posterior a la
+		 * aparición (linea, posicion). Si el cursor ya está en una aparición
+		 * igual o posterior, no se mueve.
+		 *
+		 * @param linea		Línea buscada
+		 * @param posicion	Posición buscada dentro de la línea
+		 * @return	true si hay tal aparición, false si se ha llegado al final
+		 */
+		public boolean avanzarHasta(int linea, int posicion) {
+			if (valido && (this.linea > linea || (this.linea == linea && this.posicion >= posicion))) {
+				return true;
+			}
+			while (siguiente()) {
+				if (this.linea > linea || (this.linea == linea && this.posicion >= posicion)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Devuelve la línea de la aparición actual.
+		 * @return	Número de línea
+		 */
+		public int linea() {
+			return linea;
+		}
+
+		/**
+		 * Devuelve la posición dentro de la línea de la aparición actual.
+		 * @return	Posición
+		 */
+		public int posicion() {
+			return posicion;
+		}
+
+		private int leer() {
+			int v = 0;
+			int desp = 0;
+			byte b;
+			do {
+				b = datos[p++];
+				v |= (b & 0x7F) << desp;
+				desp += 7;
+			} while (b < 0);
+			return v;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package indices;
+
+import java.util.Arrays;
+
+/**
+ * La clase ListaSimilares guarda las palabras encontradas en una búsqueda
+ * aproximada, con su distancia de edición a la palabra buscada y su
+ * frecuencia, ordenadas de menor a mayor distancia; a igual distancia, de
+ * mayor a menor frecuencia y, a igual frecuencia, lexicográficamente. Como
+ * ListaFrecuencias, guarda los datos en arrays paralelos.
+ */
+public class ListaSimilares {
+	private final String[] palabras;
+	private final int[] distancias;
+	private final int[] frecuencias;
+
+	private ListaSimilares(String[] palabras, int[] distancias, int[] frecuencias) {
+		this.palabras = palabras;
+		this.distancias = distancias;
+		this.frecuencias = frecuencias;
+	}
+
+	/**
+	 * Devuelve el número de palabras de la lista.
+	 * @return	Número de palabras
+	 */
+	public int tamanio() {
+		return palabras.length;
+	}
+
+	/**
+	 * Devuelve la palabra i-ésima de la lista.
+	 * @param i	Número de orden (empezando en 0)
+	 * @return	Palabra
+	 */
+	public String palabra(int i) {
+		return palabras[i];
+	}
+
+	/**
+	 * Devuelve la distancia de edición de la palabra i-ésima a la buscada.
+	 * @param i	Número de orden (empezando en 0)
+	 * @return	Distancia de edición
+	 */
+	public int distancia(int i) {
+		return distancias[i];
+	}
+
+	/**
+	 * Devuelve la frecuencia de la palabra i-ésima de la lista.
+	 * @param i	Número de orden (empezando en 0)
+	 * @return	Frecuencia (apariciones o líneas, según el índice)
+	 */
+	public int frecuencia(int i) {
+		return frecuencias[i];
+	}
+
+	/**
+	 * Clase que crea una ListaSimilares a partir de palabras que se añaden en
+	 * orden lexicográfico.
+	 */
+	static class Creador {
+		private String[] palabras = new String[8];
+		private int[] distancias = new int[8];
+		private int[] frecuencias = new int[8];
+		private int tamanio;
+
+		/**
+		 * Añade una palabra, mayor que la anterior en orden lexicográfico.
+		 */
+		void agregar(String palabra, int distancia, int frecuencia) {
+			if (tamanio == palabras.length) {
+				palabras = Arrays.copyOf(palabras, 2 * tamanio);
+				distancias = Arrays.copyOf(distancias, 2 * tamanio);
+				frecuencias = Arrays.copyOf(frecuencias, 2 * tamanio);
+			}
+			palabras[tamanio] = palabra;
+			distancias[tamanio] = distancia;
+			frecuencias[tamanio] = frecuencia;
+			++tamanio;
+		}
+
+		/**
+		 * Crea la lista ordenando las palabras añadidas. La ordenación es
+		 * estable, por lo que a igual distancia y frecuencia se mantiene el orden
+		 * lexicográfico.
+		 */
+		ListaSimilares crear() {
+			Integer[] orden = new Integer[tamanio];
+			for (int i = 0; i < tamanio; ++i) {
+				orden[i] = i;
+			}
+			Arrays.sort(orden, (a, b) -> (distancias[a] != distancias[b])
+					? Integer.compare(distancias[a], distancias[b])
+					: Integer.compare(frecuencias[b], frecuencias[a]));
+			String[] p = new String[tamanio];
+			int[] d = new int[tamanio];
+			int[] f = new int[tamanio];
+			for (int i = 0; i < tamanio; ++i) {
+				p[i] = palabras[orden[i]];
+				d[i] = distancias[orden[i]];
+				f[i] = frecuencias[orden[i]];
+			}
+			return new ListaSimilares(p, d, f);
+		}
+	}
+}
@@ -0,0 +1,303 @@
+package indices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Clase auxiliar con una correspondencia ordenada de palabras a valores, en dos
+ * partes: una compacta, con las palabras en un DiccionarioTerminos y los valores
+ * en un array indexado por identificador, y otra modificable, un TreeMap con las
+ * palabras añadidas después de compactar. Las dos partes no tienen palabras en
+ * común. Al compactar, las palabras del TreeMap pasan a un nuevo diccionario, por
+ * lo que cada palabra deja de ocupar un String y un nodo del árbol. Como eso
+ * recrea el diccionario completo, solo se hace cuando el TreeMap tiene más de
+ * 1/FRACCION_NUEVAS de las palabras del diccionario; así el coste de compactar
+ * es proporcional al número de palabras añadidas.
+ * Las palabras se buscan como cualquier CharSequence, en las dos partes, sin
+ * crear un String, y las búsquedas por patrón y aproximadas recorren también
+ * las dos partes.
+ *
+ * @param <V>	Tipo de los valores
+ */
+class MapaTerminos<V> implements Iterable<Map.Entry<String, V>> {
+	// Orden lexicográfico, que admite cualquier CharSequence al buscar en nuevas
+	private static final Comparator<CharSequence> ORDEN = MapaTerminos::comparar;
+	// Las palabras nuevas pasan al diccionario cuando son más de 1/FRACCION_NUEVAS de él
+	private static final int FRACCION_NUEVAS = 8;
+
+	/**
+	 * Recibe las palabras encontradas por buscarSimilares.
+	 *
+	 * @param <V>	Tipo de los valores
+	 */
+	interface Similar<V> {
+		/**
+		 * Se invoca con cada palabra encontrada, en orden lexicográfico.
+		 *
+		 * @param palabra	Palabra
+		 * @param distancia	Distancia de edición a la palabra buscada
+		 * @param valor		Valor de la palabra
+		 */
+		void encontrada(String palabra, int distancia, V valor);
+	}
+
+	private DiccionarioTerminos diccionario;
+	// Valores de las palabras del diccionario, por identificador
+	private Object[] valores;
+	// Palabras que no están en el diccionario
+	private final TreeMap<String, V> nuevas;
+	// Búsqueda por patrones en el diccionario (null hasta la primera)
+	private IndicePermuterm permuterm;
+
+	/**
+	 * Crea una correspondencia vacía.
+	 */
+	MapaTerminos() {
+		nuevas = new TreeMap<>(ORDEN);
+		clear();
+	}
+
+	/**
+	 * Elimina todas las palabras.
+	 */
+	void clear() {
+		diccionario = DiccionarioTerminos.vacio();
+		valores = new Object[0];
+		nuevas.clear();
+	}
+
+	/**
+	 * Devuelve el número de palabras.
+	 */
+	int size() {
+		return diccionario.tamanio() + nuevas.size();
+	}
+
+	/**
+	 * Devuelve el valor asociado a una palabra, o null si no está.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(CharSequence palabra) {
+		int id = diccionario.buscar(palabra);
+		if (id >= 0) {
+			return (V) valores[id];
+		}
+		return nuevas.isEmpty() ? null : nuevas.get(palabra);
+	}
+
+	/**
+	 * Asocia un valor a una palabra.
+	 */
+	void put(String palabra, V valor) {
+		int id = diccionario.buscar(palabra);
+		if (id >= 0) {
+			valores[id] = valor;
+		} else {
+			nuevas.put(palabra, valor);
+		}
+	}
+
+	/**
+	 * Devuelve el diccionario de la parte compacta.
+	 */
+	DiccionarioTerminos diccionario() {
+		return diccionario;
+	}
+
+	/**
+	 * Devuelve las palabras que coinciden con un patrón con comodines '*'
+	 * (véase IndicePermuterm), con sus valores, en orden lexicográfico. En el
+	 * diccionario se busca con un índice permuterm, que se conserva mientras no
+	 * se compacte, y después vuelve a crear las rotaciones de todas las palabras
+	 * del diccionario; las palabras nuevas se recorren una a una entre
+	 * las que empiezan por la parte del patrón anterior al primer '*', es decir,
+	 * todas si el patrón empieza por '*' (a lo sumo 1/FRACCION_NUEVAS de las del
+	 * diccionario).
+	 */
+	Map<String, V> buscarPatron(String patron) {
+		if (permuterm == null || permuterm.diccionario() != diccionario) {
+			permuterm = new IndicePermuterm(diccionario);
+		}
+		int estrella = patron.indexOf('*');
+		String prefijo = (estrella < 0) ? patron : patron.substring(0, estrella);
+		Iterator<Map.Entry<String, V>> it = nuevas.tailMap(prefijo, true).entrySet().iterator();
+		Map.Entry<String, V> nueva = siguienteCoincidente(it, prefijo, patron);
+		Map<String, V> res = new LinkedHashMap<>();
+		for (int id : permuterm.buscar(patron)) {
+			String palabra = diccionario.termino(id);
+			while (nueva != null && nueva.getKey().compareTo(palabra) < 0) {
+				res.put(nueva.getKey(), nueva.getValue());
+				nueva = siguienteCoincidente(it, prefijo, patron);
+			}
+			res.put(palabra, valor(id));
+		}
+		for (; nueva != null; nueva = siguienteCoincidente(it, prefijo, patron)) {
+			res.put(nueva.getKey(), nueva.getValue());
+		}
+		return res;
+	}
+
+	/**
+	 * Busca las palabras a distancia de edición máxima de una palabra, con un
+	 * autómata de Levenshtein sobre el diccionario y calculando la distancia
+	 * de cada palabra nueva.
+	 *
+	 * @param a			Autómata con la palabra buscada
+	 * @param receptor	Receptor de las palabras encontradas, en orden lexicográfico
+	 */
+	void buscarSimilares(AutomataLevenshtein a, Similar<V> receptor) {
+		Intercalador c = new Intercalador(receptor);
+		for (Map.Entry<String, V> e : nuevas.entrySet()) {
+			int d = a.distancia(e.getKey());
+			if (d >= 0) {
+				c.agregarNueva(e, d);
+			}
+		}
+		a.buscar(diccionario, c);
+		c.pasarNuevas(null);
+	}
+
+	/**
+	 * Devuelve el valor de la palabra del diccionario con un identificador.
+	 */
+	@SuppressWarnings("unchecked")
+	V valor(int id) {
+		return (V) valores[id];
+	}
+
+	/**
+	 * Pasa a la parte compacta las palabras añadidas desde la última vez, si
+	 * son más de 1/FRACCION_NUEVAS de las del diccionario.
+	 */
+	void compactar() {
+		if (nuevas.size() <= diccionario.tamanio() / FRACCION_NUEVAS) {
+			return;
+		}
+		DiccionarioTerminos.Creador creador = new DiccionarioTerminos.Creador();
+		Object[] v = new Object[size()];
+		for (Map.Entry<String, V> e : this) {
+			v[creador.tamanio()] = e.getValue();
+			creador.agregar(e.getKey());
+		}
+		diccionario = creador.crear();
+		valores = v;
+		nuevas.clear();
+	}
+
+	/**
+	 * Método auxiliar que devuelve la siguiente palabra nueva del iterador que
+	 * coincide con un patrón, o null si ya no quedan palabras con su prefijo.
+	 */
+	private static <V> Map.Entry<String, V> siguienteCoincidente(Iterator<Map.Entry<String, V>> it,
+			String prefijo, String patron) {
+		while (it.hasNext()) {
+			Map.Entry<String, V> e = it.next();
+			if ( ! e.getKey().startsWith(prefijo)) {
+				return null;
+			}
+			if (IndicePermuterm.coincide(patron, e.getKey())) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Método auxiliar que compara dos secuencias de caracteres en orden
+	 * lexicográfico, como String.compareTo.
+	 */
+	private static int comparar(CharSequence a, CharSequence b) {
+		if (a instanceof String && b instanceof String) {
+			return ((String) a).compareTo((String) b);
+		}
+		return CharSequence.compare(a, b);
+	}
+
+	/**
+	 * Clase auxiliar que recibe las palabras del diccionario encontradas por un
+	 * autómata de Levenshtein y se las pasa al receptor intercaladas, en orden,
+	 * con las palabras nuevas encontradas.
+	 */
+	private class Intercalador implements AutomataLevenshtein.Coincidencia {
+		private final Similar<V> receptor;
+		// Palabras nuevas encontradas, en orden, con su distancia
+		private final List<Map.Entry<String, V>> nuevasEncontradas = new ArrayList<>();
+		private int[] distancias = new int[8];
+		// Número de palabras nuevas ya pasadas al receptor
+		private int pasadas;
+
+		Intercalador(Similar<V> receptor) {
+			this.receptor = receptor;
+		}
+
+		void agregarNueva(Map.Entry<String, V> e, int distancia) {
+			int n = nuevasEncontradas.size();
+			if (n == distancias.length) {
+				distancias = Arrays.copyOf(distancias, 2 * n);
+			}
+			distancias[n] = distancia;
+			nuevasEncontradas.add(e);
+		}
+
+		@Override
+		public void encontrada(int id, int distancia) {
+			String palabra = diccionario.termino(id);
+			pasarNuevas(palabra);
+			receptor.encontrada(palabra, distancia, valor(id));
+		}
+
+		/**
+		 * Pasa al receptor las palabras nuevas menores que una dada (todas si es null).
+		 */
+		void pasarNuevas(String hasta) {
+			while (pasadas < nuevasEncontradas.size()
+					&& (hasta == null || nuevasEncontradas.get(pasadas).getKey().compareTo(hasta) < 0)) {
+				Map.Entry<String, V> e = nuevasEncontradas.get(pasadas);
+				receptor.encontrada(e.getKey(), distancias[pasadas], e.getValue());
+				++pasadas;
+			}
+		}
+	}
+
+	/**
+	 * Devuelve un iterador sobre las palabras, con sus valores, en orden
+	 * lexicográfico, mezclando las dos partes.
+	 */
+	@Override
+	public Iterator<Map.Entry<String, V>> iterator() {
+		return new Iterator<Map.Entry<String, V>>() {
+			private final DiccionarioTerminos.Cursor c = diccionario.cursor();
+			private final Iterator<Map.Entry<String, V>> it = nuevas.entrySet().iterator();
+			private String palabra = c.siguiente() ? c.termino() : null;
+			private Map.Entry<String, V> nueva = it.hasNext() ? it.next() : null;
+
+			@Override
+			public boolean hasNext() {
+				return palabra != null || nueva != null;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public Map.Entry<String, V> next() {
+				Map.Entry<String, V> e;
+				if (palabra != null && (nueva == null || palabra.compareTo(nueva.getKey()) < 0)) {
+					e = Map.entry(palabra, (V) valores[c.id()]);
+					palabra = c.siguiente() ? c.termino() : null;
+				} else if (nueva != null) {
+					e = nueva;
+					nueva = it.hasNext() ? it.next() : null;
+				} else {
+					throw new NoSuchElementException();
+				}
+				return e;
+			}
+		};
+	}
+}
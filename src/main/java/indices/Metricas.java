@@ -0,0 +1,116 @@
+package indices;
+
+/**
+ * La clase Metricas guarda una instantánea de las medidas de rendimiento de un
+ * índice instrumentado: líneas y palabras procesadas, tiempo dedicado a cada
+ * fase de la construcción y de la presentación, y tamaño máximo que ha llegado
+ * a tener el índice. Los tiempos de las fases se suman en todos los hilos, por
+ * lo que en la construcción paralela pueden superar al tiempo transcurrido.
+ */
+public final class Metricas {
+	private final long lineas;
+	private final long palabras;
+	private final long nanosConstruir;
+	private final long nanosTokenizar;
+	private final long nanosNormalizar;
+	private final long nanosInsertar;
+	private final long nanosPresentar;
+	private final long maxTerminos;
+	private final long maxApariciones;
+
+	Metricas(long lineas, long palabras, long nanosConstruir, long nanosTokenizar,
+			long nanosNormalizar, long nanosInsertar, long nanosPresentar,
+			long maxTerminos, long maxApariciones) {
+		this.lineas = lineas;
+		this.palabras = palabras;
+		this.nanosConstruir = nanosConstruir;
+		this.nanosTokenizar = nanosTokenizar;
+		this.nanosNormalizar = nanosNormalizar;
+		this.nanosInsertar = nanosInsertar;
+		this.nanosPresentar = nanosPresentar;
+		this.maxTerminos = maxTerminos;
+		this.maxApariciones = maxApariciones;
+	}
+
+	/**
+	 * Devuelve el número de líneas indexadas.
+	 * @return	Número de líneas
+	 */
+	public long lineas() {
+		return lineas;
+	}
+
+	/**
+	 * Devuelve el número de palabras (incluidas las vacías) encontradas al indexar.
+	 * @return	Número de palabras
+	 */
+	public long palabras() {
+		return palabras;
+	}
+
+	/**
+	 * Devuelve el tiempo transcurrido construyendo el índice (resolver,
+	 * resolverParalelo y agregarArchivo sin conservar el texto).
+	 * @return	Tiempo en nanosegundos
+	 */
+	public long nanosConstruir() {
+		return nanosConstruir;
+	}
+
+	/**
+	 * Devuelve el tiempo dedicado a dividir las líneas en palabras.
+	 * @return	Tiempo en nanosegundos
+	 */
+	public long nanosTokenizar() {
+		return nanosTokenizar;
+	}
+
+	/**
+	 * Devuelve el tiempo dedicado a pasar las palabras a minúsculas.
+	 * @return	Tiempo en nanosegundos
+	 */
+	public long nanosNormalizar() {
+		return nanosNormalizar;
+	}
+
+	/**
+	 * Devuelve el tiempo dedicado a insertar las palabras en el índice.
+	 * @return	Tiempo en nanosegundos
+	 */
+	public long nanosInsertar() {
+		return nanosInsertar;
+	}
+
+	/**
+	 * Devuelve el tiempo dedicado a presentar el índice.
+	 * @return	Tiempo en nanosegundos
+	 */
+	public long nanosPresentar() {
+		return nanosPresentar;
+	}
+
+	/**
+	 * Devuelve el número de palabras indexadas por segundo de construcción.
+	 * @return	Palabras por segundo (0 si aún no se ha construido)
+	 */
+	public double palabrasPorSegundo() {
+		return (nanosConstruir == 0) ? 0 : palabras * 1e9 / nanosConstruir;
+	}
+
+	/**
+	 * Devuelve el número máximo de palabras distintas que ha tenido el índice.
+	 * @return	Número de palabras distintas
+	 */
+	public long maxTerminos() {
+		return maxTerminos;
+	}
+
+	/**
+	 * Devuelve el número máximo de apariciones (entradas de las listas de
+	 * líneas o posiciones, o suma de contadores) que ha tenido el índice.
+	 * @return	Número de apariciones
+	 */
+	public long maxApariciones() {
+		return maxApariciones;
+	}
+}
@@ -0,0 +1,110 @@
+package indices;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Clase auxiliar que mezcla varias secuencias de pares (palabra, valor), cada una
+ * ordenada lexicográficamente por palabra y sin palabras repetidas, recorriendo
+ * las palabras de todas ellas en orden (mezcla de k vías con un montículo).
+ * Para cada palabra se obtienen sus valores en las secuencias en que aparece,
+ * en el orden en que se dieron las secuencias.
+ *
+ * @param <V>	Tipo de los valores
+ */
+class MezclaOrdenada<V> {
+	private final List<Iterator<? extends Map.Entry<String, V>>> fuentes;
+	// Montículo con la siguiente entrada de cada secuencia no agotada
+	private final PriorityQueue<Cabeza<V>> monticulo;
+	private String palabra;
+	private final List<V> valores;
+
+	/**
+	 * Crea una mezcla de las secuencias dadas, situada antes de la primera palabra.
+	 *
+	 * @param fuentes	Secuencias ordenadas por palabra
+	 */
+	MezclaOrdenada(List<Iterator<? extends Map.Entry<String, V>>> fuentes) {
+		this.fuentes = fuentes;
+		monticulo = new PriorityQueue<>(Math.max(1, fuentes.size()));
+		valores = new ArrayList<>(fuentes.size());
+		for (int i = 0; i < fuentes.size(); ++i) {
+			avanzar(i);
+		}
+	}
+
+	/**
+	 * Avanza a la siguiente palabra.
+	 * @return	true si hay otra palabra, false si se han agotado todas las secuencias
+	 */
+	boolean siguiente() {
+		valores.clear();
+		Cabeza<V> c = monticulo.poll();
+		if (c == null) {
+			palabra = null;
+			return false;
+		}
+		palabra = c.palabra;
+		valores.add(c.valor);
+		avanzar(c.fuente);
+		while ( ! monticulo.isEmpty() && monticulo.peek().palabra.equals(palabra)) {
+			c = monticulo.poll();
+			valores.add(c.valor);
+			avanzar(c.fuente);
+		}
+		return true;
+	}
+
+	/**
+	 * Devuelve la palabra actual.
+	 * @return	Palabra
+	 */
+	String palabra() {
+		return palabra;
+	}
+
+	/**
+	 * Devuelve los valores de la palabra actual, en el orden de las secuencias.
+	 * La lista se reutiliza al avanzar.
+	 * @return	Valores de la palabra
+	 */
+	List<V> valores() {
+		return valores;
+	}
+
+	/**
+	 * Método auxiliar que añade al montículo la siguiente entrada de una secuencia.
+	 */
+	private void avanzar(int fuente) {
+		Iterator<? extends Map.Entry<String, V>> it = fuentes.get(fuente);
+		if (it.hasNext()) {
+			Map.Entry<String, V> e = it.next();
+			monticulo.add(new Cabeza<>(e.getKey(), e.getValue(), fuente));
+		}
+	}
+
+	/**
+	 * Siguiente entrada de una secuencia. A igual palabra, va antes la de la
+	 * secuencia anterior, para que los valores queden en orden.
+	 */
+	private static class Cabeza<V> implements Comparable<Cabeza<V>> {
+		final String palabra;
+		final V valor;
+		final int fuente;
+
+		Cabeza(String palabra, V valor, int fuente) {
+			this.palabra = palabra;
+			this.valor = valor;
+			this.fuente = fuente;
+		}
+
+		@Override
+		public int compareTo(Cabeza<V> otra) {
+			int cmp = palabra.compareTo(otra.palabra);
+			return (cmp != 0) ? cmp : Integer.compare(fuente, otra.fuente);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package indices;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Clase auxiliar que pasa palabras a minúsculas sobre un buffer de caracteres
+ * que se reutiliza, sin crear un String por cada palabra. Los caracteres de
+ * ASCII y Latin-1 se convierten uno a uno (en ASCII, solo de 'A' a 'Z'); si la
+ * palabra tiene otros caracteres, se usa String.toLowerCase con Locale.ROOT,
+ * que da el mismo resultado en cualquier configuración regional (por ejemplo,
+ * la 'I' no pasa a 'ı' con la configuración turca).
+ * El propio normalizador es la secuencia de caracteres con la última palabra
+ * normalizada, por lo que solo es válida hasta la siguiente normalización.
+ */
+final class Normalizador implements CharSequence {
+	private char[] buffer;
+	private int longitud;
+
+	/**
+	 * Crea un normalizador con un buffer vacío.
+	 */
+	Normalizador() {
+		buffer = new char[32];
+	}
+
+	/**
+	 * Pasa a minúsculas los caracteres [inicio, fin) de una secuencia.
+	 *
+	 * @param s			Secuencia de caracteres
+	 * @param inicio	Posición de inicio (incluida)
+	 * @param fin		Posición de fin (excluida)
+	 * @return			Este normalizador, con la palabra en minúsculas
+	 */
+	CharSequence normalizar(CharSequence s, int inicio, int fin) {
+		int n = fin - inicio;
+		if (n > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(n, 2 * buffer.length));
+		}
+		for (int i = 0; i < n; ++i) {
+			char c = s.charAt(inicio + i);
+			if (c < 0x80) {
+				if (c >= 'A' && c <= 'Z') {
+					c += 'a' - 'A';
+				}
+			} else if (c <= 0xFF) {
+				c = Character.toLowerCase(c);
+			} else {
+				return normalizarLento(s, inicio, fin);
+			}
+			buffer[i] = c;
+		}
+		longitud = n;
+		return this;
+	}
+
+	/**
+	 * Método auxiliar que normaliza una palabra con caracteres fuera de Latin-1,
+	 * cuya conversión puede depender del contexto o cambiar la longitud.
+	 */
+	private CharSequence normalizarLento(CharSequence s, int inicio, int fin) {
+		String m = s.subSequence(inicio, fin).toString().toLowerCase(Locale.ROOT);
+		if (m.length() > buffer.length) {
+			buffer = new char[m.length()];
+		}
+		m.getChars(0, m.length(), buffer, 0);
+		longitud = m.length();
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return longitud;
+	}
+
+	@Override
+	public char charAt(int i) {
+		if (i < 0 || i >= longitud) {
+			throw new IndexOutOfBoundsException("Posición no válida: " + i);
+		}
+		return buffer[i];
+	}
+
+	@Override
+	public CharSequence subSequence(int inicio, int fin) {
+		return toString().substring(inicio, fin);
+	}
+
+	@Override
+	public String toString() {
+		return new String(buffer, 0, longitud);
+	}
+}
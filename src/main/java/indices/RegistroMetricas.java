@@ -0,0 +1,64 @@
+package indices;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase auxiliar que acumula las medidas de un índice instrumentado. Los
+ * contadores son LongAdder, para que los hilos de la construcción paralela
+ * los actualicen sin competir entre sí; cada hilo acumula las medidas de una
+ * línea en su tokenizador y las vuelca aquí al terminarla.
+ */
+class RegistroMetricas {
+	private final LongAdder lineas = new LongAdder();
+	private final LongAdder palabras = new LongAdder();
+	private final LongAdder nanosConstruir = new LongAdder();
+	private final LongAdder nanosTokenizar = new LongAdder();
+	private final LongAdder nanosNormalizar = new LongAdder();
+	private final LongAdder nanosInsertar = new LongAdder();
+	private final LongAdder nanosPresentar = new LongAdder();
+	private final AtomicLong maxTerminos = new AtomicLong();
+	private final AtomicLong maxApariciones = new AtomicLong();
+
+	/**
+	 * Acumula las medidas de una línea indexada.
+	 */
+	void linea(long numPalabras, long tokenizar, long normalizar, long insertar) {
+		lineas.increment();
+		palabras.add(numPalabras);
+		nanosTokenizar.add(tokenizar);
+		nanosNormalizar.add(normalizar);
+		nanosInsertar.add(insertar);
+	}
+
+	/**
+	 * Acumula el tiempo de una construcción.
+	 */
+	void construccion(long nanos) {
+		nanosConstruir.add(nanos);
+	}
+
+	/**
+	 * Acumula el tiempo de una presentación.
+	 */
+	void presentacion(long nanos) {
+		nanosPresentar.add(nanos);
+	}
+
+	/**
+	 * Registra el tamaño actual del índice, guardando el máximo.
+	 */
+	void tamanio(long terminos, long apariciones) {
+		maxTerminos.accumulateAndGet(terminos, Math::max);
+		maxApariciones.accumulateAndGet(apariciones, Math::max);
+	}
+
+	/**
+	 * Devuelve una instantánea de las medidas acumuladas.
+	 */
+	Metricas instantanea() {
+		return new Metricas(lineas.sum(), palabras.sum(), nanosConstruir.sum(),
+				nanosTokenizar.sum(), nanosNormalizar.sum(), nanosInsertar.sum(),
+				nanosPresentar.sum(), maxTerminos.get(), maxApariciones.get());
+	}
+}
@@ -0,0 +1,178 @@
+package indices;
+
+import java.util.Arrays;
+
+/**
+ * La clase TablaTerminos asigna a cada palabra distinta un identificador entero
+ * denso (0, 1, 2, ...) en el orden en que se añaden las palabras, de forma que la
+ * información asociada a cada palabra se puede guardar en arrays de tipos
+ * primitivos indexados por identificador.
+ * Se implementa con una tabla hash de direccionamiento abierto (exploración lineal),
+ * por lo que buscar y añadir cuestan O(1) en promedio. Las palabras se pueden
+ * buscar como cualquier CharSequence, sin crear un String, que solo se crea al
+ * añadir una palabra nueva. El orden lexicográfico
+ * de las palabras solo se calcula cuando se pide, y se guarda hasta que se
+ * añade una palabra nueva.
+ */
+public class TablaTerminos {
+	// Capacidad inicial de la tabla (potencia de 2)
+	private static final int CAPACIDAD_INICIAL = 16;
+
+	// Palabras, indexadas por identificador
+	private String[] terminos;
+	// Código hash de cada palabra, indexado por identificador
+	private int[] hashes;
+	// Tabla hash: identificador + 1 de la palabra en cada ranura, o 0 si está libre
+	private int[] ranuras;
+	// Número de palabras
+	private int tamanio;
+	// Identificadores en orden lexicográfico (null si hay que recalcularlo).
+	// Es volatile para que varios hilos puedan pedirlo a una tabla que ya no cambia.
+	private volatile int[] orden;
+
+	/**
+	 * Constructor que crea una tabla vacía.
+	 */
+	public TablaTerminos() {
+		limpiar();
+	}
+
+	/**
+	 * Elimina todas las palabras de la tabla.
+	 */
+	public void limpiar() {
+		terminos = new String[CAPACIDAD_INICIAL];
+		hashes = new int[CAPACIDAD_INICIAL];
+		ranuras = new int[2 * CAPACIDAD_INICIAL];
+		tamanio = 0;
+		orden = null;
+	}
+
+	/**
+	 * Devuelve el número de palabras de la tabla.
+	 * @return	Número de palabras
+	 */
+	public int tamanio() {
+		return tamanio;
+	}
+
+	/**
+	 * Devuelve la palabra con el identificador dado.
+	 * @param id	Identificador de la palabra
+	 * @return		Palabra
+	 */
+	public String termino(int id) {
+		if (id < 0 || id >= tamanio) {
+			throw new IndexOutOfBoundsException("Identificador no válido: " + id);
+		}
+		return terminos[id];
+	}
+
+	/**
+	 * Devuelve el identificador de una palabra, o -1 si no está en la tabla.
+	 * @param termino	Palabra a buscar
+	 * @return			Identificador de la palabra, o -1
+	 */
+	public int buscar(CharSequence termino) {
+		int h = hash(termino);
+		int mascara = ranuras.length - 1;
+		for (int r = mezclar(h) & mascara; ranuras[r] != 0; r = (r + 1) & mascara) {
+			int id = ranuras[r] - 1;
+			if (hashes[id] == h && terminos[id].contentEquals(termino)) {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Devuelve el identificador de una palabra, añadiéndola a la tabla con un
+	 * nuevo identificador (el siguiente al último asignado) si no estaba.
+	 * @param termino	Palabra a buscar o añadir
+	 * @return			Identificador de la palabra
+	 */
+	public int agregar(CharSequence termino) {
+		int h = hash(termino);
+		int mascara = ranuras.length - 1;
+		int r = mezclar(h) & mascara;
+		while (ranuras[r] != 0) {
+			int id = ranuras[r] - 1;
+			if (hashes[id] == h && terminos[id].contentEquals(termino)) {
+				return id;
+			}
+			r = (r + 1) & mascara;
+		}
+		int id = tamanio++;
+		if (id == terminos.length) {
+			terminos = Arrays.copyOf(terminos, 2 * id);
+			hashes = Arrays.copyOf(hashes, 2 * id);
+		}
+		terminos[id] = termino.toString();
+		hashes[id] = h;
+		ranuras[r] = id + 1;
+		orden = null;
+		if (2 * tamanio > ranuras.length) {
+			redimensionar();
+		}
+		return id;
+	}
+
+	/**
+	 * Devuelve los identificadores de las palabras ordenados según el orden
+	 * lexicográfico de las palabras. El array devuelto no se debe modificar.
+	 * @return	Identificadores en orden lexicográfico
+	 */
+	public int[] ordenLexicografico() {
+		int[] ids = orden;
+		if (ids == null) {
+			String[] ordenados = Arrays.copyOf(terminos, tamanio);
+			Arrays.sort(ordenados);
+			ids = new int[tamanio];
+			for (int i = 0; i < tamanio; ++i) {
+				ids[i] = buscar(ordenados[i]);
+			}
+			orden = ids;
+		}
+		return ids;
+	}
+
+	/**
+	 * Método auxiliar que duplica el tamaño de la tabla hash.
+	 */
+	private void redimensionar() {
+		int[] nuevas = new int[2 * ranuras.length];
+		int mascara = nuevas.length - 1;
+		for (int id = 0; id < tamanio; ++id) {
+			int r = mezclar(hashes[id]) & mascara;
+			while (nuevas[r] != 0) {
+				r = (r + 1) & mascara;
+			}
+			nuevas[r] = id + 1;
+		}
+		ranuras = nuevas;
+	}
+
+	/**
+	 * Método auxiliar que calcula el mismo código hash que String.hashCode para
+	 * cualquier secuencia de caracteres (en un String, ya está calculado).
+	 */
+	private static int hash(CharSequence s) {
+		if (s instanceof String) {
+			return s.hashCode();
+		}
+		int h = 0;
+		for (int i = 0; i < s.length(); ++i) {
+			h = 31 * h + s.charAt(i);
+		}
+		return h;
+	}
+
+	/**
+	 * Método auxiliar que mezcla los bits del código hash para repartir mejor
+	 * las palabras en la tabla.
+	 */
+	private static int mezclar(int h) {
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,265 @@
+package indices;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * La clase Tokenizador divide líneas de texto en palabras según una expresión
+ * regular de delimitadores, con el mismo resultado que se obtendría usando un
+ * Scanner con dicho delimitador sobre cada línea.
+ * La expresión se compila una única vez, y el mismo objeto se reutiliza para
+ * todas las líneas. Cuando los delimitadores son una clase de caracteres simple
+ * (por ejemplo "[ .,:;\\-\\!\\?]+"), se precalcula un mapa de bits con los
+ * caracteres delimitadores y no se usa la expresión regular.
+ * Las palabras se devuelven como límites (inicio, fin) dentro de la línea, sin
+ * necesidad de crear objetos por cada palabra, o pasadas a minúsculas sobre un
+ * buffer que se reutiliza.
+ */
+public class Tokenizador {
+	// Delimitadores tal y como se especificaron
+	private final String delim;
+	// Expresión regular compilada con los delimitadores
+	private final Pattern patron;
+	// Mapa de bits con los caracteres delimitadores (null si no hay vía rápida)
+	private final long[] mapa;
+	// Indica si los delimitadores de la vía rápida se agrupan en secuencias ("+")
+	private final boolean secuencia;
+	// Matcher reutilizable para la vía con expresión regular
+	private Matcher matcher;
+	// Línea actual, su longitud y posición desde la que seguir buscando
+	private CharSequence linea;
+	private int longitud;
+	private int pos;
+	// Límites de la última palabra encontrada
+	private int inicio;
+	private int fin;
+	// Buffer con la última palabra pasada a minúsculas (null si no se ha usado)
+	private Normalizador normalizador;
+
+	/**
+	 * Constructor que compila los delimitadores que se pasan como argumento.
+	 *
+	 * @param delim	Expresión regular con los delimitadores de palabras
+	 * @throws java.util.regex.PatternSyntaxException si la expresión no es válida
+	 */
+	public Tokenizador(String delim) {
+		this.delim = delim;
+		patron = Pattern.compile(delim);
+		boolean mas = delim.endsWith("]+");
+		mapa = mapaDeClase(mas ? delim.substring(0, delim.length() - 1) : delim);
+		secuencia = mas;
+		linea = "";
+	}
+
+	/**
+	 * Devuelve los delimitadores con los que se construyó el tokenizador.
+	 * @return	Expresión regular con los delimitadores
+	 */
+	public String getDelimitadores() {
+		return delim;
+	}
+
+	/**
+	 * Prepara el tokenizador para recorrer las palabras de una nueva línea.
+	 *
+	 * @param linea	Línea a dividir en palabras
+	 */
+	public void reiniciar(CharSequence linea) {
+		this.linea = linea;
+		longitud = linea.length();
+		pos = 0;
+		inicio = 0;
+		fin = 0;
+		if (mapa == null) {
+			if (matcher == null) {
+				matcher = patron.matcher(linea);
+				matcher.useTransparentBounds(true);
+				matcher.useAnchoringBounds(false);
+			} else {
+				matcher.reset(linea);
+			}
+		}
+	}
+
+	/**
+	 * Avanza hasta la siguiente palabra de la línea. Como ocurre con Scanner,
+	 * puede haber palabras vacías si los delimitadores no se agrupan.
+	 *
+	 * @return	true si se ha encontrado otra palabra, false si la línea ha terminado
+	 */
+	public boolean siguiente() {
+		int p = pos;
+		if (p >= longitud) {
+			return false;
+		}
+		int e = finDelimitadorEn(p);
+		if (e >= 0) {
+			p = e;
+		}
+		if (p >= longitud) {
+			pos = longitud;
+			return false;
+		}
+		int s = siguienteDelimitador(p);
+		inicio = p;
+		fin = (s < 0) ? longitud : s;
+		pos = fin;
+		return true;
+	}
+
+	/**
+	 * Devuelve la posición de inicio (incluida) de la última palabra encontrada.
+	 * @return	Posición de inicio dentro de la línea
+	 */
+	public int inicio() {
+		return inicio;
+	}
+
+	/**
+	 * Devuelve la posición de fin (excluida) de la última palabra encontrada.
+	 * @return	Posición de fin dentro de la línea
+	 */
+	public int fin() {
+		return fin;
+	}
+
+	/**
+	 * Devuelve la última palabra encontrada como una cadena de caracteres.
+	 * @return	Palabra encontrada
+	 */
+	public String palabra() {
+		return linea.subSequence(inicio, fin).toString();
+	}
+
+	/**
+	 * Devuelve la última palabra encontrada pasada a minúsculas con Locale.ROOT,
+	 * sin crear objetos si sus caracteres son de Latin-1. La secuencia devuelta
+	 * se reutiliza, por lo que solo es válida hasta la siguiente llamada a este
+	 * método; para conservarla hay que usar toString.
+	 *
+	 * @return	Palabra encontrada, en minúsculas
+	 */
+	public CharSequence palabraMinusculas() {
+		if (normalizador == null) {
+			normalizador = new Normalizador();
+		}
+		return normalizador.normalizar(linea, inicio, fin);
+	}
+
+	/**
+	 * Método auxiliar que devuelve el final de la secuencia de delimitadores
+	 * que empieza exactamente en la posición p, o -1 si no empieza ninguna.
+	 */
+	private int finDelimitadorEn(int p) {
+		if (mapa != null) {
+			if ( ! esDelimitador(linea.charAt(p))) {
+				return -1;
+			}
+			++p;
+			if (secuencia) {
+				while (p < longitud && esDelimitador(linea.charAt(p))) {
+					++p;
+				}
+			}
+			return p;
+		}
+		matcher.region(p, longitud);
+		return matcher.lookingAt() ? matcher.end() : -1;
+	}
+
+	/**
+	 * Método auxiliar que devuelve la posición en que empieza el siguiente
+	 * delimitador a partir de la posición p, o -1 si no hay más delimitadores.
+	 */
+	private int siguienteDelimitador(int p) {
+		if (mapa != null) {
+			while (p < longitud) {
+				if (esDelimitador(linea.charAt(p))) {
+					return p;
+				}
+				++p;
+			}
+			return -1;
+		}
+		matcher.region(p, longitud);
+		boolean encontrado = matcher.find();
+		if (encontrado && matcher.end() == p) {
+			// Delimitador vacío en la posición actual; se busca el siguiente
+			encontrado = matcher.find();
+		}
+		return encontrado ? matcher.start() : -1;
+	}
+
+	private boolean esDelimitador(char c) {
+		int i = c >>> 6;
+		return i < mapa.length && (mapa[i] & (1L << c)) != 0;
+	}
+
+	/**
+	 * Método auxiliar que construye el mapa de bits de una clase de caracteres
+	 * simple de la forma [abc\\-\\!a-z]. Devuelve null si la expresión no es
+	 * una clase de caracteres simple (negaciones, clases anidadas, clases
+	 * predefinidas, etc.), en cuyo caso se usará la expresión regular.
+	 */
+	private static long[] mapaDeClase(String clase) {
+		int n = clase.length();
+		if (n < 3 || clase.charAt(0) != '[' || clase.charAt(n - 1) != ']') {
+			return null;
+		}
+		StringBuilder literales = new StringBuilder();
+		// Para cada literal, indica si es un '-' sin escapar
+		StringBuilder guiones = new StringBuilder();
+		for (int i = 1; i < n - 1; ++i) {
+			char c = clase.charAt(i);
+			if (c == '\\') {
+				if (i + 1 >= n - 1) {
+					return null;
+				}
+				char e = clase.charAt(++i);
+				switch (e) {
+				case 't': c = '\t'; break;
+				case 'n': c = '\n'; break;
+				case 'r': c = '\r'; break;
+				case 'f': c = '\f'; break;
+				default:
+					if (e >= 128 || Character.isLetterOrDigit(e)) {
+						return null;
+					}
+					c = e;
+				}
+				literales.append(c);
+				guiones.append('n');
+			} else if (c == '[' || c == '^' || c == '&' || c == ']'
+					|| Character.isSurrogate(c)) {
+				return null;
+			} else {
+				literales.append(c);
+				guiones.append(c == '-' ? 's' : 'n');
+			}
+		}
+		char max = 0;
+		for (int i = 0; i < literales.length(); ++i) {
+			max = (char) Math.max(max, literales.charAt(i));
+		}
+		long[] mapa = new long[(max >>> 6) + 1];
+		int m = literales.length();
+		for (int i = 0; i < m; ++i) {
+			char c = literales.charAt(i);
+			if (guiones.charAt(i) == 's' && i > 0 && i < m - 1) {
+				// Rango entre el literal anterior y el siguiente
+				char desde = literales.charAt(i - 1);
+				char hasta = literales.charAt(i + 1);
+				if (desde > hasta || (i + 2 < m - 1 && guiones.charAt(i + 2) == 's')) {
+					return null;
+				}
+				for (int k = desde; k <= hasta; ++k) {
+					mapa[k >>> 6] |= 1L << k;
+				}
+				++i;
+			} else {
+				mapa[c >>> 6] |= 1L << c;
+			}
+		}
+		return mapa;
+	}
+}
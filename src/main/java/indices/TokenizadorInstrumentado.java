@@ -0,0 +1,58 @@
+package indices;
+
+/**
+ * Tokenizador que mide el tiempo dedicado a dividir la línea en palabras y a
+ * pasarlas a minúsculas, y cuenta las palabras. Las medidas se acumulan en
+ * campos propios mientras se recorre una línea, y al terminarla se vuelcan,
+ * junto con el tiempo de inserción, en el registro de métricas del índice.
+ */
+class TokenizadorInstrumentado extends Tokenizador {
+	private final RegistroMetricas registro;
+	private long palabras;
+	private long nanosTokenizar;
+	private long nanosNormalizar;
+
+	/**
+	 * Constructor que compila los delimitadores y asocia el registro.
+	 *
+	 * @param delim		Expresión regular con los delimitadores de palabras
+	 * @param registro	Registro en que se acumulan las medidas
+	 */
+	TokenizadorInstrumentado(String delim, RegistroMetricas registro) {
+		super(delim);
+		this.registro = registro;
+	}
+
+	@Override
+	public boolean siguiente() {
+		long t = System.nanoTime();
+		boolean hay = super.siguiente();
+		nanosTokenizar += System.nanoTime() - t;
+		if (hay) {
+			++palabras;
+		}
+		return hay;
+	}
+
+	@Override
+	public CharSequence palabraMinusculas() {
+		long t = System.nanoTime();
+		CharSequence p = super.palabraMinusculas();
+		nanosNormalizar += System.nanoTime() - t;
+		return p;
+	}
+
+	/**
+	 * Vuelca en el registro las medidas de la línea recorrida. El tiempo de
+	 * inserción es el de indexar la línea menos el de tokenizar y normalizar.
+	 *
+	 * @param nanosLinea	Tiempo total dedicado a indexar la línea
+	 */
+	void terminarLinea(long nanosLinea) {
+		long insertar = Math.max(0, nanosLinea - nanosTokenizar - nanosNormalizar);
+		registro.linea(palabras, nanosTokenizar, nanosNormalizar, insertar);
+		palabras = 0;
+		nanosTokenizar = 0;
+		nanosNormalizar = 0;
+	}
+}
@@ -287,12 +287,2066 @@ public class TestRunnerPr52 {
 		//------------------------------------------------------------------
 	}
 	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestTokenizador {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of Tokenizador JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of Tokenizador JUnit Test");
+		}
+		private String tokens(Tokenizador tk, String linea) {
+			StringBuilder sb = new StringBuilder();
+			tk.reiniciar(linea);
+			while (tk.siguiente()) {
+				sb.append('[').append(tk.palabra()).append(']');
+			}
+			return sb.toString();
+		}
+		private String tokensScanner(String delim, String linea) {
+			StringBuilder sb = new StringBuilder();
+			try (java.util.Scanner sc = new java.util.Scanner(linea)) {
+				sc.useDelimiter(delim);
+				while (sc.hasNext()) {
+					sb.append('[').append(sc.next()).append(']');
+				}
+			}
+			return sb.toString();
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void tokenizerCharClassTest1() {
+			Tokenizador tk = new Tokenizador(delimiters);
+			for (String x : inputData) {
+				assertEquals(tokensScanner(delimiters, x), tokens(tk, x), "\n> Error: siguiente():");
+			}
+			assertEquals("", tokens(tk, ""), "\n> Error: siguiente():");
+			assertEquals("[a][b]", tokens(tk, " .a,,b!"), "\n> Error: siguiente():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void tokenizerRegexTest1() {
+			String[] delims = { "[ ,]", ",|;;", "[^a-z]+", "\\s*" };
+			String[] lineas = { "a,,b", ",a b,", "x;;y;z", "  ab  c ", ";;" };
+			for (String d : delims) {
+				Tokenizador tk = new Tokenizador(d);
+				for (String x : lineas) {
+					assertEquals(tokensScanner(d, x), tokens(tk, x), "\n> Error: siguiente(): " + d);
+				}
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestResolverParalelo {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		private static final int numLines = 5000;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of resolverParalelo JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of resolverParalelo JUnit Test");
+		}
+		private void parallelTest(Indice seq, Indice par) {
+			for (int i = 0; i < numLines; ++i) {
+				String x = inputData[i % inputData.length];
+				seq.agregarFrase(x);
+				par.agregarFrase(x);
+			}
+			seq.resolver(delimiters);
+			par.resolverParalelo(delimiters, 4);
+			assertEquals(presentar(seq), presentar(par), "\n> Error: resolverParalelo():");
+		}
+		@Test
+		@Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+		public void counterIndexParallelTest1() {
+			parallelTest(new IndiceContador(), new IndiceContador());
+		}
+		@Test
+		@Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+		public void lineIndexParallelTest1() {
+			parallelTest(new IndiceLineas(), new IndiceLineas());
+		}
+		@Test
+		@Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+		public void positionInIndiceLineasParallelTest1() {
+			parallelTest(new IndicePosicionesEnLineas(), new IndicePosicionesEnLineas());
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestIncremental {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of Incremental JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of Incremental JUnit Test");
+		}
+		private void incrementalTest(IndiceAbstracto seq, IndiceAbstracto inc) {
+			inc.setIncremental(true);
+			inc.agregarFrase(inputData[0]);
+			inc.resolver(delimiters);
+			for (String x : inputData) {
+				seq.agregarFrase(x);
+			}
+			seq.resolver(delimiters);
+			inc.agregarFrase(inputData[1]);
+			inc.agregarFrase(inputData[2]);
+			assertEquals(presentar(seq), presentar(inc), "\n> Error: agregarFrase():");
+			inc.resolver(delimiters);
+			assertEquals(presentar(seq), presentar(inc), "\n> Error: resolver():");
+			seq.resolver("[ ]+");
+			inc.resolver("[ ]+");
+			assertEquals(presentar(seq), presentar(inc), "\n> Error: resolver():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void counterIndexIncrementalTest1() {
+			incrementalTest(new IndiceContador(), new IndiceContador());
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineIndexIncrementalTest1() {
+			incrementalTest(new IndiceLineas(), new IndiceLineas());
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void positionInIndiceLineasIncrementalTest1() {
+			incrementalTest(new IndicePosicionesEnLineas(), new IndicePosicionesEnLineas());
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void newTermsIncrementalTest1() {
+			// Many new words added without calling resolver again
+			IndiceLineas seq = new IndiceLineas();
+			IndiceLineas inc = new IndiceLineas();
+			IndicePosicionesEnLineas seq3 = new IndicePosicionesEnLineas();
+			IndicePosicionesEnLineas inc3 = new IndicePosicionesEnLineas();
+			inc.setIncremental(true);
+			inc3.setIncremental(true);
+			inc.agregarFrase(inputData[0]);
+			inc3.agregarFrase(inputData[0]);
+			inc.resolver(delimiters);
+			inc3.resolver(delimiters);
+			seq.agregarFrase(inputData[0]);
+			seq3.agregarFrase(inputData[0]);
+			for (int i = 0; i < 3000; ++i) {
+				String x = "w" + i + " w" + (i * 7) + " perra";
+				seq.agregarFrase(x);
+				inc.agregarFrase(x);
+				seq3.agregarFrase(x);
+				inc3.agregarFrase(x);
+			}
+			seq.resolver(delimiters);
+			seq3.resolver(delimiters);
+			assertEquals(presentar(seq), presentar(inc), "\n> Error: agregarFrase():");
+			assertEquals(presentar(seq3), presentar(inc3), "\n> Error: agregarFrase():");
+			assertEquals(seq.lineasPatron("w1*").keySet(), inc.lineasPatron("w1*").keySet(), "\n> Error: lineasPatron():");
+			assertEquals(seq3.posicionesPatron("*9").keySet(), inc3.posicionesPatron("*9").keySet(), "\n> Error: posicionesPatron():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestArchivo {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		private java.nio.file.Path file;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of agregarArchivo JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of agregarArchivo JUnit Test");
+		}
+		@BeforeEach
+		public void setUp() throws Exception {
+			// Code executed before each test
+			file = java.nio.file.Files.createTempFile("inputData", ".txt");
+			String text = inputData[0] + "\r\n" + inputData[1] + "\r" + inputData[2] + "\n\nPegó la porra";
+			java.nio.file.Files.write(file, text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+		}
+		@AfterEach
+		public void tearDown() throws Exception {
+			// Code executed after each test
+			java.nio.file.Files.deleteIfExists(file);
+		}
+		private void fileTest(IndiceAbstracto seq, IndiceAbstracto fil, IndiceAbstracto inc) throws Exception {
+			for (String x : inputData) {
+				seq.agregarFrase(x);
+			}
+			seq.agregarFrase("");
+			seq.agregarFrase("Pegó la porra");
+			seq.resolver(delimiters);
+			fil.agregarArchivo(file, java.nio.charset.StandardCharsets.UTF_8);
+			fil.resolver(delimiters);
+			assertEquals(presentar(seq), presentar(fil), "\n> Error: agregarArchivo():");
+			inc.setIncremental(true);
+			inc.resolver(delimiters);
+			inc.agregarArchivo(file, java.nio.charset.StandardCharsets.UTF_8, false);
+			assertEquals(presentar(seq), presentar(inc), "\n> Error: agregarArchivo():");
+			try {
+				inc.resolver("[ ]+");
+				fail("\n> Error: resolver(): IllegalStateException expected");
+			} catch (IllegalStateException e) {
+				// Expected
+			}
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void malformedFileTest1() throws Exception {
+			java.nio.file.Files.write(file, new byte[] { 'l', 'a', ' ', (byte) 0xC3, '\n', 'x' });
+			IndiceLineas mapped = new IndiceLineas();
+			IndiceLineas reader = new IndiceLineas() {
+				@Override
+				public void agregarArchivo(java.nio.file.Path archivo, java.nio.charset.Charset cs) throws java.io.IOException {
+					// BufferedReader path of the Indice interface
+					try (java.io.BufferedReader br = java.nio.file.Files.newBufferedReader(archivo, cs)) {
+						String linea;
+						while ((linea = br.readLine()) != null) {
+							agregarFrase(linea);
+						}
+					}
+				}
+			};
+			for (IndiceLineas il : new IndiceLineas[] { mapped, reader }) {
+				try {
+					il.agregarArchivo(file, java.nio.charset.StandardCharsets.UTF_8);
+					fail("\n> Error: agregarArchivo(): MalformedInputException expected");
+				} catch (java.nio.charset.MalformedInputException e) {
+					// Expected
+				}
+			}
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void counterIndexFileTest1() throws Exception {
+			fileTest(new IndiceContador(), new IndiceContador(), new IndiceContador());
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineIndexFileTest1() throws Exception {
+			fileTest(new IndiceLineas(), new IndiceLineas(), new IndiceLineas());
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void positionInIndiceLineasFileTest1() throws Exception {
+			fileTest(new IndicePosicionesEnLineas(), new IndicePosicionesEnLineas(), new IndicePosicionesEnLineas());
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestListaLineas {
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of ListaLineas JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of ListaLineas JUnit Test");
+		}
+		private String toStr(Iterable<Integer> c) {
+			java.util.StringJoiner sj = new java.util.StringJoiner(",", "<", ">");
+			for (Integer i : c) {
+				sj.add(i.toString());
+			}
+			return sj.toString();
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineListAddTest1() {
+			ListaLineas l1 = new ListaLineas();
+			ListaLineas l2 = new ListaLineas();
+			java.util.SortedSet<Integer> set = new java.util.TreeSet<>();
+			int[] lines = { 1, 1, 2, 127, 128, 300, 16384, 2097152, Integer.MAX_VALUE };
+			for (int i = 0; i < lines.length; ++i) {
+				(i < 5 ? l1 : l2).agregar(lines[i]);
+				set.add(lines[i]);
+			}
+			l1.agregarTodas(l2);
+			assertEquals(toStr(set), toStr(l1), "\n> Error: agregarTodas():");
+			assertEquals(set.size(), l1.tamanio(), "\n> Error: tamanio():");
+			assertEquals(Integer.MAX_VALUE, l1.ultima(), "\n> Error: ultima():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestAlmacenLineas {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of AlmacenLineas JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of AlmacenLineas JUnit Test");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineStoreGetTest1() {
+			AlmacenLineas al = new AlmacenLineas();
+			java.util.List<String> lines = new java.util.ArrayList<>();
+			StringBuilder big = new StringBuilder();
+			while (big.length() < 100000) {
+				big.append(inputData[1]);
+			}
+			String[] extra = { "", "Pegó la porra", "\u20AC \u00F1 \u4E2D", big.toString() };
+			for (int i = 0; i < 5000; ++i) {
+				String x = (i % 7 == 0) ? extra[(i / 7) % extra.length] : inputData[i % inputData.length];
+				al.add(x);
+				lines.add(x);
+			}
+			assertEquals(lines.size(), al.size(), "\n> Error: size():");
+			for (int i = 0; i < lines.size(); ++i) {
+				assertEquals(lines.get(i), al.get(i), "\n> Error: get():");
+				assertEquals(lines.get(i), al.vista(i).toString(), "\n> Error: vista():");
+			}
+			assertEquals("la porra", al.vista(7).subSequence(5, 13), "\n> Error: subSequence():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineStoreSubclassTest1() {
+			java.util.List<java.util.List<String>> view = new java.util.ArrayList<>();
+			IndiceLineas il = new IndiceLineas() {
+				{
+					view.add(frases);
+				}
+			};
+			for (String x : inputData) {
+				il.agregarFrase(x);
+			}
+			assertEquals(java.util.Arrays.asList(inputData), view.get(0), "\n> Error: frases:");
+			view.get(0).add("otra perra");
+			il.resolver(delimiters);
+			assertTrue(presentar(il).contains("otra"), "\n> Error: frases:");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestConsultas {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of Consultas JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of Consultas JUnit Test");
+		}
+		private String toStr(ListaPosiciones lp) {
+			StringBuilder sb = new StringBuilder();
+			ListaPosiciones.Cursor c = lp.cursor();
+			while (c.siguiente()) {
+				sb.append(c.linea()).append(':').append(c.posicion()).append(' ');
+			}
+			return sb.toString().trim();
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void counterIndexFrequencyTest1() {
+			IndiceContador cp1 = new IndiceContador();
+			for (String x : inputData) {
+				cp1.agregarFrase(x);
+			}
+			cp1.resolver(delimiters);
+			assertEquals(7, cp1.frecuencia("Parra"), "\n> Error: frecuencia():");
+			assertEquals(10, cp1.frecuencia("la"), "\n> Error: frecuencia():");
+			assertEquals(0, cp1.frecuencia("cantaro"), "\n> Error: frecuencia():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineIndexLinesTest1() {
+			IndiceLineas cp1 = new IndiceLineas();
+			for (String x : inputData) {
+				cp1.agregarFrase(x);
+			}
+			cp1.resolver(delimiters);
+			StringBuilder sb = new StringBuilder();
+			for (java.util.PrimitiveIterator.OfInt it = cp1.lineas("Jarra").iterator(); it.hasNext(); ) {
+				sb.append(it.nextInt()).append(' ');
+			}
+			assertEquals("1 3", sb.toString().trim(), "\n> Error: lineas():");
+			assertEquals(0, cp1.lineas("cantaro").tamanio(), "\n> Error: lineas():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void positionInIndiceLineasPhraseTest1() {
+			IndicePosicionesEnLineas cp1 = new IndicePosicionesEnLineas();
+			for (String x : inputData) {
+				cp1.agregarFrase(x);
+			}
+			cp1.resolver(delimiters);
+			assertEquals("1:11 1:16 2:4 2:7 2:22 2:25 3:3 3:10 3:19 3:22", toStr(cp1.posiciones("LA")), "\n> Error: posiciones():");
+			assertEquals("1:12 2:8 2:26 3:4 3:23", toStr(cp1.buscarFrase("perra", "de", "Parra")), "\n> Error: buscarFrase():");
+			assertEquals("2:4 2:22 3:19", toStr(cp1.buscarFrase("la", "porra")), "\n> Error: buscarFrase():");
+			assertEquals("", toStr(cp1.buscarFrase("parra", "perra")), "\n> Error: buscarFrase():");
+			assertEquals("", toStr(cp1.buscarFrase("la", "cantaro")), "\n> Error: buscarFrase():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestSegmento {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		private java.nio.file.Path file;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of IndiceSegmento JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of IndiceSegmento JUnit Test");
+		}
+		@BeforeEach
+		public void setUp() throws Exception {
+			// Code executed before each test
+			file = java.nio.file.Files.createTempFile("outputData", ".idx");
+		}
+		@AfterEach
+		public void tearDown() throws Exception {
+			// Code executed after each test
+			java.nio.file.Files.deleteIfExists(file);
+		}
+		private IndiceSegmento segmentTest(IndiceAbstracto cp1, IndiceSegmento.Tipo tipo) throws Exception {
+			for (String x : inputData) {
+				cp1.agregarFrase(x);
+			}
+			cp1.resolver(delimiters);
+			cp1.guardar(file);
+			IndiceSegmento seg = IndiceSegmento.abrir(file);
+			assertEquals(tipo, seg.getTipo(), "\n> Error: getTipo():");
+			assertEquals(presentar(cp1), presentar(seg), "\n> Error: presentarIndice():");
+			return seg;
+		}
+		private String lines(java.util.PrimitiveIterator.OfInt it) {
+			StringBuilder sb = new StringBuilder();
+			while (it.hasNext()) {
+				sb.append(it.nextInt()).append(' ');
+			}
+			return sb.toString().trim();
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void counterIndexSegmentTest1() throws Exception {
+			try (IndiceSegmento seg = segmentTest(new IndiceContador(), IndiceSegmento.Tipo.CONTADOR)) {
+				assertEquals(7, seg.frecuencia("Parra"), "\n> Error: frecuencia():");
+				assertEquals(0, seg.frecuencia("cantaro"), "\n> Error: frecuencia():");
+			}
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineIndexSegmentTest1() throws Exception {
+			try (IndiceSegmento seg = segmentTest(new IndiceLineas(), IndiceSegmento.Tipo.LINEAS)) {
+				assertEquals("1 3", lines(seg.lineas("jarra")), "\n> Error: lineas():");
+				assertEquals("", lines(seg.lineas("cantaro")), "\n> Error: lineas():");
+			}
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void positionInIndiceLineasSegmentTest1() throws Exception {
+			try (IndiceSegmento seg = segmentTest(new IndicePosicionesEnLineas(), IndiceSegmento.Tipo.POSICIONES)) {
+				assertEquals("1 2 3", lines(seg.lineas("la")), "\n> Error: lineas():");
+				assertEquals(10, seg.frecuencia("la"), "\n> Error: frecuencia():");
+			}
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void segmentSearchTest1() throws Exception {
+			// UTF-16 order puts U+10000 and above before U+E000..U+FFFF, unlike UTF-8 bytes
+			String[] words = { "a", "b\u00F1", "\u00F1u", "\u4E2D", "\uD83D\uDE00", "\uD83D\uDE00x", "\uF900", "\uFF21z" };
+			IndiceContador cp1 = new IndiceContador();
+			for (int i = 0; i < words.length; ++i) {
+				cp1.agregarFrase(String.join(" ", java.util.Arrays.copyOf(words, i + 1)));
+			}
+			cp1.resolver(delimiters);
+			cp1.guardar(file);
+			IndiceSegmento seg = IndiceSegmento.abrir(file);
+			try (seg) {
+				assertEquals(presentar(cp1), presentar(seg), "\n> Error: presentarIndice():");
+				for (int i = 0; i < words.length; ++i) {
+					assertEquals(words.length - i, seg.frecuencia(words[i]), "\n> Error: frecuencia():");
+				}
+				assertEquals(-1, seg.buscar("\uD83D\uDE01"), "\n> Error: buscar():");
+				assertEquals(-1, seg.buscar("\uFFFD"), "\n> Error: buscar():");
+			}
+			try {
+				seg.buscar("a");
+				fail("\n> Error: buscar(): IllegalStateException expected");
+			} catch (IllegalStateException e) {
+				// Expected
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestIndiceSegmentado {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		private static final int numLines = 600;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of IndiceSegmentado JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of IndiceSegmentado JUnit Test");
+		}
+		private void segmentedTest(java.util.function.Supplier<IndiceAbstracto> factory) throws Exception {
+			IndiceAbstracto seq = factory.get();
+			try (IndiceSegmentado seg = new IndiceSegmentado(factory, 4)) {
+				for (int i = 0; i < numLines / 2; ++i) {
+					seq.agregarFrase(inputData[i % inputData.length]);
+					seg.agregarFrase(inputData[i % inputData.length]);
+				}
+				seg.resolver(delimiters);
+				for (int i = numLines / 2; i < numLines; ++i) {
+					seq.agregarFrase(inputData[i % inputData.length]);
+					seg.agregarFrase(inputData[i % inputData.length]);
+				}
+				seg.resolver(delimiters);
+				seq.resolver(delimiters);
+				seg.esperarFusiones();
+				assertTrue(seg.numSegmentos() < 10, "\n> Error: numSegmentos():");
+				assertEquals(presentar(seq), presentar(seg), "\n> Error: presentarIndice():");
+				seg.resolver("[ .,]+");
+				seq.resolver("[ .,]+");
+				seg.esperarFusiones();
+				assertTrue(seg.numSegmentos() < 10, "\n> Error: numSegmentos():");
+				assertEquals(presentar(seq), presentar(seg), "\n> Error: presentarIndice():");
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void counterSegmentedTest1() throws Exception {
+			segmentedTest(IndiceContador::new);
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void lineSegmentedTest1() throws Exception {
+			segmentedTest(IndiceLineas::new);
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void positionInLineSegmentedTest1() throws Exception {
+			segmentedTest(IndicePosicionesEnLineas::new);
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestDiccionarioTerminos {
+		private java.util.TreeSet<String> words;
+		private DiccionarioTerminos dic;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of DiccionarioTerminos JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of DiccionarioTerminos JUnit Test");
+		}
+		@BeforeEach
+		public void setUp() {
+			// Code executed before each test
+			java.util.Random rnd = new java.util.Random(13);
+			String[] syllables = { "pe", "ga", "do", "r", "o", "pa", "rra", "ñ", "á", "\u4e2d", "\ud83d\ude00" };
+			words = new java.util.TreeSet<>();
+			while (words.size() < 5000) {
+				StringBuilder sb = new StringBuilder();
+				for (int i = rnd.nextInt(5); i >= 0; --i) {
+					sb.append(syllables[rnd.nextInt(syllables.length)]);
+				}
+				words.add(sb.toString());
+			}
+			DiccionarioTerminos.Creador creador = new DiccionarioTerminos.Creador();
+			for (String w : words) {
+				creador.agregar(w);
+			}
+			dic = creador.crear();
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void dictionaryLookupTest1() throws Exception {
+			assertEquals(words.size(), dic.tamanio(), "\n> Error: tamanio():");
+			int id = 0;
+			for (String w : words) {
+				assertEquals(id, dic.buscar(w), "\n> Error: buscar(" + w + "):");
+				assertEquals(w, dic.termino(id), "\n> Error: termino():");
+				assertEquals(-1, dic.buscar(w + "z"), "\n> Error: buscar(" + w + "z):");
+				assertEquals(-1, dic.buscar(w.substring(1) + "-"), "\n> Error: buscar():");
+				++id;
+			}
+			assertEquals(-1, dic.buscar(""), "\n> Error: buscar():");
+			assertEquals(-1, dic.buscar("zzz"), "\n> Error: buscar():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void dictionaryCursorTest1() throws Exception {
+			DiccionarioTerminos.Cursor c = dic.cursor();
+			int chars = 0;
+			for (String w : words) {
+				assertTrue(c.siguiente(), "\n> Error: siguiente():");
+				assertEquals(w, c.termino(), "\n> Error: termino():");
+				chars += w.length();
+			}
+			assertTrue( ! c.siguiente(), "\n> Error: siguiente():");
+			assertTrue(dic.numBytes() < chars, "\n> Error: numBytes():");
+			assertEquals(-1, DiccionarioTerminos.vacio().buscar("parra"), "\n> Error: vacio():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestPresentar {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		private static final String[] extraData = {
+				"Electroencefalografista y electroencefalografistas, cigüeña y ñandú.",
+				"Parra Parra Parra Parra Parra Parra Parra Parra Parra Parra Parra Parra"
+			};
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of presentarIndice JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of presentarIndice JUnit Test");
+		}
+		private void outputTest(Indice ind) throws Exception {
+			for (String x : inputData) {
+				ind.agregarFrase(x);
+			}
+			for (String x : extraData) {
+				ind.agregarFrase(x);
+			}
+			ind.resolver(delimiters);
+			String expected = presentar(ind);
+			for (java.nio.charset.Charset cs : new java.nio.charset.Charset[] {
+					java.nio.charset.StandardCharsets.UTF_8, java.nio.charset.StandardCharsets.ISO_8859_1 }) {
+				java.io.ByteArrayOutputStream os = new java.io.ByteArrayOutputStream();
+				ind.presentarIndice(os, cs);
+				assertEquals(expected, os.toString(cs), "\n> Error: presentarIndice(OutputStream):");
+			}
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void counterOutputTest1() throws Exception {
+			IndiceContador cp1 = new IndiceContador();
+			outputTest(cp1);
+			java.io.StringWriter sw = new java.io.StringWriter();
+			try (PrintWriter pw = new PrintWriter(sw)) {
+				pw.printf("%-10s %4d\n", "electroencefalografista", 1);
+				pw.printf("%-10s %4d\n", "electroencefalografistas", 1);
+			}
+			assertTrue(presentar(cp1).contains(sw.toString()), "\n> Error: presentarIndice():");
+			assertTrue(presentar(cp1).contains(String.format("%-10s %4d\n", "parra", 19)), "\n> Error: presentarIndice():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void lineOutputTest1() throws Exception {
+			IndiceLineas cp1 = new IndiceLineas();
+			outputTest(cp1);
+			assertTrue(presentar(cp1).contains(String.format("%-10s %s\n", "cigüeña", "<4>")), "\n> Error: presentarIndice():");
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void positionInLineOutputTest1() throws Exception {
+			IndicePosicionesEnLineas cp1 = new IndicePosicionesEnLineas();
+			outputTest(cp1);
+			assertTrue(presentar(cp1).contains(String.format("%10s %4d %s\n", "", 5, "<1,2,3,4,5,6,7,8,9,10,11,12>")), "\n> Error: presentarIndice():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestTopK {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of topK JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of topK JUnit Test");
+		}
+		private String expectedTopK(Indice ind, int k) {
+			java.util.List<String[]> rows = new java.util.ArrayList<>();
+			for (String row : presentar(ind).split("\n")) {
+				rows.add(row.trim().split("\\s+"));
+			}
+			rows.sort((a, b) -> a[1].equals(b[1]) ? a[0].compareTo(b[0]) : Integer.parseInt(b[1]) - Integer.parseInt(a[1]));
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < k && i < rows.size(); ++i) {
+				sb.append(rows.get(i)[0]).append(' ').append(rows.get(i)[1]).append('\n');
+			}
+			return sb.toString();
+		}
+		private String topK(ListaFrecuencias lf) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < lf.tamanio(); ++i) {
+				sb.append(lf.palabra(i)).append(' ').append(lf.frecuencia(i)).append('\n');
+			}
+			return sb.toString();
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void topKTest1() throws Exception {
+			IndiceContador cp1 = new IndiceContador();
+			for (String x : inputData) {
+				cp1.agregarFrase(x);
+			}
+			cp1.resolver(delimiters);
+			assertEquals("la 10\nde 8\nparra 7\n", topK(cp1.topK(3)), "\n> Error: topK():");
+			for (int k : new int[] { 0, 1, 5, 10, 100 }) {
+				assertEquals(expectedTopK(cp1, k), topK(cp1.topK(k)), "\n> Error: topK(" + k + "):");
+			}
+		}
+		@Test
+		@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+		public void continuousTopKTest1() throws Exception {
+			java.util.Random rnd = new java.util.Random(15);
+			IndiceContador cp1 = new IndiceContador();
+			cp1.setIncremental(true);
+			cp1.resolver(delimiters);
+			cp1.setTopKContinuo(8);
+			for (int i = 0; i < 300; ++i) {
+				StringBuilder sb = new StringBuilder();
+				for (int j = 0; j < 10; ++j) {
+					sb.append('w').append((int) Math.sqrt(rnd.nextInt(900))).append(' ');
+				}
+				cp1.agregarFrase(sb.toString());
+				if (i % 30 == 0) {
+					assertEquals(expectedTopK(cp1, 5), topK(cp1.topK(5)), "\n> Error: topK():");
+					assertEquals(expectedTopK(cp1, 8), topK(cp1.topK(8)), "\n> Error: topK():");
+				}
+			}
+			cp1.resolverParalelo("[ w]+", 2);
+			assertEquals(expectedTopK(cp1, 8), topK(cp1.topK(8)), "\n> Error: topK():");
+			assertEquals(expectedTopK(cp1, 12), topK(cp1.topK(12)), "\n> Error: topK():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestAproximado {
+		private static final int numLines = 4000;
+		private String[] lines;
+		private IndiceContador exact;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of approximate IndiceContador JUnit Test");
+			java.util.Random rnd = new java.util.Random(16);
+			lines = new String[numLines];
+			for (int i = 0; i < numLines; ++i) {
+				StringBuilder sb = new StringBuilder();
+				for (int j = 0; j < 10; ++j) {
+					sb.append('w').append((int) Math.pow(rnd.nextInt(50000), 2) / 50000).append(' ');
+				}
+				lines[i] = sb.toString();
+			}
+			exact = new IndiceContador();
+			for (String x : lines) {
+				exact.agregarFrase(x);
+			}
+			exact.resolver(" ");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of approximate IndiceContador JUnit Test");
+		}
+		@Test
+		@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+		public void approximateCounterTest1() throws Exception {
+			IndiceContador cp1 = new IndiceContador();
+			cp1.setAproximado(1e-3, 1e-3, 0.01);
+			assertTrue(cp1.isAproximado(), "\n> Error: isAproximado():");
+			for (String x : lines) {
+				cp1.agregarFrase(x);
+			}
+			cp1.resolver(" ");
+			long total = 10L * numLines;
+			for (String w : new String[] { "w0", "w1", "w2", "w100", "w10000", "w49998", "zzz" }) {
+				int f = exact.frecuencia(w);
+				int e = cp1.frecuencia(w);
+				assertTrue(e >= f && e <= f + 1e-3 * total, "\n> Error: frecuencia(" + w + "): " + f + " " + e);
+			}
+			long distinct = exact.numPalabrasDistintas();
+			assertTrue(Math.abs(cp1.numPalabrasDistintas() - distinct) < 0.05 * distinct, "\n> Error: numPalabrasDistintas():");
+			try {
+				presentar(cp1);
+				fail("\n> Error: presentarIndice(): IllegalStateException expected");
+			} catch (IllegalStateException e) {
+				// Expected
+			}
+		}
+		@Test
+		@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+		public void approximateCounterParallelTest1() throws Exception {
+			IndiceContador seq = new IndiceContador();
+			IndiceContador par = new IndiceContador();
+			seq.setAproximado(true);
+			par.setAproximado(true);
+			for (String x : lines) {
+				seq.agregarFrase(x);
+				par.agregarFrase(x);
+			}
+			seq.resolver(" ");
+			par.resolverParalelo(" ", 4);
+			assertEquals(seq.numPalabrasDistintas(), par.numPalabrasDistintas(), "\n> Error: numPalabrasDistintas():");
+			for (int i = 0; i < 1000; i += 7) {
+				assertEquals(seq.frecuencia("w" + i), par.frecuencia("w" + i), "\n> Error: frecuencia():");
+			}
+			par.setAproximado(false);
+			par.resolver(" ");
+			assertEquals(presentar(exact), presentar(par), "\n> Error: setAproximado(false):");
+		}
+		@Test
+		@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+		public void approximateMergeModeTest1() throws Exception {
+			java.nio.file.Path file = java.nio.file.Files.createTempFile("aproximado", ".txt");
+			try {
+				java.nio.file.Files.write(file, java.util.Arrays.asList(lines).subList(0, 100));
+				java.util.List<java.nio.file.Path> files = java.util.Arrays.asList(file, file);
+				// Approximate destination, exact partials
+				IndiceContador approx = new IndiceContador();
+				approx.setAproximado(true);
+				try {
+					new IndexadorArchivos(IndiceContador::new, " ").indexar(files, approx);
+					fail("\n> Error: indexar(): IllegalArgumentException expected");
+				} catch (IllegalArgumentException e) {
+					// Expected
+				}
+				assertEquals(0, approx.frecuencia(lines[0].split(" ")[0]), "\n> Error: indexar():");
+				// Exact destination, approximate partials
+				IndiceContador exactDest = new IndiceContador();
+				IndexadorArchivos approxFiles = new IndexadorArchivos(() -> {
+					IndiceContador ic = new IndiceContador();
+					ic.setAproximado(true);
+					return ic;
+				}, " ");
+				try {
+					approxFiles.indexar(files, exactDest);
+					fail("\n> Error: indexar(): IllegalArgumentException expected");
+				} catch (IllegalArgumentException e) {
+					// Expected
+				}
+				assertEquals("", presentar(exactDest), "\n> Error: indexar():");
+			} finally {
+				java.nio.file.Files.deleteIfExists(file);
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestConcurrente {
+		private static final int numThreads = 8;
+		private static final int numLines = 2000;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of concurrent ingestion JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of concurrent ingestion JUnit Test");
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void concurrentIngestionTest1() throws Exception {
+			IndiceLineas cp1 = new IndiceLineas();
+			cp1.setIncremental(true);
+			cp1.setConcurrente(true);
+			assertTrue(cp1.isConcurrente(), "\n> Error: isConcurrente():");
+			java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+			Thread[] producers = new Thread[numThreads];
+			for (int t = 0; t < numThreads; ++t) {
+				final int id = t;
+				producers[t] = new Thread(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < numLines; ++i) {
+						cp1.agregarFrase("t" + id + "x" + i + " comun");
+					}
+				});
+				producers[t].start();
+			}
+			start.countDown();
+			// Snapshots while the producers keep adding lines
+			for (int i = 0; i < 5; ++i) {
+				cp1.resolver(" ");
+				Thread.sleep(1);
+			}
+			for (Thread p : producers) {
+				p.join();
+			}
+			cp1.resolver(" ");
+			String incremental = presentar(cp1);
+			boolean[] seen = new boolean[numThreads * numLines + 1];
+			for (int t = 0; t < numThreads; ++t) {
+				int last = 0;
+				for (int i = 0; i < numLines; ++i) {
+					ListaLineas ll = cp1.lineas("t" + t + "x" + i);
+					assertEquals(1, ll.tamanio(), "\n> Error: lineas():");
+					int line = ll.ultima();
+					assertTrue(line > last && ! seen[line], "\n> Error: line order:");
+					seen[line] = true;
+					last = line;
+				}
+			}
+			assertEquals(numThreads * numLines, cp1.lineas("comun").tamanio(), "\n> Error: lineas():");
+			cp1.resolver("[ ]+");
+			cp1.resolver(" ");
+			assertEquals(incremental, presentar(cp1), "\n> Error: resolver():");
+			cp1.setConcurrente(false);
+		}
+		//------------------------------------------------------------------
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void concurrentSwitchOffTest1() throws Exception {
+			IndiceLineas cp1 = new IndiceLineas();
+			cp1.setIncremental(true);
+			cp1.setConcurrente(true);
+			java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+			java.util.concurrent.atomic.AtomicInteger added = new java.util.concurrent.atomic.AtomicInteger();
+			Thread[] producers = new Thread[numThreads];
+			for (int t = 0; t < numThreads; ++t) {
+				final int id = t;
+				producers[t] = new Thread(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < numLines; ++i) {
+						cp1.agregarFrase("t" + id + "x" + i + " comun");
+						added.incrementAndGet();
+					}
+				});
+				producers[t].start();
+			}
+			start.countDown();
+			cp1.resolver(" ");
+			// Concurrent mode is switched off while the producers keep adding lines
+			while (added.get() < numThreads * numLines / 4) {
+				Thread.onSpinWait();
+			}
+			cp1.setConcurrente(false);
+			assertTrue( ! cp1.isConcurrente(), "\n> Error: isConcurrente():");
+			for (Thread p : producers) {
+				p.join();
+			}
+			cp1.resolver(" ");
+			boolean[] seen = new boolean[numThreads * numLines + 1];
+			for (int t = 0; t < numThreads; ++t) {
+				int last = 0;
+				for (int i = 0; i < numLines; ++i) {
+					ListaLineas ll = cp1.lineas("t" + t + "x" + i);
+					assertEquals(1, ll.tamanio(), "\n> Error: lineas():");
+					int line = ll.ultima();
+					assertTrue(line > last && ! seen[line], "\n> Error: line order:");
+					seen[line] = true;
+					last = line;
+				}
+			}
+			assertEquals(numThreads * numLines, cp1.lineas("comun").tamanio(), "\n> Error: lineas():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestPipeline {
+		private static final int numFiles = 60;
+		private java.nio.file.Path dir;
+		private java.util.List<java.nio.file.Path> files;
+		@BeforeAll
+		public void beforeClass() throws Exception {
+			// Code executed before the first test method
+			System.out.println("Start of file pipeline JUnit Test");
+			dir = java.nio.file.Files.createTempDirectory("pipelineData");
+			files = new java.util.ArrayList<>();
+			java.util.Random rnd = new java.util.Random(7);
+			for (int f = 0; f < numFiles; ++f) {
+				StringBuilder sb = new StringBuilder();
+				int lines = rnd.nextInt(40);
+				for (int i = 0; i < lines; ++i) {
+					for (int w = rnd.nextInt(6); w >= 0; --w) {
+						sb.append(" w").append(rnd.nextInt(50));
+					}
+					sb.append(i % 3 == 0 ? "\r\n" : "\n");
+				}
+				java.nio.file.Path file = dir.resolve("f" + f + ".txt");
+				java.nio.file.Files.write(file, sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+				files.add(file);
+			}
+		}
+		@AfterAll
+		public void afterClass() throws Exception {
+			// Code executed after the last test method
+			for (java.nio.file.Path file : files) {
+				java.nio.file.Files.deleteIfExists(file);
+			}
+			java.nio.file.Files.deleteIfExists(dir);
+			System.out.println("End of file pipeline JUnit Test");
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void pipelineGlobalTest1() throws Exception {
+			java.util.List<java.util.function.Supplier<IndiceAbstracto>> factories = java.util.List.of(
+					IndiceContador::new, IndiceLineas::new, IndicePosicionesEnLineas::new);
+			for (java.util.function.Supplier<IndiceAbstracto> factory : factories) {
+				IndiceAbstracto seq = factory.get();
+				for (java.nio.file.Path file : files) {
+					seq.agregarArchivo(file, java.nio.charset.StandardCharsets.UTF_8);
+				}
+				seq.resolver(" ");
+				IndexadorArchivos ia = new IndexadorArchivos(factory, " ");
+				ia.setTrabajadores(3);
+				int[] next = {1, 0};
+				ia.setProgreso((file, first, lines, done, total) -> {
+					assertEquals(files.get(next[1]), file, "\n> Error: archivoIndexado():");
+					assertEquals(next[0], first, "\n> Error: archivoIndexado():");
+					assertEquals(++next[1], done, "\n> Error: archivoIndexado():");
+					assertEquals(numFiles, total, "\n> Error: archivoIndexado():");
+					next[0] += lines;
+				});
+				IndiceAbstracto cp1 = ia.indexar(files);
+				assertEquals(numFiles, next[1], "\n> Error: indexar():");
+				assertEquals(presentar(seq), presentar(cp1), "\n> Error: indexar():");
+				// The result is a regular index, with the text of every line
+				cp1.resolver("[ ]+");
+				cp1.resolver(" ");
+				assertEquals(presentar(seq), presentar(cp1), "\n> Error: resolver():");
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void pipelinePerFileTest1() throws Exception {
+			IndexadorArchivos ia = new IndexadorArchivos(IndiceLineas::new, " ");
+			java.util.Map<java.nio.file.Path, IndiceAbstracto> res = ia.indexarPorArchivo(files);
+			assertEquals(files, new java.util.ArrayList<>(res.keySet()), "\n> Error: indexarPorArchivo():");
+			for (java.nio.file.Path file : files) {
+				IndiceLineas seq = new IndiceLineas();
+				seq.agregarArchivo(file, java.nio.charset.StandardCharsets.UTF_8);
+				seq.resolver(" ");
+				assertEquals(presentar(seq), presentar(res.get(file)), "\n> Error: indexarPorArchivo():");
+			}
+			java.nio.file.Path missing = dir.resolve("missing.txt");
+			try {
+				ia.indexar(java.util.List.of(files.get(0), missing));
+				fail("\n> Error: indexar(): missing file");
+			} catch (java.io.IOException e) {
+				// Expected
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestMinusculas {
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of case folding JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of case folding JUnit Test");
+		}
+		@Test
+		@Timeout(value = 500, unit = TimeUnit.MILLISECONDS)
+		public void caseFoldingTest1() {
+			java.util.Locale locale = java.util.Locale.getDefault();
+			try {
+				java.util.Locale.setDefault(java.util.Locale.forLanguageTag("tr"));
+				IndiceLineas cp1 = new IndiceLineas();
+				cp1.agregarFrase("TITLE of the Index");
+				cp1.agregarFrase("the title");
+				cp1.resolver(" ");
+				assertAll("caseFoldingTest1",
+						() -> assertEquals(2, cp1.lineas("title").tamanio(), "\n> Error: lineas():"),
+						() -> assertEquals(2, cp1.lineas("TITLE").tamanio(), "\n> Error: lineas():"),
+						() -> assertEquals(1, cp1.lineas("index").tamanio(), "\n> Error: lineas():"));
+			} finally {
+				java.util.Locale.setDefault(locale);
+			}
+		}
+		@Test
+		@Timeout(value = 500, unit = TimeUnit.MILLISECONDS)
+		public void caseFoldingTest2() {
+			String[] words = {"ÁRBOL", "Árbol", "árbol", "ÑANDÚ", "ñandú", "Straße", "ΟΔΟΣ", "οδος", "ODOS", "odos", "X"};
+			IndiceContador cp1 = new IndiceContador();
+			cp1.agregarFrase(String.join(" ", words));
+			cp1.resolver(" ");
+			for (String w : words) {
+				int expected = 0;
+				for (String o : words) {
+					if (o.toLowerCase(java.util.Locale.ROOT).equals(w.toLowerCase(java.util.Locale.ROOT))) {
+						++expected;
+					}
+				}
+				assertEquals(expected, cp1.frecuencia(w), "\n> Error: frecuencia(" + w + "):");
+			}
+			assertEquals(6, cp1.numPalabrasDistintas(), "\n> Error: numPalabrasDistintas():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestMetricas {
+		private static final int numLines = 3000;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of metrics JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of metrics JUnit Test");
+		}
+		private void fill(Indice ind) {
+			for (int i = 0; i < numLines; ++i) {
+				ind.agregarFrase("Linea " + i + " con CINCO palabras " + (i % 7));
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void metricsTest1() {
+			IndiceLineas plain = new IndiceLineas();
+			fill(plain);
+			plain.resolver(" ");
+			assertEquals(null, plain.getMetricas(), "\n> Error: getMetricas():");
+			for (int paralelismo : new int[] {1, 4}) {
+				IndiceLineas cp1 = new IndiceLineas();
+				cp1.setInstrumentado(true);
+				assertTrue(cp1.isInstrumentado(), "\n> Error: isInstrumentado():");
+				fill(cp1);
+				cp1.resolverParalelo(" ", paralelismo);
+				assertEquals(presentar(plain), presentar(cp1), "\n> Error: presentarIndice():");
+				Metricas m = cp1.getMetricas();
+				assertAll("metricsTest1",
+						() -> assertEquals(numLines, m.lineas(), "\n> Error: lineas():"),
+						() -> assertEquals(6L * numLines, m.palabras(), "\n> Error: palabras():"),
+						() -> assertEquals(numLines + 4, m.maxTerminos(), "\n> Error: maxTerminos():"),
+						() -> assertEquals(6L * numLines - 7, m.maxApariciones(), "\n> Error: maxApariciones():"),
+						() -> assertTrue(m.palabrasPorSegundo() > 0, "\n> Error: palabrasPorSegundo():"),
+						() -> assertTrue(m.nanosTokenizar() > 0 && m.nanosNormalizar() > 0 && m.nanosInsertar() > 0, "\n> Error: nanos():"),
+						() -> assertTrue(m.nanosPresentar() > 0, "\n> Error: nanosPresentar():"));
+			}
+		}
+		@Test
+		@Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+		public void metricsFlightRecorderTest1() throws Exception {
+			java.nio.file.Path file = java.nio.file.Files.createTempFile("metrics", ".jfr");
+			try (jdk.jfr.Recording rec = new jdk.jfr.Recording()) {
+				rec.enable("indices.Construccion");
+				rec.enable("indices.Presentacion");
+				rec.start();
+				IndiceContador cp1 = new IndiceContador();
+				cp1.setInstrumentado(true);
+				fill(cp1);
+				cp1.resolver(" ");
+				presentar(cp1);
+				rec.stop();
+				rec.dump(file);
+				java.util.List<jdk.jfr.consumer.RecordedEvent> events = jdk.jfr.consumer.RecordingFile.readAllEvents(file);
+				jdk.jfr.consumer.RecordedEvent build = null;
+				int shown = 0;
+				for (jdk.jfr.consumer.RecordedEvent e : events) {
+					if (e.getEventType().getName().equals("indices.Construccion")) {
+						build = e;
+					} else if (e.getEventType().getName().equals("indices.Presentacion")) {
+						++shown;
+					}
+				}
+				assertTrue(build != null, "\n> Error: indices.Construccion:");
+				assertEquals("resolver", build.getString("operacion"), "\n> Error: indices.Construccion:");
+				assertEquals(numLines, build.getLong("lineas"), "\n> Error: indices.Construccion:");
+				assertEquals(6L * numLines, build.getLong("palabras"), "\n> Error: indices.Construccion:");
+				assertEquals(1, shown, "\n> Error: indices.Presentacion:");
+			} finally {
+				java.nio.file.Files.deleteIfExists(file);
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestCompuesto {
+		private static final String delimiters = "[ .,:;\\-\\!\\?]+";
+		private static final int numLines = 3000;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of IndiceCompuesto JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of IndiceCompuesto JUnit Test");
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void compositeViewsTest1() {
+			IndiceAbstracto[] single = { new IndiceContador(), new IndiceLineas(), new IndicePosicionesEnLineas() };
+			IndiceCompuesto cp1 = new IndiceCompuesto();
+			IndiceCompuesto cp2 = new IndiceCompuesto();
+			for (int i = 0; i < numLines; ++i) {
+				String line = inputData[i % inputData.length] + " " + i;
+				for (IndiceAbstracto ind : single) {
+					ind.agregarFrase(line);
+				}
+				cp1.agregarFrase(line);
+				cp2.vistaLineas().agregarFrase(line);
+			}
+			for (IndiceAbstracto ind : single) {
+				ind.resolver(delimiters);
+			}
+			cp1.resolver(delimiters);
+			cp2.resolverParalelo(delimiters, 4);
+			for (IndiceCompuesto cp : new IndiceCompuesto[] { cp1, cp2 }) {
+				assertAll("compositeViewsTest1",
+						() -> assertEquals(presentar(single[0]), presentar(cp.vistaContador()), "\n> Error: vistaContador():"),
+						() -> assertEquals(presentar(single[1]), presentar(cp.vistaLineas()), "\n> Error: vistaLineas():"),
+						() -> assertEquals(presentar(single[2]), presentar(cp.vistaPosiciones()), "\n> Error: vistaPosiciones():"),
+						() -> assertEquals(presentar(single[2]), presentar(cp), "\n> Error: presentarIndice():"),
+						() -> assertEquals(((IndiceContador) single[0]).frecuencia("PARRA"), cp.frecuencia("PARRA"), "\n> Error: frecuencia():"),
+						() -> assertEquals(((IndiceLineas) single[1]).lineas("jarra").tamanio(), cp.lineas("jarra").tamanio(), "\n> Error: lineas():"),
+						() -> assertEquals(((IndicePosicionesEnLineas) single[2]).posiciones("la").tamanio(), cp.posiciones("la").tamanio(), "\n> Error: posiciones():"));
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void compositeViewsMetricsTest1() {
+			IndiceCompuesto cp1 = new IndiceCompuesto();
+			cp1.setInstrumentado(true);
+			for (int i = 0; i < numLines; ++i) {
+				cp1.agregarFrase(inputData[i % inputData.length] + " " + i);
+			}
+			cp1.resolver(delimiters);
+			assertEquals(0, cp1.getMetricas().nanosPresentar(), "\n> Error: nanosPresentar():");
+			presentar(cp1.vistaLineas());
+			assertTrue(cp1.getMetricas().nanosPresentar() > 0, "\n> Error: nanosPresentar():");
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void compositeSegmentedTest1() throws Exception {
+			IndicePosicionesEnLineas seq = new IndicePosicionesEnLineas();
+			try (IndiceSegmentado seg = new IndiceSegmentado(IndiceCompuesto::new, 4)) {
+				for (int i = 0; i < 200; ++i) {
+					seq.agregarFrase(inputData[i % inputData.length]);
+					seg.agregarFrase(inputData[i % inputData.length]);
+				}
+				seq.resolver(delimiters);
+				seg.resolver(delimiters);
+				seg.esperarFusiones();
+				assertEquals(presentar(seq), presentar(seg), "\n> Error: presentarIndice():");
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestConsultaBooleana {
+		private static final int numLines = 5000;
+		private IndiceLineas cp1;
+		private java.util.List<java.util.Set<String>> lines;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of boolean query JUnit Test");
+			java.util.Random rnd = new java.util.Random(21);
+			cp1 = new IndiceLineas();
+			lines = new java.util.ArrayList<>();
+			String[] common = { "la", "de", "perra" };
+			for (int i = 0; i < numLines; ++i) {
+				java.util.Set<String> words = new java.util.HashSet<>();
+				StringBuilder sb = new StringBuilder();
+				for (String w : common) {
+					if (rnd.nextInt(10) < 8) {
+						words.add(w);
+						sb.append(w).append(' ');
+					}
+				}
+				String rare = "r" + rnd.nextInt(300);
+				words.add(rare);
+				sb.append(rare.toUpperCase());
+				lines.add(words);
+				cp1.agregarFrase(sb.toString());
+			}
+			cp1.resolver(" ");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of boolean query JUnit Test");
+		}
+		private String expected(java.util.function.Predicate<java.util.Set<String>> p) {
+			java.util.StringJoiner sj = new java.util.StringJoiner(",", "<", ">");
+			for (int i = 0; i < numLines; ++i) {
+				if (p.test(lines.get(i))) {
+					sj.add(String.valueOf(i + 1));
+				}
+			}
+			return sj.toString();
+		}
+		private String actual(ListaLineas ll) {
+			java.util.StringJoiner sj = new java.util.StringJoiner(",", "<", ">");
+			for (java.util.PrimitiveIterator.OfInt it = ll.iterator(); it.hasNext(); ) {
+				sj.add(String.valueOf(it.nextInt()));
+			}
+			return sj.toString();
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void booleanQueryTest1() {
+			assertAll("booleanQueryTest1",
+					() -> assertEquals(expected(w -> w.contains("la") && w.contains("r7")),
+							actual(cp1.consultar("la AND R7")), "\n> Error: consultar():"),
+					() -> assertEquals(expected(w -> w.contains("la") && w.contains("de") && ! w.contains("perra")),
+							actual(cp1.consultar("la AND de AND NOT perra")), "\n> Error: consultar():"),
+					() -> assertEquals(expected(w -> (w.contains("r1") || w.contains("r2")) && w.contains("perra")),
+							actual(cp1.consultar("(r1 OR r2) perra")), "\n> Error: consultar():"),
+					() -> assertEquals(expected(w -> ! w.contains("la") || w.contains("r5")),
+							actual(cp1.consultar("NOT la OR r5")), "\n> Error: consultar():"),
+					() -> assertEquals(expected(w -> w.contains("de") && ! (w.contains("la") && w.contains("perra"))),
+							actual(cp1.consultar("de NOT (la perra)")), "\n> Error: consultar():"),
+					() -> assertEquals("<>", actual(cp1.consultar("la AND ausente")), "\n> Error: consultar():"));
+			for (String bad : new String[] { "", "la AND", "(la", "la )", "OR la", "AND perra", "(AND la)", "la OR AND perra", "NOT AND la" }) {
+				try {
+					cp1.consultar(bad);
+					fail("\n> Error: consultar(" + bad + "):");
+				} catch (IllegalArgumentException e) {
+					// Expected
+				}
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void skipCursorTest1() {
+			java.util.Random rnd = new java.util.Random(5);
+			ListaLineas ll = new ListaLineas();
+			java.util.TreeSet<Integer> set = new java.util.TreeSet<>();
+			int line = 0;
+			for (int part = 0; part < 4; ++part) {
+				ListaLineas other = new ListaLineas();
+				int first = 1 + rnd.nextInt(50);
+				int l = first;
+				for (int i = 0; i < 1000; ++i) {
+					other.agregar(l);
+					set.add(line + l + 7);
+					l += 1 + rnd.nextInt(part == 2 ? 1000 : 5);
+				}
+				ll.agregarTodas(other, line + 7);
+				line = set.last();
+			}
+			for (int k = 0; k < 200; ++k) {
+				ListaLineas.Cursor c = ll.cursor();
+				int target = 0;
+				while (true) {
+					target += rnd.nextInt(3000);
+					Integer exp = set.ceiling(target);
+					boolean found = c.avanzarHasta(target);
+					assertEquals(exp != null, found, "\n> Error: avanzarHasta():");
+					if ( ! found) {
+						break;
+					}
+					assertEquals(exp.intValue(), c.linea(), "\n> Error: avanzarHasta():");
+				}
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestListaAdaptativa {
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of adaptive ListaLineas JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of adaptive ListaLineas JUnit Test");
+		}
+		private String toStr(Iterable<Integer> c) {
+			java.util.StringJoiner sj = new java.util.StringJoiner(",", "<", ">");
+			for (Integer i : c) {
+				sj.add(i.toString());
+			}
+			return sj.toString();
+		}
+		// Sparse lines, dense lines and ranges of consecutive lines
+		private java.util.TreeSet<Integer> randomSet(java.util.Random rnd) {
+			java.util.TreeSet<Integer> set = new java.util.TreeSet<>();
+			int line = rnd.nextInt(100);
+			while (line < 400000) {
+				int kind = (line >>> 16) % 3;
+				int step = (kind == 0) ? 1 + rnd.nextInt(200) : (kind == 1) ? 1 + rnd.nextInt(3) : 1;
+				if (kind == 2 && rnd.nextInt(1000) == 0) {
+					step = 1 + rnd.nextInt(5000);
+				}
+				set.add(line);
+				line += step;
+			}
+			return set;
+		}
+		private ListaLineas toList(java.util.SortedSet<Integer> set) {
+			ListaLineas ll = new ListaLineas();
+			for (int i : set) {
+				ll.agregar(i);
+			}
+			return ll;
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void adaptiveSetOpsTest1() {
+			java.util.Random rnd = new java.util.Random(23);
+			for (int k = 0; k < 3; ++k) {
+				java.util.TreeSet<Integer> a = randomSet(rnd);
+				java.util.TreeSet<Integer> b = randomSet(rnd);
+				ListaLineas la = toList(a);
+				ListaLineas lb = toList(b);
+				java.util.TreeSet<Integer> and = new java.util.TreeSet<>(a);
+				and.retainAll(b);
+				java.util.TreeSet<Integer> or = new java.util.TreeSet<>(a);
+				or.addAll(b);
+				java.util.TreeSet<Integer> not = new java.util.TreeSet<>(a);
+				not.removeAll(b);
+				ListaLineas lAnd = la.interseccion(lb);
+				ListaLineas lOr = la.union(lb);
+				ListaLineas lNot = la.diferencia(lb);
+				assertAll("adaptiveSetOpsTest1",
+						() -> assertEquals(toStr(a), toStr(la), "\n> Error: agregar():"),
+						() -> assertEquals(toStr(and), toStr(lAnd), "\n> Error: interseccion():"),
+						() -> assertEquals(and.size(), lAnd.tamanio(), "\n> Error: tamanio():"),
+						() -> assertEquals(toStr(or), toStr(lOr), "\n> Error: union():"),
+						() -> assertEquals(or.last().intValue(), lOr.ultima(), "\n> Error: ultima():"),
+						() -> assertEquals(toStr(not), toStr(lNot), "\n> Error: diferencia():"),
+						() -> assertEquals(not.size(), lNot.tamanio(), "\n> Error: tamanio():"));
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void adaptiveAppendTest1() {
+			java.util.Random rnd = new java.util.Random(3);
+			java.util.TreeSet<Integer> a = randomSet(rnd);
+			java.util.TreeSet<Integer> b = randomSet(rnd);
+			java.util.TreeSet<Integer> set = new java.util.TreeSet<>(a);
+			ListaLineas ll = toList(a);
+			// Offset multiple of 65536 (whole blocks copied) and any other offset
+			int[] offsets = { 7 << 16, 1000003 };
+			int base = 0;
+			for (int off : offsets) {
+				base += off;
+				ll.agregarTodas(toList(b), base);
+				for (int i : b) {
+					set.add(i + base);
+				}
+			}
+			assertEquals(toStr(set), toStr(ll), "\n> Error: agregarTodas():");
+			assertEquals(set.size(), ll.tamanio(), "\n> Error: tamanio():");
+			assertEquals(set.last().intValue(), ll.ultima(), "\n> Error: ultima():");
+			ListaLineas.Cursor c = ll.cursor();
+			for (int target = 0; target < set.last(); target += 1 + rnd.nextInt(100000)) {
+				assertTrue(c.avanzarHasta(target), "\n> Error: avanzarHasta():");
+				assertEquals(set.ceiling(target).intValue(), c.linea(), "\n> Error: avanzarHasta():");
+			}
+			IndiceLineas il = new IndiceLineas();
+			for (int i = 0; i < 70000; ++i) {
+				il.agregarFrase((i % 3 == 0) ? "la de" : "la");
+			}
+			il.resolver(" ");
+			assertEquals(70000, il.consultar("la").tamanio(), "\n> Error: consultar():");
+			assertEquals(46666, il.consultar("NOT de").tamanio(), "\n> Error: consultar():");
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestComodines {
+		private final String[] patterns = { "perr*", "*rra", "*er*", "p*a", "*", "p*r*a", "rap", "*z*", "a**e", "*ap*e*" };
+		private IndiceContador cp1;
+		private IndiceLineas cp2;
+		private IndicePosicionesEnLineas cp3;
+		private java.util.TreeMap<String, java.util.TreeSet<Integer>> lines;
+		private java.util.TreeMap<String, Integer> counts;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of wildcard JUnit Test");
+			java.util.Random rnd = new java.util.Random(24);
+			cp1 = new IndiceContador();
+			cp2 = new IndiceLineas();
+			cp3 = new IndicePosicionesEnLineas();
+			lines = new java.util.TreeMap<>();
+			counts = new java.util.TreeMap<>();
+			String letters = "aepr";
+			for (int i = 1; i <= 2000; ++i) {
+				StringBuilder line = new StringBuilder();
+				for (int j = 0; j < 5; ++j) {
+					StringBuilder w = new StringBuilder();
+					int len = 1 + rnd.nextInt(7);
+					for (int k = 0; k < len; ++k) {
+						w.append(letters.charAt(rnd.nextInt(letters.length())));
+					}
+					String word = w.toString();
+					lines.computeIfAbsent(word, x -> new java.util.TreeSet<>()).add(i);
+					counts.merge(word, 1, Integer::sum);
+					line.append(rnd.nextBoolean() ? word : word.toUpperCase()).append(' ');
+				}
+				cp1.agregarFrase(line.toString());
+				cp2.agregarFrase(line.toString());
+				cp3.agregarFrase(line.toString());
+			}
+			cp1.resolver(" ");
+			cp2.resolver(" ");
+			cp3.resolver(" ");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of wildcard JUnit Test");
+		}
+		private java.util.List<String> expected(String pattern) {
+			java.util.regex.Pattern p = java.util.regex.Pattern.compile(pattern.replace("*", ".*"));
+			java.util.List<String> res = new java.util.ArrayList<>();
+			for (String w : lines.keySet()) {
+				if (p.matcher(w).matches()) {
+					res.add(w);
+				}
+			}
+			return res;
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void wildcardLinesTest1() {
+			for (String pattern : patterns) {
+				java.util.List<String> words = expected(pattern);
+				java.util.Map<String, ListaLineas> found = cp2.lineasPatron(pattern.toUpperCase());
+				java.util.Map<String, ListaPosiciones> found3 = cp3.posicionesPatron(pattern);
+				assertEquals(words, new java.util.ArrayList<>(found.keySet()), "\n> Error: lineasPatron(" + pattern + "):");
+				assertEquals(words, new java.util.ArrayList<>(found3.keySet()), "\n> Error: posicionesPatron(" + pattern + "):");
+				for (String w : words) {
+					assertEquals(lines.get(w).size(), found.get(w).tamanio(), "\n> Error: lineasPatron(" + pattern + "):");
+					assertEquals(counts.get(w).intValue(), found3.get(w).tamanio(), "\n> Error: posicionesPatron(" + pattern + "):");
+				}
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void wildcardCountsTest1() {
+			for (String pattern : patterns) {
+				java.util.List<String> words = expected(pattern);
+				words.sort((a, b) -> counts.get(a).equals(counts.get(b)) ? a.compareTo(b) : counts.get(b) - counts.get(a));
+				ListaFrecuencias lf = cp1.frecuenciasPatron(pattern);
+				assertEquals(words.size(), lf.tamanio(), "\n> Error: frecuenciasPatron(" + pattern + "):");
+				for (int i = 0; i < lf.tamanio(); ++i) {
+					assertEquals(words.get(i), lf.palabra(i), "\n> Error: frecuenciasPatron(" + pattern + "):");
+					assertEquals(counts.get(words.get(i)).intValue(), lf.frecuencia(i), "\n> Error: frecuenciasPatron(" + pattern + "):");
+				}
+			}
+			// The dictionary is rebuilt after the index changes
+			cp1.agregarFrase("zzz");
+			cp1.resolver(" ");
+			assertEquals(1, cp1.frecuenciasPatron("*z*").tamanio(), "\n> Error: frecuenciasPatron():");
+		}
+		private String found(java.util.Map<String, ?> m) {
+			java.util.StringJoiner sj = new java.util.StringJoiner(",");
+			for (java.util.Map.Entry<String, ?> e : m.entrySet()) {
+				Object v = e.getValue();
+				sj.add(e.getKey() + ":" + ((v instanceof ListaLineas) ? ((ListaLineas) v).tamanio() : ((ListaPosiciones) v).tamanio()));
+			}
+			return sj.toString();
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void wildcardIncrementalTest1() {
+			// Words added after the first build stay out of the compact dictionary for a while
+			java.util.Random rnd = new java.util.Random(13);
+			IndiceLineas inc2 = new IndiceLineas();
+			IndicePosicionesEnLineas inc3 = new IndicePosicionesEnLineas();
+			inc2.setIncremental(true);
+			inc3.setIncremental(true);
+			java.util.List<String> text = new java.util.ArrayList<>();
+			for (int round = 0; round < 20; ++round) {
+				for (int i = 0; i < ((round == 0) ? 500 : 3); ++i) {
+					StringBuilder line = new StringBuilder();
+					for (int j = 0; j < 5; ++j) {
+						int len = 1 + rnd.nextInt(6);
+						for (int k = 0; k < len; ++k) {
+							line.append("aeprz".charAt(rnd.nextInt((round == 0) ? 4 : 5)));
+						}
+						line.append(' ');
+					}
+					text.add(line.toString());
+					inc2.agregarFrase(line.toString());
+					inc3.agregarFrase(line.toString());
+				}
+				inc2.resolver(" ");
+				inc3.resolver(" ");
+				IndiceLineas full2 = new IndiceLineas();
+				IndicePosicionesEnLineas full3 = new IndicePosicionesEnLineas();
+				for (String x : text) {
+					full2.agregarFrase(x);
+					full3.agregarFrase(x);
+				}
+				full2.resolver(" ");
+				full3.resolver(" ");
+				for (String pattern : patterns) {
+					assertEquals(found(full2.lineasPatron(pattern)), found(inc2.lineasPatron(pattern)),
+							"\n> Error: lineasPatron(" + pattern + "):");
+					assertEquals(found(full3.posicionesPatron(pattern)), found(inc3.posicionesPatron(pattern)),
+							"\n> Error: posicionesPatron(" + pattern + "):");
+				}
+				assertEquals(presentar(full2), presentar(inc2), "\n> Error: presentarIndice():");
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestSimilares {
+		private IndiceContador cp1;
+		private IndiceLineas cp2;
+		private java.util.TreeMap<String, Integer> counts;
+		private java.util.TreeMap<String, java.util.Set<Integer>> lines;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of fuzzy lookup JUnit Test");
+			java.util.Random rnd = new java.util.Random(25);
+			cp1 = new IndiceContador();
+			cp2 = new IndiceLineas();
+			counts = new java.util.TreeMap<>();
+			lines = new java.util.TreeMap<>();
+			for (int i = 1; i <= 5000; ++i) {
+				StringBuilder line = new StringBuilder();
+				for (int j = 0; j < 4; ++j) {
+					StringBuilder w = new StringBuilder();
+					int len = 3 + rnd.nextInt(5);
+					for (int k = 0; k < len; ++k) {
+						w.append((char) ('a' + rnd.nextInt(6)));
+					}
+					String word = w.toString();
+					counts.merge(word, 1, Integer::sum);
+					lines.computeIfAbsent(word, x -> new java.util.HashSet<>()).add(i);
+					line.append(word).append(' ');
+				}
+				cp1.agregarFrase(line.toString());
+				cp2.agregarFrase(line.toString());
+			}
+			cp1.resolver(" ");
+			cp2.resolver(" ");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of fuzzy lookup JUnit Test");
+		}
+		private int distance(String a, String b) {
+			int[] row = new int[b.length() + 1];
+			for (int j = 0; j <= b.length(); ++j) {
+				row[j] = j;
+			}
+			for (int i = 1; i <= a.length(); ++i) {
+				int diag = row[0];
+				row[0] = i;
+				for (int j = 1; j <= b.length(); ++j) {
+					int up = row[j];
+					row[j] = Math.min(Math.min(row[j] + 1, row[j - 1] + 1), diag + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+					diag = up;
+				}
+			}
+			return row[b.length()];
+		}
+		private String expected(String word, int max, java.util.function.ToIntFunction<String> freq) {
+			java.util.List<String> res = new java.util.ArrayList<>();
+			for (String w : counts.keySet()) {
+				if (distance(word, w) <= max) {
+					res.add(w);
+				}
+			}
+			res.sort(java.util.Comparator.<String>comparingInt(w -> distance(word, w))
+					.thenComparing(w -> -freq.applyAsInt(w)).thenComparing(w -> w));
+			java.util.StringJoiner sj = new java.util.StringJoiner(",");
+			for (String w : res) {
+				sj.add(w + ":" + distance(word, w) + ":" + freq.applyAsInt(w));
+			}
+			return sj.toString();
+		}
+		private String actual(ListaSimilares ls) {
+			java.util.StringJoiner sj = new java.util.StringJoiner(",");
+			for (int i = 0; i < ls.tamanio(); ++i) {
+				sj.add(ls.palabra(i) + ":" + ls.distancia(i) + ":" + ls.frecuencia(i));
+			}
+			return sj.toString();
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void fuzzyLookupTest1() {
+			String[] words = { "abcde", "ffff", "aba", "bacdefa", "abc", "x", "" };
+			for (String w : words) {
+				for (int max = 0; max <= 2; ++max) {
+					assertEquals(expected(w, max, counts::get), actual(cp1.similares(w.toUpperCase(), max)),
+							"\n> Error: similares(" + w + ", " + max + "):");
+					assertEquals(expected(w, max, x -> lines.get(x).size()), actual(cp2.similares(w, max)),
+							"\n> Error: similares(" + w + ", " + max + "):");
+				}
+			}
+		}
+		@Test
+		@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+		public void fuzzyLookupTest2() {
+			IndiceContador ic = new IndiceContador();
+			ic.agregarFrase("la jarra y la parra de la porra");
+			ic.agregarFrase("jarra jarras");
+			ic.resolver(" ");
+			ListaSimilares ls = ic.similares("jara", 2);
+			assertAll("fuzzyLookupTest2",
+					() -> assertEquals("jarra", ls.palabra(0), "\n> Error: similares():"),
+					() -> assertEquals(1, ls.distancia(0), "\n> Error: similares():"),
+					() -> assertEquals("jarras:2:1,parra:2:1", actual(ls).substring(actual(ls).indexOf(',') + 1), "\n> Error: similares():"));
+			try {
+				ic.similares("jara", -1);
+				fail("\n> Error: similares():");
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void fuzzyIncrementalTest1() {
+			// Words added after the first build stay out of the compact dictionary for a while
+			IndiceLineas inc = new IndiceLineas();
+			inc.setIncremental(true);
+			java.util.List<String> text = new java.util.ArrayList<>();
+			java.util.Random rnd = new java.util.Random(26);
+			String[] words = { "abcde", "ffff", "aba", "abc", "ghg", "hh", "x", "" };
+			for (int round = 0; round < 10; ++round) {
+				for (int i = 0; i < ((round == 0) ? 500 : 2); ++i) {
+					StringBuilder line = new StringBuilder();
+					for (int j = 0; j < 4; ++j) {
+						int len = 2 + rnd.nextInt(4);
+						for (int k = 0; k < len; ++k) {
+							line.append((char) ('a' + rnd.nextInt((round == 0) ? 6 : 8)));
+						}
+						line.append(' ');
+					}
+					text.add(line.toString());
+					inc.agregarFrase(line.toString());
+				}
+				inc.resolver(" ");
+				IndiceLineas full = new IndiceLineas();
+				for (String x : text) {
+					full.agregarFrase(x);
+				}
+				full.resolver(" ");
+				for (String w : words) {
+					for (int max = 0; max <= 2; ++max) {
+						assertEquals(actual(full.similares(w, max)), actual(inc.similares(w, max)),
+								"\n> Error: similares(" + w + ", " + max + "):");
+					}
+				}
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestVarint {
+		// Lines and positions that need 1, 2 and 3 bytes
+		private final int[][] occurrences = { { 1, 1 }, { 1, 127 }, { 2, 128 }, { 130, 16383 }, { 130, 16384 }, { 20000, 3 }, { 20000, 20001 } };
+		private IndiceLineas cp1;
+		private IndicePosicionesEnLineas cp2;
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of multi-byte varint JUnit Test");
+			java.util.Map<Integer, java.util.List<Integer>> byLine = new java.util.HashMap<>();
+			for (int[] o : occurrences) {
+				byLine.computeIfAbsent(o[0], x -> new java.util.ArrayList<>()).add(o[1]);
+			}
+			cp1 = new IndiceLineas();
+			cp2 = new IndicePosicionesEnLineas();
+			for (int i = 1; i <= 20000; ++i) {
+				String line = "x";
+				if (byLine.containsKey(i)) {
+					java.util.List<Integer> pos = byLine.get(i);
+					String[] words = new String[pos.get(pos.size() - 1)];
+					java.util.Arrays.fill(words, "x");
+					for (int p : pos) {
+						words[p - 1] = "perra";
+					}
+					line = String.join(" ", words);
+				}
+				cp1.agregarFrase(line);
+				cp2.agregarFrase(line);
+			}
+			cp1.resolver(" ");
+			cp2.resolver(" ");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of multi-byte varint JUnit Test");
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void varintPositionsTest1() throws Exception {
+			ListaPosiciones.Cursor c = cp2.posiciones("perra").cursor();
+			for (int[] o : occurrences) {
+				assertTrue(c.siguiente(), "\n> Error: posiciones():");
+				assertEquals(o[0], c.linea(), "\n> Error: linea():");
+				assertEquals(o[1], c.posicion(), "\n> Error: posicion():");
+			}
+			assertTrue( ! c.siguiente(), "\n> Error: posiciones():");
+			String expected = "perra" + System.lineSeparator()
+					+ String.format("%10s %4d %s\n", "", 1, "<1,127>")
+					+ String.format("%10s %4d %s\n", "", 2, "<128>")
+					+ String.format("%10s %4d %s\n", "", 130, "<16383,16384>")
+					+ String.format("%10s %4d %s\n", "", 20000, "<3,20001>");
+			String out = presentar(cp2);
+			assertTrue(out.startsWith(expected), "\n> Error: presentarIndice():");
+		}
+		@Test
+		@Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+		public void varintSegmentTest1() throws Exception {
+			assertTrue(presentar(cp1).startsWith(String.format("%-10s %s\n", "perra", "<1,2,130,20000>")),
+					"\n> Error: presentarIndice():");
+			java.nio.file.Path lines = java.nio.file.Files.createTempFile("lineas", ".seg");
+			java.nio.file.Path positions = java.nio.file.Files.createTempFile("posiciones", ".seg");
+			try {
+				cp1.guardar(lines);
+				cp2.guardar(positions);
+				try (IndiceSegmento seg1 = IndiceSegmento.abrir(lines);
+						IndiceSegmento seg2 = IndiceSegmento.abrir(positions)) {
+					assertEquals(presentar(cp1), presentar(seg1), "\n> Error: guardar():");
+					assertEquals(presentar(cp2), presentar(seg2), "\n> Error: guardar():");
+				}
+			} finally {
+				java.nio.file.Files.deleteIfExists(lines);
+				java.nio.file.Files.deleteIfExists(positions);
+			}
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
+	//--JUnitTest-----------------------------------------------------------
+	//----------------------------------------------------------------------
+	@Nested
+	@TestInstance(TestInstance.Lifecycle.PER_CLASS) 
+	public class JUnitTestTablaTerminos {
+		@BeforeAll
+		public void beforeClass() {
+			// Code executed before the first test method
+			System.out.println("Start of TablaTerminos JUnit Test");
+		}
+		@AfterAll
+		public void afterClass() {
+			// Code executed after the last test method
+			System.out.println("End of TablaTerminos JUnit Test");
+		}
+		// Random terms plus 1024 terms with the same hashCode ("Aa" and "BB" collide)
+		private java.util.List<String> terms(java.util.Random rnd) {
+			java.util.List<String> res = new java.util.ArrayList<>();
+			for (int i = 0; i < 1024; ++i) {
+				StringBuilder sb = new StringBuilder();
+				for (int b = 0; b < 10; ++b) {
+					sb.append(((i >> b) & 1) == 0 ? "Aa" : "BB");
+				}
+				res.add(sb.toString());
+			}
+			for (int i = 0; i < 5000; ++i) {
+				res.add(Integer.toString(rnd.nextInt(3000), 36) + (rnd.nextBoolean() ? "" : "ñ"));
+			}
+			java.util.Collections.shuffle(res, rnd);
+			return res;
+		}
+		private void check(TablaTerminos t, java.util.List<String> terms) {
+			java.util.Map<String, Integer> ids = new java.util.HashMap<>();
+			for (String w : terms) {
+				Integer expected = ids.get(w);
+				int id = t.agregar(new StringBuilder(w));
+				if (expected == null) {
+					expected = ids.size();
+					ids.put(w, expected);
+				}
+				assertEquals(expected.intValue(), id, "\n> Error: agregar():");
+			}
+			assertEquals(ids.size(), t.tamanio(), "\n> Error: tamanio():");
+			for (java.util.Map.Entry<String, Integer> e : ids.entrySet()) {
+				assertEquals(e.getValue().intValue(), t.buscar(e.getKey()), "\n> Error: buscar():");
+				assertEquals(e.getKey(), t.termino(e.getValue()), "\n> Error: termino():");
+			}
+			assertEquals(-1, t.buscar("AaAaAaAaAaAaAaAaAaBBBB"), "\n> Error: buscar():");
+			assertEquals(-1, t.buscar("no está"), "\n> Error: buscar():");
+			java.util.List<String> sorted = new java.util.ArrayList<>(new java.util.TreeMap<>(ids).keySet());
+			java.util.List<String> actual = new java.util.ArrayList<>();
+			for (int id : t.ordenLexicografico()) {
+				actual.add(t.termino(id));
+			}
+			assertEquals(sorted, actual, "\n> Error: ordenLexicografico():");
+		}
+		@Test
+		@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+		public void termTableTest1() {
+			java.util.Random rnd = new java.util.Random(8);
+			TablaTerminos t = new TablaTerminos();
+			check(t, terms(rnd));
+			t.limpiar();
+			assertEquals(0, t.tamanio(), "\n> Error: limpiar():");
+			assertEquals(-1, t.buscar("AaAaAaAaAaAaAaAaAaAa"), "\n> Error: limpiar():");
+			assertEquals(0, t.ordenLexicografico().length, "\n> Error: limpiar():");
+			check(t, terms(rnd));
+		}
+		//------------------------------------------------------------------
+	}
+	//----------------------------------------------------------------------
 	//--JUnitTestSuite------------------------------------------------------
 	//----------------------------------------------------------------------
 	@Suite
 	@SelectClasses({ JUnitTestIndiceContador.class ,
 				JUnitTestIndiceLineas.class ,
-				JUnitTestIndicePosicionesEnLineas.class
+				JUnitTestIndicePosicionesEnLineas.class ,
+				JUnitTestTokenizador.class ,
+				JUnitTestResolverParalelo.class ,
+				JUnitTestIncremental.class ,
+				JUnitTestArchivo.class ,
+				JUnitTestListaLineas.class ,
+				JUnitTestAlmacenLineas.class ,
+				JUnitTestConsultas.class ,
+				JUnitTestSegmento.class ,
+				JUnitTestIndiceSegmentado.class ,
+				JUnitTestDiccionarioTerminos.class ,
+				JUnitTestPresentar.class ,
+				JUnitTestTopK.class ,
+				JUnitTestAproximado.class ,
+				JUnitTestConcurrente.class ,
+				JUnitTestPipeline.class ,
+				JUnitTestMinusculas.class ,
+				JUnitTestMetricas.class ,
+				JUnitTestCompuesto.class ,
+				JUnitTestConsultaBooleana.class ,
+				JUnitTestListaAdaptativa.class ,
+				JUnitTestComodines.class ,
+				JUnitTestSimilares.class ,
+				JUnitTestVarint.class ,
+				JUnitTestTablaTerminos.class
 				})
 				public static class JUnitTestSuite { /*empty*/ }
 	//----------------------------------------------------------------------
@@ -304,7 +2358,31 @@ public class TestRunnerPr52 {
 				.selectors(
 						selectClass(JUnitTestIndiceContador.class),
 						selectClass(JUnitTestIndiceLineas.class),
-						selectClass(JUnitTestIndicePosicionesEnLineas.class))
+						selectClass(JUnitTestIndicePosicionesEnLineas.class),
+						selectClass(JUnitTestTokenizador.class),
+						selectClass(JUnitTestResolverParalelo.class),
+						selectClass(JUnitTestIncremental.class),
+						selectClass(JUnitTestArchivo.class),
+						selectClass(JUnitTestListaLineas.class),
+						selectClass(JUnitTestAlmacenLineas.class),
+						selectClass(JUnitTestConsultas.class),
+						selectClass(JUnitTestSegmento.class),
+						selectClass(JUnitTestIndiceSegmentado.class),
+						selectClass(JUnitTestDiccionarioTerminos.class),
+						selectClass(JUnitTestPresentar.class),
+						selectClass(JUnitTestTopK.class),
+						selectClass(JUnitTestAproximado.class),
+						selectClass(JUnitTestConcurrente.class),
+						selectClass(JUnitTestPipeline.class),
+						selectClass(JUnitTestMinusculas.class),
+						selectClass(JUnitTestMetricas.class),
+						selectClass(JUnitTestCompuesto.class),
+						selectClass(JUnitTestConsultaBooleana.class),
+						selectClass(JUnitTestListaAdaptativa.class),
+						selectClass(JUnitTestComodines.class),
+						selectClass(JUnitTestSimilares.class),
+						selectClass(JUnitTestVarint.class),
+						selectClass(JUnitTestTablaTerminos.class))
 				.build();
 
 		final Launcher launcher = LauncherFactory.create();
@@ -377,6 +2455,13 @@ public class TestRunnerPr52 {
 	//----------------------------------------------------------------------
 	//-- Utils -------------------------------------------------------------
 	//----------------------------------------------------------------------
+	private static String presentar(Indice ind) {
+		java.io.StringWriter sw = new java.io.StringWriter();
+		try (PrintWriter pw = new PrintWriter(sw)) {
+			ind.presentarIndice(pw);
+		}
+		return sw.toString();
+	}
 	private static char normalizeUnicode(char ch) {
 		switch (ch) {
 		case '\n':